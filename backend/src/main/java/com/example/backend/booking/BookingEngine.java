@@ -0,0 +1,225 @@
+package com.example.backend.booking;
+
+import com.example.backend.catalog.CatalogSnapshotHolder;
+import com.example.backend.dto.AvailableProviderDto;
+import com.example.backend.dto.ServiceDto;
+import com.example.backend.dto.TimeSlotDto;
+import com.example.backend.model.Order;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Бронирование времени исполнителя и поиск свободных слотов.
+ *
+ * <p>Пересечения проверяются по БД под блокировкой строки исполнителя, которая держится до коммита:
+ * параллельные {@code createOrder} одного исполнителя, в том числе на разных узлах, выстраиваются
+ * в очередь, и второй видит заказ первого. Свободные слоты считаются по {@link ProviderScheduleIndex}
+ * без обращения к БД, свободные исполнители — по битовым картам слотов.
+ */
+@Service
+public class BookingEngine {
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final ProviderScheduleIndex providerScheduleIndex;
+    private final CatalogSnapshotHolder catalogSnapshotHolder;
+    private final LocalTime workdayStart;
+    private final LocalTime workdayEnd;
+    private final Duration slotStep;
+    private final Duration maxDuration;
+    private final Duration maxRange;
+
+    public BookingEngine(OrderRepository orderRepository,
+                         UserRepository userRepository,
+                         ProviderScheduleIndex providerScheduleIndex,
+                         CatalogSnapshotHolder catalogSnapshotHolder,
+                         @Value("${app.booking.workday-start:08:00}") String workdayStart,
+                         @Value("${app.booking.workday-end:20:00}") String workdayEnd,
+                         @Value("${app.booking.slot-step:30m}") Duration slotStep,
+                         @Value("${app.booking.max-duration:24h}") Duration maxDuration,
+                         @Value("${app.booking.max-range:31d}") Duration maxRange) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.providerScheduleIndex = providerScheduleIndex;
+        this.catalogSnapshotHolder = catalogSnapshotHolder;
+        this.workdayStart = LocalTime.parse(workdayStart);
+        this.workdayEnd = LocalTime.parse(workdayEnd);
+        this.slotStep = slotStep;
+        this.maxDuration = maxDuration;
+        this.maxRange = maxRange;
+    }
+
+    /**
+     * Проверяет, что время заказа свободно у исполнителя, и заполняет время окончания.
+     * Вызывается в транзакции, которая затем сохранит заказ.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Order order) {
+        if (!tryReserve(order)) {
+            throw new RuntimeException("Provider is not available at the requested time");
+        }
+    }
+
+    /**
+     * Как {@link #reserve}, но о занятом времени сообщает через false, не помечая транзакцию на откат.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryReserve(Order order) {
+        if (order.getScheduledEndDateTime() == null) {
+            order.setScheduledEndDateTime(Order.endOf(order.getScheduledDateTime(), order.getService()));
+        }
+        if (order.getProvider() == null || order.getStatus() == Order.OrderStatus.CANCELLED) {
+            return true;
+        }
+        LocalDateTime start = order.getScheduledDateTime();
+        LocalDateTime end = order.getScheduledEndDateTime();
+        if (!end.isAfter(start) || Duration.between(start, end).compareTo(maxDuration) > 0) {
+            throw new RuntimeException("Invalid booking duration");
+        }
+        Long providerId = order.getProvider().getId();
+        userRepository.findByIdForUpdate(providerId)
+                .orElseThrow(() -> new RuntimeException("Provider not found"));
+        return !orderRepository.existsOverlapping(providerId, start, end, start.minus(maxDuration),
+                order.getId() != null ? order.getId() : -1L);
+    }
+
+    public record Visit(Long orderId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * Пакетная бронь для одного исполнителя: визиты проверяются по его заказам в БД, прочитанным
+     * одним запросом под блокировкой строки исполнителя, и друг с другом в порядке списка.
+     *
+     * @return id заказов, чьё время занято; остальные забронированы до конца транзакции
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Set<Long> reserveAll(Long providerId, List<Visit> visits) {
+        Set<Long> rejected = new HashSet<>();
+        if (visits.isEmpty()) {
+            return rejected;
+        }
+        userRepository.findByIdForUpdate(providerId)
+                .orElseThrow(() -> new RuntimeException("Provider not found"));
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        Set<Long> requested = new HashSet<>();
+        for (Visit visit : visits) {
+            if (!visit.end().isAfter(visit.start())
+                    || Duration.between(visit.start(), visit.end()).compareTo(maxDuration) > 0) {
+                throw new RuntimeException("Invalid booking duration");
+            }
+            from = from == null || visit.start().isBefore(from) ? visit.start() : from;
+            to = to == null || visit.end().isAfter(to) ? visit.end() : to;
+            requested.add(visit.orderId());
+        }
+
+        ProviderSchedule schedule = new ProviderSchedule();
+        for (Object[] row : orderRepository.findProviderBookings(providerId, from, to, from.minus(maxDuration))) {
+            Long orderId = (Long) row[0];
+            // Сами переносимые заказы не мешают себе, даже если уже стоят у этого исполнителя
+            if (!requested.contains(orderId)) {
+                schedule.put(orderId, ProviderScheduleIndex.toMinute((LocalDateTime) row[1]),
+                        ProviderScheduleIndex.toMinute((LocalDateTime) row[2]));
+            }
+        }
+        for (Visit visit : visits) {
+            long start = ProviderScheduleIndex.toMinute(visit.start());
+            long end = ProviderScheduleIndex.toMinute(visit.end());
+            if (schedule.between(start, end).isEmpty()) {
+                schedule.put(visit.orderId(), start, end);
+            } else {
+                rejected.add(visit.orderId());
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Свободные начала визита для услуги в [from, to) с шагом {@code slot-step} в рабочие часы.
+     */
+    public List<TimeSlotDto> getFreeSlots(Long serviceId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from) || Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new RuntimeException("Invalid booking range");
+        }
+        ServiceDto service = catalogSnapshotHolder.current().findService(serviceId)
+                .orElseThrow(() -> new RuntimeException("Service not found"));
+        long duration = service.getDurationMinutes() != null && service.getDurationMinutes() > 0
+                ? service.getDurationMinutes() : Order.DEFAULT_DURATION_MINUTES;
+        long step = Math.max(1, slotStep.toMinutes());
+        LocalDateTime now = LocalDateTime.now();
+        if (from.isBefore(now)) {
+            from = now;
+        }
+
+        List<TimeSlotDto> slots = new ArrayList<>();
+        for (LocalDate day = from.toLocalDate(); !day.atStartOfDay().isAfter(to); day = day.plusDays(1)) {
+            long dayStart = ProviderScheduleIndex.toMinute(day.atTime(workdayStart));
+            long windowStart = Math.max(dayStart, ProviderScheduleIndex.toMinute(from));
+            long windowEnd = Math.min(ProviderScheduleIndex.toMinute(day.atTime(workdayEnd)),
+                    ProviderScheduleIndex.toMinute(to));
+            if (windowEnd - windowStart < duration) {
+                continue;
+            }
+            List<ProviderSchedule.Booking> bookings = service.getProviderId() != null
+                    ? providerScheduleIndex.bookings(service.getProviderId(), windowStart, windowEnd)
+                    : List.of();
+            // Проход по отсортированным броням: слоты до очередной брони, затем прыжок за её конец
+            long candidate = alignUp(windowStart, dayStart, step);
+            for (ProviderSchedule.Booking booking : bookings) {
+                for (; candidate + duration <= Math.min(booking.start(), windowEnd); candidate += step) {
+                    slots.add(slot(candidate, duration));
+                }
+                candidate = Math.max(candidate, alignUp(booking.end(), dayStart, step));
+            }
+            for (; candidate + duration <= windowEnd; candidate += step) {
+                slots.add(slot(candidate, duration));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Исполнители категории, свободные весь визит [start, start + duration) в рабочие часы.
+     * Занятость сверяется по 15-минутным слотам, поэтому соседний заказ в том же слоте исключает исполнителя.
+     */
+    public List<AvailableProviderDto> getAvailableProviders(Long categoryId, LocalDateTime start,
+                                                            Integer durationMinutes) {
+        long duration = durationMinutes != null ? durationMinutes : Order.DEFAULT_DURATION_MINUTES;
+        if (duration <= 0 || duration > maxDuration.toMinutes()) {
+            throw new RuntimeException("Invalid booking duration");
+        }
+        LocalDateTime end = start.plusMinutes(duration);
+        if (start.toLocalTime().isBefore(workdayStart) || end.isAfter(start.toLocalDate().atTime(workdayEnd))) {
+            return List.of();
+        }
+        Map<Long, String> candidates = catalogSnapshotHolder.current().getProvidersByCategory(categoryId);
+        List<AvailableProviderDto> result = new ArrayList<>();
+        for (Long providerId : providerScheduleIndex.freeProviders(candidates.keySet(), start, end)) {
+            result.add(new AvailableProviderDto(providerId, candidates.get(providerId)));
+        }
+        return result;
+    }
+
+    private static long alignUp(long minute, long origin, long step) {
+        long offset = Math.floorMod(minute - origin, step);
+        return offset == 0 ? minute : minute + step - offset;
+    }
+
+    private static TimeSlotDto slot(long start, long duration) {
+        return new TimeSlotDto(ProviderScheduleIndex.fromMinute(start), ProviderScheduleIndex.fromMinute(start + duration));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.backend.booking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Занятые интервалы одного исполнителя в минутах от эпохи, упорядоченные по началу.
+ *
+ * <p>Пересечения с [from, to) ищутся только среди интервалов, начавшихся не раньше
+ * {@code from - maxLength}, поэтому поиск стоит O(log n + k) даже при тысячах записей.
+ */
+final class ProviderSchedule {
+
+    record Booking(long orderId, long start, long end) {
+    }
+
+    private static final Comparator<Booking> BY_START = Comparator.comparingLong(Booking::start)
+            .thenComparingLong(Booking::orderId);
+
+    private final TreeSet<Booking> bookings = new TreeSet<>(BY_START);
+    private final Map<Long, Booking> byOrder = new HashMap<>();
+    // Только растёт до следующей пересборки: завышение лишь расширяет окно поиска
+    private long maxLength;
+
+    /** Возвращает прежний интервал заказа или null */
+    synchronized Booking put(long orderId, long start, long end) {
+        Booking previous = byOrder.put(orderId, new Booking(orderId, start, end));
+        if (previous != null) {
+            bookings.remove(previous);
+        }
+        bookings.add(byOrder.get(orderId));
+        maxLength = Math.max(maxLength, end - start);
+        return previous;
+    }
+
+    synchronized Booking remove(long orderId) {
+        Booking previous = byOrder.remove(orderId);
+        if (previous != null) {
+            bookings.remove(previous);
+        }
+        return previous;
+    }
+
+    /** Интервалы, пересекающие [from, to), по возрастанию начала */
+    synchronized List<Booking> between(long from, long to) {
+        List<Booking> result = new ArrayList<>();
+        for (Booking booking : window(from, to)) {
+            if (booking.end() > from) {
+                result.add(booking);
+            }
+        }
+        return result;
+    }
+
+    private Iterable<Booking> window(long from, long to) {
+        return bookings.subSet(new Booking(Long.MIN_VALUE, from - maxLength, 0), true,
+                new Booking(Long.MIN_VALUE, to, 0), false);
+    }
+}
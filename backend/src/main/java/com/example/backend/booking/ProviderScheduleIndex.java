@@ -0,0 +1,196 @@
+package com.example.backend.booking;
+
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.OrdersChangedEvent;
+import com.example.backend.model.Order;
+import com.example.backend.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Расписания исполнителей в памяти: актуальные неотменённые заказы, разложенные по исполнителям.
+ *
+ * <p>Обновляется после коммита изменений заказа и периодически пересобирается из БД, чтобы
+ * подтянуть изменения с других узлов. Решение о брони принимает {@link BookingEngine} по БД,
+ * индекс отвечает на вопросы о свободном времени. Вместе с расписаниями ведутся {@link SlotBitmaps}
+ * для поиска свободных исполнителей сразу по всему каталогу.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderScheduleIndex {
+
+    // Заказы, закончившиеся раньше, для расписания уже не нужны
+    private static final int HISTORY_HOURS = 24;
+
+    private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private volatile State state = new State();
+    private volatile boolean rebuilding;
+    // Изменения, пришедшие во время пересборки, применяются повторно к новому состоянию
+    private final Queue<Long> changedDuringRebuild = new ConcurrentLinkedQueue<>();
+    private final Object rebuildLock = new Object();
+
+    private static final class State {
+        final ConcurrentHashMap<Long, ProviderSchedule> schedules = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, Long> providerByOrder = new ConcurrentHashMap<>();
+        final SlotBitmaps busySlots = new SlotBitmaps();
+    }
+
+    static long toMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    static LocalDateTime fromMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        backfillScheduledEnds();
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.booking.index.rebuild-interval:PT5M}",
+            initialDelayString = "${app.booking.index.rebuild-interval:PT5M}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            try {
+                rebuilding = true;
+                long started = System.currentTimeMillis();
+                List<Object[]> rows = orderRepository.findBookingsEndingAfter(
+                        LocalDateTime.now().minusHours(HISTORY_HOURS));
+                State next = new State();
+                for (Object[] row : rows) {
+                    put(next, (Long) row[0], (Long) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]);
+                }
+                state = next;
+                log.info("Provider schedule index built: {} bookings for {} providers in {} ms", rows.size(),
+                        next.schedules.size(), System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                log.error("Failed to build provider schedule index: ", e);
+            } finally {
+                rebuilding = false;
+                Long orderId;
+                while ((orderId = changedDuringRebuild.poll()) != null) {
+                    refresh(orderId);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getOrderId());
+        }
+        if (event.isDeleted()) {
+            remove(state, event.getOrderId());
+        } else {
+            refresh(event.getOrderId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersChanged(OrdersChangedEvent event) {
+        event.getChanges().forEach(this::onOrderChanged);
+    }
+
+    List<ProviderSchedule.Booking> bookings(long providerId, long from, long to) {
+        ProviderSchedule schedule = state.schedules.get(providerId);
+        return schedule != null ? schedule.between(from, to) : List.of();
+    }
+
+    private void refresh(Long orderId) {
+        try {
+            Optional<Order> order = orderRepository.findById(orderId);
+            State current = state;
+            if (order.isPresent() && order.get().getProvider() != null
+                    && order.get().getStatus() != Order.OrderStatus.CANCELLED
+                    && order.get().getScheduledEndDateTime() != null) {
+                Order o = order.get();
+                put(current, o.getId(), o.getProvider().getId(), o.getScheduledDateTime(), o.getScheduledEndDateTime());
+            } else {
+                remove(current, orderId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh schedule for order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    private static void put(State target, Long orderId, Long providerId, LocalDateTime start, LocalDateTime end) {
+        Long previousProvider = target.providerByOrder.put(orderId, providerId);
+        if (previousProvider != null && !previousProvider.equals(providerId)) {
+            removeFrom(target, previousProvider, orderId);
+        }
+        ProviderSchedule schedule = target.schedules.computeIfAbsent(providerId, id -> new ProviderSchedule());
+        ProviderSchedule.Booking previous = schedule.put(orderId, toMinute(start), toMinute(end));
+        if (previous != null) {
+            refreshSlots(target, providerId, schedule, previous.start(), previous.end());
+        }
+        refreshSlots(target, providerId, schedule, toMinute(start), toMinute(end));
+    }
+
+    private static void remove(State target, Long orderId) {
+        Long providerId = target.providerByOrder.remove(orderId);
+        if (providerId != null) {
+            removeFrom(target, providerId, orderId);
+        }
+    }
+
+    private static void removeFrom(State target, Long providerId, Long orderId) {
+        ProviderSchedule schedule = target.schedules.get(providerId);
+        ProviderSchedule.Booking previous = schedule != null ? schedule.remove(orderId) : null;
+        if (previous != null) {
+            refreshSlots(target, providerId, schedule, previous.start(), previous.end());
+        }
+    }
+
+    // Слот на границе могут задевать и соседние заказы, поэтому берём все заказы отрезка, кратного слоту
+    private static void refreshSlots(State target, Long providerId, ProviderSchedule schedule, long start, long end) {
+        long from = SlotBitmaps.slotFloor(start);
+        long to = SlotBitmaps.slotCeil(end);
+        target.busySlots.refresh(providerId, from, to, schedule);
+    }
+
+    /**
+     * Исполнители из {@code candidates} без заказов в 15-минутных слотах, задевающих [start, end).
+     */
+    public List<Long> freeProviders(Iterable<Long> candidates, LocalDateTime start, LocalDateTime end) {
+        return state.busySlots.free(candidates, toMinute(start), toMinute(end));
+    }
+
+    // Заказы, созданные до появления времени окончания, получают его по длительности услуги
+    private void backfillScheduledEnds() {
+        try {
+            Integer filled = new TransactionTemplate(transactionManager).execute(status -> {
+                List<Order> orders = orderRepository.findByScheduledEndDateTimeIsNull();
+                orders.forEach(order -> order.setScheduledEndDateTime(
+                        Order.endOf(order.getScheduledDateTime(), order.getService())));
+                return orders.size();
+            });
+            if (filled != null && filled > 0) {
+                log.info("Filled scheduled end time for {} orders", filled);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill order end times: ", e);
+        }
+    }
+}
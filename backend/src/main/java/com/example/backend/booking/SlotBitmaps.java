@@ -0,0 +1,120 @@
+package com.example.backend.booking;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Занятость исполнителей по 15-минутным слотам: для каждого дня и слота — битовая карта
+ * порядковых номеров исполнителей, у которых в этом слоте есть заказ.
+ *
+ * <p>Карты хранятся по слотам, а не по исполнителям, чтобы «кто свободен в s..s+k» считался
+ * как OR k карт и AND NOT с картой кандидатов, без перебора исполнителей. Слот занят, если
+ * его задевает хоть один заказ, так что границы запроса округляются наружу.
+ */
+final class SlotBitmaps {
+
+    static final int SLOT_MINUTES = 15;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalByProvider = new HashMap<>();
+    private final List<Long> providerByOrdinal = new ArrayList<>();
+    // Эпохальный день -> карты слотов; карта слота создаётся при первом заказе в нём
+    private final Map<Long, BitSet[]> busyByDay = new HashMap<>();
+
+    static long slotFloor(long minute) {
+        return Math.floorDiv(minute, SLOT_MINUTES) * SLOT_MINUTES;
+    }
+
+    static long slotCeil(long minute) {
+        return Math.floorDiv(minute + SLOT_MINUTES - 1, SLOT_MINUTES) * SLOT_MINUTES;
+    }
+
+    /**
+     * Пересчитывает биты исполнителя в слотах [from, to) (границы кратны слоту) по всем его заказам,
+     * задевающим этот отрезок. Заказы читаются под той же блокировкой: иначе параллельный пересчёт
+     * по более старому чтению расписания мог бы записать биты последним.
+     */
+    void refresh(long providerId, long from, long to, ProviderSchedule schedule) {
+        lock.writeLock().lock();
+        try {
+            List<ProviderSchedule.Booking> bookings = schedule.between(from, to);
+            int ordinal = ordinal(providerId);
+            long firstSlot = from / SLOT_MINUTES;
+            long endSlot = to / SLOT_MINUTES;
+            for (long slot = firstSlot; slot < endSlot; slot++) {
+                BitSet[] day = busyByDay.get(Math.floorDiv(slot, SLOTS_PER_DAY));
+                BitSet bits = day != null ? day[(int) Math.floorMod(slot, SLOTS_PER_DAY)] : null;
+                if (bits != null) {
+                    bits.clear(ordinal);
+                }
+            }
+            for (ProviderSchedule.Booking booking : bookings) {
+                long start = Math.max(firstSlot, Math.floorDiv(booking.start(), SLOT_MINUTES));
+                long end = Math.min(endSlot, Math.floorDiv(booking.end() + SLOT_MINUTES - 1, SLOT_MINUTES));
+                for (long slot = start; slot < end; slot++) {
+                    BitSet[] day = busyByDay.computeIfAbsent(Math.floorDiv(slot, SLOTS_PER_DAY),
+                            d -> new BitSet[SLOTS_PER_DAY]);
+                    int index = (int) Math.floorMod(slot, SLOTS_PER_DAY);
+                    if (day[index] == null) {
+                        day[index] = new BitSet();
+                    }
+                    day[index].set(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Исполнители из {@code candidates}, у которых нет заказов в слотах, задевающих [from, to).
+     */
+    List<Long> free(Iterable<Long> candidates, long from, long to) {
+        lock.readLock().lock();
+        try {
+            BitSet wanted = new BitSet();
+            List<Long> unknown = new ArrayList<>();
+            for (Long providerId : candidates) {
+                Integer ordinal = ordinalByProvider.get(providerId);
+                if (ordinal != null) {
+                    wanted.set(ordinal);
+                } else {
+                    // Исполнитель без единого заказа свободен всегда
+                    unknown.add(providerId);
+                }
+            }
+            long endSlot = Math.floorDiv(to + SLOT_MINUTES - 1, SLOT_MINUTES);
+            for (long slot = Math.floorDiv(from, SLOT_MINUTES); slot < endSlot && !wanted.isEmpty(); slot++) {
+                BitSet[] day = busyByDay.get(Math.floorDiv(slot, SLOTS_PER_DAY));
+                BitSet bits = day != null ? day[(int) Math.floorMod(slot, SLOTS_PER_DAY)] : null;
+                if (bits != null) {
+                    wanted.andNot(bits);
+                }
+            }
+            List<Long> result = new ArrayList<>(wanted.cardinality() + unknown.size());
+            for (int i = wanted.nextSetBit(0); i >= 0; i = wanted.nextSetBit(i + 1)) {
+                result.add(providerByOrdinal.get(i));
+            }
+            result.addAll(unknown);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int ordinal(long providerId) {
+        Integer ordinal = ordinalByProvider.get(providerId);
+        if (ordinal == null) {
+            ordinal = providerByOrdinal.size();
+            ordinalByProvider.put(providerId, ordinal);
+            providerByOrdinal.add(providerId);
+        }
+        return ordinal;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Компактный бинарный формат значений кэша для DTO из {@link CacheValueSchemas}
+ * и списков из них. Остальные типы упаковываются через запасной JSON-сериализатор.
+ *
+ * <p>Заголовок: магический байт, версия формата и флаги. Значение с неизвестной
+ * версией или повреждённое читается как отсутствующее — кэш пересчитает его,
+ * а не упадёт, если запись сделал узел с другой версией приложения.
+ * Тела крупнее порога сжимаются LZ4.
+ */
+@Slf4j
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 3;
+
+    static final byte FLAG_LZ4 = 1;
+
+    private static final int MAX_RAW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_LIST = 1;
+    private static final byte VALUE_DTO = 2;
+    private static final byte VALUE_JSON = 3;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final Map<Class<?>, CacheValueSchema<?>> schemasByType = new HashMap<>();
+    private final Map<Integer, CacheValueSchema<?>> schemasById = new HashMap<>();
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    /**
+     * @param compressionThreshold размер тела в байтах, начиная с которого оно сжимается (отрицательное — никогда)
+     */
+    public BinaryCacheSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+        for (CacheValueSchema<?> schema : CacheValueSchemas.all()) {
+            schemasByType.put(schema.type(), schema);
+            schemasById.put(schema.typeId(), schema);
+        }
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        FieldWriter body = new FieldWriter(256);
+        writeValue(value, body);
+
+        int bodySize = body.size();
+        if (compressionThreshold >= 0 && bodySize >= compressionThreshold) {
+            byte[] compressed = compress(body.buffer(), bodySize);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        byte[] result = new byte[HEADER_SIZE + bodySize];
+        writeHeader(result, (byte) 0);
+        System.arraycopy(body.buffer(), 0, result, HEADER_SIZE, bodySize);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (bytes[0] != MAGIC) {
+                // Запись в старом JSON-формате
+                return bytes[0] == '{' || bytes[0] == '[' ? fallback.deserialize(bytes) : null;
+            }
+            if (bytes.length < HEADER_SIZE || bytes[1] != FORMAT_VERSION) {
+                log.debug("Skipping cache value with unsupported format version {}", bytes.length > 1 ? bytes[1] : -1);
+                return null;
+            }
+            byte flags = bytes[2];
+            FieldReader reader;
+            if ((flags & FLAG_LZ4) != 0) {
+                int rawLength = rawLengthOf(bytes);
+                byte[] raw = new byte[rawLength];
+                decompressor.decompress(bytes, HEADER_SIZE + varLongSize(rawLength), raw, 0, rawLength);
+                reader = new FieldReader(raw, 0, raw.length);
+            } else {
+                reader = new FieldReader(bytes, HEADER_SIZE, bytes.length);
+            }
+            return readValue(reader);
+        } catch (RuntimeException e) {
+            log.warn("Discarding unreadable cache value: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void writeValue(Object value, FieldWriter out) {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+            return;
+        }
+        CacheValueSchema schema = schemasByType.get(value.getClass());
+        if (schema != null) {
+            out.writeByte(VALUE_DTO);
+            out.writeVarLong(schema.typeId());
+            schema.write(value, out);
+            out.writeEnd();
+            return;
+        }
+        if (value instanceof List<?> list) {
+            out.writeByte(VALUE_LIST);
+            out.writeVarLong(list.size());
+            for (Object element : list) {
+                writeValue(element, out);
+            }
+            return;
+        }
+        out.writeByte(VALUE_JSON);
+        out.writeBytes(fallback.serialize(value));
+    }
+
+    private Object readValue(FieldReader in) {
+        byte kind = in.readByte();
+        switch (kind) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_DTO: {
+                int typeId = (int) in.readVarLong();
+                CacheValueSchema<?> schema = schemasById.get(typeId);
+                if (schema == null) {
+                    throw new IllegalStateException("Unknown cache value type " + typeId);
+                }
+                Object value = schema.read(in);
+                in.skipToEnd();
+                return value;
+            }
+            case VALUE_LIST: {
+                int size = in.readLength();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case VALUE_JSON:
+                return fallback.deserialize(in.readBytes());
+            default:
+                throw new IllegalStateException("Unknown cache value kind " + kind);
+        }
+    }
+
+    private byte[] compress(byte[] body, int bodySize) {
+        int maxCompressed = compressor.maxCompressedLength(bodySize);
+        int lengthPrefix = varLongSize(bodySize);
+        byte[] result = new byte[HEADER_SIZE + lengthPrefix + maxCompressed];
+        writeHeader(result, FLAG_LZ4);
+        writeVarInt(result, HEADER_SIZE, bodySize);
+        int compressedSize = compressor.compress(body, 0, bodySize, result, HEADER_SIZE + lengthPrefix, maxCompressed);
+        int total = HEADER_SIZE + lengthPrefix + compressedSize;
+        // Несжимаемые данные храним как есть
+        if (total >= HEADER_SIZE + bodySize) {
+            return null;
+        }
+        return Arrays.copyOf(result, total);
+    }
+
+    private static int rawLengthOf(byte[] bytes) {
+        long rawLength = new FieldReader(bytes, HEADER_SIZE, bytes.length).readVarLong();
+        if (rawLength < 0 || rawLength > MAX_RAW_SIZE) {
+            throw new IllegalStateException("Invalid uncompressed length " + rawLength);
+        }
+        return (int) rawLength;
+    }
+
+    private static void writeHeader(byte[] target, byte flags) {
+        target[0] = MAGIC;
+        target[1] = FORMAT_VERSION;
+        target[2] = flags;
+    }
+
+    private static void writeVarInt(byte[] target, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset] = (byte) value;
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.cache;
+
+/**
+ * Получает уведомления об обращениях к ключам кэша (в форме ключа L1).
+ * Вызывается на горячем пути чтения, поэтому реализация должна быть дешёвой.
+ */
+public interface CacheAccessListener {
+
+    void onAccess(String cacheName, String key);
+}
@@ -0,0 +1,37 @@
+package com.example.backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Принимает инвалидации от других узлов и сбрасывает соответствующие записи L1.
+ * Собственные сообщения узла игнорируются — локально они уже применены.
+ */
+@Slf4j
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final String nodeId;
+
+    public CacheInvalidationListener(TwoLevelCacheManager cacheManager, String nodeId) {
+        this.cacheManager = cacheManager;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(String.valueOf(CacheInvalidationPublisher.SEPARATOR), 3);
+        if (parts.length < 2) {
+            log.warn("Malformed cache invalidation message: {}", body);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        cacheManager.applyRemoteInvalidation(parts[1], parts.length == 3 ? parts[2] : null);
+    }
+}
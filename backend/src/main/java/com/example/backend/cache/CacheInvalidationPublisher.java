@@ -0,0 +1,50 @@
+package com.example.backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Рассылает инвалидации L1 остальным узлам через Redis pub/sub.
+ * Формат сообщения: {@code nodeId \t cacheName [\t key]}; без ключа — очистка всего кэша.
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    static final char SEPARATOR = '\t';
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        send(nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    public void publishClear(String cacheName) {
+        send(nodeId + SEPARATOR + cacheName);
+    }
+
+    private void send(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            // Локальный TTL L1 ограничит устаревание на других узлах
+            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+}
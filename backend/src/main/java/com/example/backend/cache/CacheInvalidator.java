@@ -0,0 +1,152 @@
+package com.example.backend.cache;
+
+import com.example.backend.model.Order;
+import com.example.backend.model.User;
+import com.example.backend.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Точечная инвалидация кэшей: по изменённой сущности вычисляет набор ключей,
+ * в которых она может присутствовать, и удаляет только их.
+ *
+ * <p>Кэши транзакционные, поэтому удаление, вызванное внутри транзакции,
+ * выполняется после её коммита.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidator {
+
+    public static final String ORDERS = "orders";
+    public static final String USERS = "users";
+
+    public static final String ALL_KEY = "all";
+    public static final String USERNAME_KEY_PREFIX = "username_";
+
+    private final CacheManager cacheManager;
+    private final OrderRepository orderRepository;
+    private final MeterRegistry meterRegistry;
+
+    public static String statusKey(Order.OrderStatus status) {
+        return "status_" + status;
+    }
+
+    public static String customerKey(Long customerId) {
+        return "customer_" + customerId;
+    }
+
+    public static String providerKey(Long providerId) {
+        return "provider_" + providerId;
+    }
+
+    public static String usernameKey(String username) {
+        return USERNAME_KEY_PREFIX + username;
+    }
+
+    /**
+     * Заказ создан, изменён или удалён. previousStatus — статус до изменения (null для нового заказа).
+     */
+    public void orderChanged(Order order, Order.OrderStatus previousStatus) {
+        Set<Object> keys = new LinkedHashSet<>();
+        collectOrderKeys(order, keys);
+        if (previousStatus != null) {
+            keys.add(statusKey(previousStatus));
+        }
+        evict(ORDERS, keys, "order");
+    }
+
+    // Смена исполнителя: сбрасываем и список заказов прежнего исполнителя
+    public void orderReassigned(Order order, Long previousProviderId) {
+        Set<Object> keys = new LinkedHashSet<>();
+        collectOrderKeys(order, keys);
+        if (previousProviderId != null) {
+            keys.add(providerKey(previousProviderId));
+        }
+        evict(ORDERS, keys, "order");
+    }
+
+    /**
+     * Пакетное изменение заказов: ключи собираются по всем заказам и удаляются за один проход.
+     * В {@code statuses} — и прежние, и новые статусы, в {@code providerIds} — и прежние исполнители.
+     */
+    public void ordersChanged(Collection<Long> orderIds, Collection<Long> customerIds, Collection<Long> providerIds,
+                              Collection<Order.OrderStatus> statuses) {
+        Set<Object> keys = new LinkedHashSet<>(orderIds);
+        keys.add(ALL_KEY);
+        statuses.forEach(status -> keys.add(statusKey(status)));
+        customerIds.forEach(id -> keys.add(customerKey(id)));
+        providerIds.forEach(id -> keys.add(providerKey(id)));
+        evict(ORDERS, keys, "order");
+    }
+
+    // Заказы удалены каскадом вместе с услугой или заказчиком
+    public void ordersDeleted(Collection<Order> orders) {
+        Set<Object> keys = new LinkedHashSet<>();
+        orders.forEach(order -> collectOrderKeys(order, keys));
+        evict(ORDERS, keys, "order");
+    }
+
+    /**
+     * Пользователь изменён. Если изменилось отображаемое имя, сбрасываются и зависимые
+     * записи: заказы, где он заказчик или исполнитель.
+     */
+    public void userChanged(User user, boolean displayNameChanged) {
+        evict(USERS, List.of(user.getId(), ALL_KEY, usernameKey(user.getUsername())), "user");
+        if (!displayNameChanged) {
+            return;
+        }
+
+        Set<Object> orderKeys = new LinkedHashSet<>();
+        orderRepository.findByCustomerId(user.getId()).forEach(order -> collectOrderKeys(order, orderKeys));
+        orderRepository.findByProviderId(user.getId()).forEach(order -> collectOrderKeys(order, orderKeys));
+        evict(ORDERS, orderKeys, "user");
+    }
+
+    private void collectOrderKeys(Order order, Set<Object> keys) {
+        keys.add(order.getId());
+        keys.add(ALL_KEY);
+        if (order.getStatus() != null) {
+            keys.add(statusKey(order.getStatus()));
+        }
+        if (order.getCustomer() != null) {
+            keys.add(customerKey(order.getCustomer().getId()));
+        }
+        if (order.getProvider() != null) {
+            keys.add(providerKey(order.getProvider().getId()));
+        }
+    }
+
+    private void evict(String cacheName, Iterable<?> keys, String cause) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        int evicted = 0;
+        for (Object key : keys) {
+            cache.evict(key);
+            evicted++;
+        }
+        if (evicted > 0) {
+            invalidationCounter(cacheName, cause).increment(evicted);
+            log.debug("Evicted {} keys from cache '{}' on {} change", evicted, cacheName, cause);
+        }
+    }
+
+    private Counter invalidationCounter(String cacheName, String cause) {
+        return Counter.builder("cache.invalidations")
+                .tag("cache", cacheName)
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+}
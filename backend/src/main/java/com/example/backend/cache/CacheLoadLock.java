@@ -0,0 +1,68 @@
+package com.example.backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Короткая блокировка в Redis на пересчёт ключа кэша, чтобы при промахе значение
+ * считал один узел, а остальные дождались его в L2.
+ * Блокировка ограничена TTL, поэтому упавший узел не блокирует ключ навсегда.
+ */
+@Slf4j
+public class CacheLoadLock {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Duration wait;
+
+    public CacheLoadLock(StringRedisTemplate redisTemplate, Duration ttl, Duration wait) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.wait = wait;
+    }
+
+    public Duration getWait() {
+        return wait;
+    }
+
+    /**
+     * @return токен владельца или null, если блокировку держит другой узел
+     */
+    public String tryAcquire(String lockKey) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey, token, ttl);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            // Без Redis координация между узлами невозможна — считаем сами
+            log.warn("Failed to acquire cache load lock {}: {}", lockKey, e.getMessage());
+            return token;
+        }
+    }
+
+    public boolean isHeld(String lockKey) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(lockKey));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public void release(String lockKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.warn("Failed to release cache load lock {}: {}", lockKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.backend.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Прогрев горячих ключей при старте и их обновление незадолго до истечения TTL в Redis.
+ *
+ * <p>Для каждого кэша регистрируется функция обновления ключа (обычно метод с {@code @CachePut}).
+ * Ключи, по которым были обращения, отслеживаются автоматически; из них обновляются самые
+ * запрашиваемые, а ключи без обращений со времени прошлого обновления оставляются истекать.
+ * Ключи прогрева закреплены и обновляются всегда.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheRefreshScheduler implements CacheAccessListener {
+
+    private final CacheManager cacheManager;
+
+    @Value("${spring.cache.redis.time-to-live:1h}")
+    private Duration cacheTtl;
+
+    @Value("${app.cache.refresh-ahead.before-expiry:5m}")
+    private Duration refreshBeforeExpiry;
+
+    @Value("${app.cache.refresh-ahead.max-per-run:100}")
+    private int maxRefreshesPerRun;
+
+    @Value("${app.cache.refresh-ahead.max-tracked-keys:10000}")
+    private int maxTrackedKeys;
+
+    private final Map<String, Consumer<String>> refreshers = new ConcurrentHashMap<>();
+    private final Map<HotKey, KeyStats> trackedKeys = new ConcurrentHashMap<>();
+    private final List<HotKey> warmupKeys = new ArrayList<>();
+
+    private volatile WarmupState warmupState = WarmupState.PENDING;
+    private volatile int warmedKeys;
+    private volatile long warmupMillis;
+
+    public enum WarmupState {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    @PostConstruct
+    void attach() {
+        if (cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager) {
+            twoLevelCacheManager.setAccessListener(this);
+        }
+    }
+
+    /**
+     * @param refresher пересчитывает значение по ключу (в форме ключа L1) и кладёт его в кэш
+     */
+    public void registerRefresher(String cacheName, Consumer<String> refresher) {
+        refreshers.put(cacheName, refresher);
+    }
+
+    public synchronized void registerWarmupKey(String cacheName, Object key) {
+        HotKey hotKey = new HotKey(cacheName, TwoLevelCache.localKey(key));
+        warmupKeys.add(hotKey);
+        trackedKeys.computeIfAbsent(hotKey, k -> new KeyStats(true));
+    }
+
+    /**
+     * Заполняет кэш ключами прогрева. Ошибки отдельных ключей не прерывают прогрев.
+     */
+    public synchronized void warmUp() {
+        warmupState = WarmupState.RUNNING;
+        long started = System.currentTimeMillis();
+        int warmed = 0;
+        int failed = 0;
+        for (HotKey hotKey : warmupKeys) {
+            if (refresh(hotKey)) {
+                warmed++;
+            } else {
+                failed++;
+            }
+        }
+        warmedKeys = warmed;
+        warmupMillis = System.currentTimeMillis() - started;
+        warmupState = failed == 0 ? WarmupState.COMPLETED : WarmupState.FAILED;
+        log.info("Cache warm-up finished: {} keys warmed, {} failed in {} ms", warmed, failed, warmupMillis);
+    }
+
+    @Override
+    public void onAccess(String cacheName, String key) {
+        if (!refreshers.containsKey(cacheName)) {
+            return;
+        }
+        HotKey hotKey = new HotKey(cacheName, key);
+        KeyStats stats = trackedKeys.get(hotKey);
+        if (stats == null) {
+            if (trackedKeys.size() >= maxTrackedKeys) {
+                return;
+            }
+            stats = trackedKeys.computeIfAbsent(hotKey, k -> new KeyStats(false));
+        }
+        stats.hits.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.refresh-ahead.interval:PT30S}",
+            initialDelayString = "${app.cache.refresh-ahead.interval:PT30S}")
+    public void refreshAhead() {
+        long now = System.currentTimeMillis();
+        long refreshAfter = cacheTtl.minus(refreshBeforeExpiry).toMillis();
+
+        List<Map.Entry<HotKey, KeyStats>> due = new ArrayList<>();
+        for (Map.Entry<HotKey, KeyStats> entry : trackedKeys.entrySet()) {
+            KeyStats stats = entry.getValue();
+            if (now - stats.loadedAt < refreshAfter) {
+                continue;
+            }
+            if (stats.pinned || stats.hits.sum() > 0) {
+                due.add(entry);
+            } else if (now - stats.loadedAt >= cacheTtl.toMillis()) {
+                // Ключ остыл и уже истёк — перестаём его отслеживать
+                trackedKeys.remove(entry.getKey(), stats);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        due.sort(Comparator.comparingLong((Map.Entry<HotKey, KeyStats> entry) -> entry.getValue().hits.sum()).reversed());
+        int refreshed = 0;
+        for (Map.Entry<HotKey, KeyStats> entry : due) {
+            if (refreshed >= maxRefreshesPerRun) {
+                break;
+            }
+            if (refresh(entry.getKey())) {
+                refreshed++;
+            } else if (!entry.getValue().pinned) {
+                trackedKeys.remove(entry.getKey());
+            }
+        }
+        log.debug("Refreshed {} of {} cache keys close to expiry", refreshed, due.size());
+    }
+
+    public WarmupState getWarmupState() {
+        return warmupState;
+    }
+
+    public int getWarmedKeys() {
+        return warmedKeys;
+    }
+
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    public int getTrackedKeys() {
+        return trackedKeys.size();
+    }
+
+    private boolean refresh(HotKey hotKey) {
+        Consumer<String> refresher = refreshers.get(hotKey.cacheName());
+        if (refresher == null) {
+            return false;
+        }
+        KeyStats stats = trackedKeys.computeIfAbsent(hotKey, k -> new KeyStats(false));
+        CacheLoadLock lock = cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager
+                ? twoLevelCacheManager.getLoadLock() : null;
+        String lockKey = "refresh:" + hotKey.cacheName() + "::" + hotKey.key();
+        String token = lock != null ? lock.tryAcquire(lockKey) : null;
+        if (lock != null && token == null) {
+            // Ключ уже обновляет другой узел
+            stats.markLoaded();
+            return true;
+        }
+        try {
+            refresher.accept(hotKey.key());
+            stats.markLoaded();
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to refresh cache key {}::{}: {}", hotKey.cacheName(), hotKey.key(), e.getMessage());
+            return false;
+        } finally {
+            if (token != null) {
+                lock.release(lockKey, token);
+            }
+        }
+    }
+
+    private record HotKey(String cacheName, String key) {
+    }
+
+    private static final class KeyStats {
+        private final boolean pinned;
+        private final LongAdder hits = new LongAdder();
+        private volatile long loadedAt = System.currentTimeMillis();
+
+        private KeyStats(boolean pinned) {
+            this.pinned = pinned;
+        }
+
+        private void markLoaded() {
+            loadedAt = System.currentTimeMillis();
+            hits.reset();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.backend.cache;
+
+/**
+ * Бинарная схема одного DTO кэша. Поля пишутся в фиксированном порядке;
+ * менять можно только добавлением новых полей в конец, иначе сломается чтение
+ * записей, сделанных другой версией приложения.
+ */
+interface CacheValueSchema<T> {
+
+    /** Постоянный идентификатор типа в бинарном формате — не переиспользовать */
+    int typeId();
+
+    Class<T> type();
+
+    void write(T value, FieldWriter out);
+
+    T read(FieldReader in);
+}
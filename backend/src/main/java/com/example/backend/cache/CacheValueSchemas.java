@@ -0,0 +1,199 @@
+package com.example.backend.cache;
+
+import com.example.backend.dto.CategoryDto;
+import com.example.backend.dto.OrderDto;
+import com.example.backend.dto.ServiceDto;
+import com.example.backend.dto.UserDto;
+import com.example.backend.model.Order;
+
+import java.util.List;
+
+/**
+ * Схемы DTO, которые хранятся в кэше в бинарном виде.
+ */
+final class CacheValueSchemas {
+
+    private CacheValueSchemas() {
+    }
+
+    static List<CacheValueSchema<?>> all() {
+        return List.of(SERVICE, ORDER, USER, CATEGORY);
+    }
+
+    static final CacheValueSchema<ServiceDto> SERVICE = new CacheValueSchema<>() {
+        @Override
+        public int typeId() {
+            return 1;
+        }
+
+        @Override
+        public Class<ServiceDto> type() {
+            return ServiceDto.class;
+        }
+
+        @Override
+        public void write(ServiceDto dto, FieldWriter out) {
+            out.writeLong(dto.getId());
+            out.writeString(dto.getName());
+            out.writeString(dto.getDescription());
+            out.writeDecimal(dto.getPrice());
+            out.writeInt(dto.getDurationMinutes());
+            out.writeString(dto.getImageUrl());
+            out.writeLong(dto.getCategoryId());
+            out.writeString(dto.getCategoryName());
+            out.writeLong(dto.getProviderId());
+            out.writeString(dto.getProviderName());
+            out.writeBoolean(dto.getActive());
+            out.writeDouble(dto.getAverageRating());
+            out.writeInt(dto.getReviewCount());
+        }
+
+        @Override
+        public ServiceDto read(FieldReader in) {
+            ServiceDto dto = new ServiceDto();
+            dto.setId(in.readLong());
+            dto.setName(in.readString());
+            dto.setDescription(in.readString());
+            dto.setPrice(in.readDecimal());
+            dto.setDurationMinutes(in.readInt());
+            dto.setImageUrl(in.readString());
+            dto.setCategoryId(in.readLong());
+            dto.setCategoryName(in.readString());
+            dto.setProviderId(in.readLong());
+            dto.setProviderName(in.readString());
+            dto.setActive(in.readBoolean());
+            dto.setAverageRating(in.readDouble());
+            dto.setReviewCount(in.readInt());
+            return dto;
+        }
+    };
+
+    static final CacheValueSchema<OrderDto> ORDER = new CacheValueSchema<>() {
+        @Override
+        public int typeId() {
+            return 2;
+        }
+
+        @Override
+        public Class<OrderDto> type() {
+            return OrderDto.class;
+        }
+
+        @Override
+        public void write(OrderDto dto, FieldWriter out) {
+            out.writeLong(dto.getId());
+            out.writeLong(dto.getCustomerId());
+            out.writeString(dto.getCustomerName());
+            out.writeLong(dto.getServiceId());
+            out.writeString(dto.getServiceName());
+            out.writeLong(dto.getProviderId());
+            out.writeString(dto.getProviderName());
+            out.writeDateTime(dto.getScheduledDateTime());
+            out.writeString(dto.getAddress());
+            out.writeString(dto.getNotes());
+            out.writeEnum(dto.getStatus());
+            out.writeDecimal(dto.getTotalPrice());
+            out.writeDateTime(dto.getCreatedAt());
+            out.writeDateTime(dto.getCompletedAt());
+        }
+
+        @Override
+        public OrderDto read(FieldReader in) {
+            OrderDto dto = new OrderDto();
+            dto.setId(in.readLong());
+            dto.setCustomerId(in.readLong());
+            dto.setCustomerName(in.readString());
+            dto.setServiceId(in.readLong());
+            dto.setServiceName(in.readString());
+            dto.setProviderId(in.readLong());
+            dto.setProviderName(in.readString());
+            dto.setScheduledDateTime(in.readDateTime());
+            dto.setAddress(in.readString());
+            dto.setNotes(in.readString());
+            dto.setStatus(in.readEnum(Order.OrderStatus.class));
+            dto.setTotalPrice(in.readDecimal());
+            dto.setCreatedAt(in.readDateTime());
+            dto.setCompletedAt(in.readDateTime());
+            return dto;
+        }
+    };
+
+    static final CacheValueSchema<UserDto> USER = new CacheValueSchema<>() {
+        @Override
+        public int typeId() {
+            return 3;
+        }
+
+        @Override
+        public Class<UserDto> type() {
+            return UserDto.class;
+        }
+
+        // Пароль в кэш не попадает, даже если DTO его содержит
+        @Override
+        public void write(UserDto dto, FieldWriter out) {
+            out.writeLong(dto.getId());
+            out.writeString(dto.getUsername());
+            out.writeString(dto.getEmail());
+            out.writeString(dto.getFirstName());
+            out.writeString(dto.getLastName());
+            out.writeString(dto.getPhone());
+            out.writeString(dto.getAddress());
+            out.writeString(dto.getRole());
+            out.writeDateTime(dto.getCreatedAt());
+            out.writeBoolean(dto.getActive());
+        }
+
+        @Override
+        public UserDto read(FieldReader in) {
+            UserDto dto = new UserDto();
+            dto.setId(in.readLong());
+            dto.setUsername(in.readString());
+            dto.setEmail(in.readString());
+            dto.setFirstName(in.readString());
+            dto.setLastName(in.readString());
+            dto.setPhone(in.readString());
+            dto.setAddress(in.readString());
+            dto.setRole(in.readString());
+            dto.setCreatedAt(in.readDateTime());
+            dto.setActive(in.readBoolean());
+            return dto;
+        }
+    };
+
+    static final CacheValueSchema<CategoryDto> CATEGORY = new CacheValueSchema<>() {
+        @Override
+        public int typeId() {
+            return 4;
+        }
+
+        @Override
+        public Class<CategoryDto> type() {
+            return CategoryDto.class;
+        }
+
+        @Override
+        public void write(CategoryDto dto, FieldWriter out) {
+            out.writeLong(dto.getId());
+            out.writeString(dto.getName());
+            out.writeString(dto.getDescription());
+            out.writeString(dto.getIcon());
+            out.writeLong(dto.getServiceCount());
+            out.writeLong(dto.getParentId());
+            out.writeLong(dto.getSubtreeServiceCount());
+        }
+
+        @Override
+        public CategoryDto read(FieldReader in) {
+            CategoryDto dto = new CategoryDto();
+            dto.setId(in.readLong());
+            dto.setName(in.readString());
+            dto.setDescription(in.readString());
+            dto.setIcon(in.readString());
+            dto.setServiceCount(in.readLong());
+            dto.setParentId(in.readLong());
+            dto.setSubtreeServiceCount(in.readLong());
+            return dto;
+        }
+    };
+}
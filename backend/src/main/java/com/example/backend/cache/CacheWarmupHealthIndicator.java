@@ -0,0 +1,32 @@
+package com.example.backend.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Пока кэши не прогреты, узел отдаёт OUT_OF_SERVICE, чтобы балансировщик не слал на него трафик.
+ * Неудачный прогрев не делает узел недоступным: кэш заполнится по запросам.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheRefreshScheduler cacheRefreshScheduler;
+
+    @Override
+    public Health health() {
+        CacheRefreshScheduler.WarmupState state = cacheRefreshScheduler.getWarmupState();
+        Health.Builder builder = switch (state) {
+            case PENDING, RUNNING -> Health.outOfService();
+            case COMPLETED, FAILED -> Health.up();
+        };
+        return builder
+                .withDetail("state", state)
+                .withDetail("warmedKeys", cacheRefreshScheduler.getWarmedKeys())
+                .withDetail("durationMs", cacheRefreshScheduler.getWarmupMillis())
+                .withDetail("trackedKeys", cacheRefreshScheduler.getTrackedKeys())
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.backend.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Чтение бинарного формата кэша. Если запись короче текущей схемы (её писала
+ * более старая версия), недостающие поля читаются как null.
+ */
+final class FieldReader {
+
+    private final byte[] buffer;
+    private int position;
+    private final int limit;
+    private boolean atEnd;
+
+    FieldReader(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    Long readLong() {
+        byte tag = nextField();
+        if (tag == FieldWriter.NULL) {
+            return null;
+        }
+        expect(tag, FieldWriter.LONG);
+        return unZigZag(readVarLong());
+    }
+
+    Integer readInt() {
+        byte tag = nextField();
+        if (tag == FieldWriter.NULL) {
+            return null;
+        }
+        expect(tag, FieldWriter.INT);
+        return (int) unZigZag(readVarLong());
+    }
+
+    String readString() {
+        byte tag = nextField();
+        if (tag == FieldWriter.NULL) {
+            return null;
+        }
+        expect(tag, FieldWriter.STRING);
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    <E extends Enum<E>> E readEnum(Class<E> type) {
+        String name = readString();
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    BigDecimal readDecimal() {
+        byte tag = nextField();
+        if (tag == FieldWriter.NULL) {
+            return null;
+        }
+        expect(tag, FieldWriter.DECIMAL);
+        int scale = (int) unZigZag(readVarLong());
+        return new BigDecimal(new BigInteger(readBytes()), scale);
+    }
+
+    Double readDouble() {
+        byte tag = nextField();
+        if (tag == FieldWriter.NULL) {
+            return null;
+        }
+        expect(tag, FieldWriter.DOUBLE);
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    Boolean readBoolean() {
+        byte tag = nextField();
+        if (tag == FieldWriter.NULL) {
+            return null;
+        }
+        if (tag != FieldWriter.TRUE && tag != FieldWriter.FALSE) {
+            throw new IllegalStateException("Unexpected field type " + tag);
+        }
+        return tag == FieldWriter.TRUE;
+    }
+
+    LocalDateTime readDateTime() {
+        byte tag = nextField();
+        if (tag == FieldWriter.NULL) {
+            return null;
+        }
+        expect(tag, FieldWriter.DATETIME);
+        long seconds = unZigZag(readVarLong());
+        int nanos = (int) readVarLong();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    /** Пропускает поля, добавленные более новой версией схемы, до маркера конца записи */
+    void skipToEnd() {
+        while (!atEnd) {
+            byte tag = nextField();
+            switch (tag) {
+                case FieldWriter.NULL, FieldWriter.TRUE, FieldWriter.FALSE -> { }
+                case FieldWriter.LONG, FieldWriter.INT -> readVarLong();
+                case FieldWriter.STRING -> skip(readLength());
+                case FieldWriter.DECIMAL -> {
+                    readVarLong();
+                    skip(readLength());
+                }
+                case FieldWriter.DOUBLE -> skip(8);
+                case FieldWriter.DATETIME -> {
+                    readVarLong();
+                    readVarLong();
+                }
+                default -> throw new IllegalStateException("Unknown field type " + tag);
+            }
+        }
+        // Следующая запись списка начинается с нового набора полей
+        atEnd = false;
+    }
+
+    byte readByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    int readLength() {
+        long length = readVarLong();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalStateException("Invalid length " + length);
+        }
+        return (int) length;
+    }
+
+    byte[] readBytes() {
+        int length = readLength();
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    int position() {
+        return position;
+    }
+
+    void skip(int length) {
+        require(length);
+        position += length;
+    }
+
+    private byte nextField() {
+        if (atEnd) {
+            return FieldWriter.NULL;
+        }
+        byte tag = readByte();
+        if (tag == FieldWriter.END) {
+            atEnd = true;
+            return FieldWriter.NULL;
+        }
+        return tag;
+    }
+
+    private void require(int length) {
+        if (position + length > limit) {
+            throw new IllegalStateException("Unexpected end of cache value");
+        }
+    }
+
+    private static void expect(byte actual, byte expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Unexpected field type " + actual + ", expected " + expected);
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.backend.cache;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Буфер записи бинарного формата кэша. Каждое поле предваряется байтом типа,
+ * поэтому читатель может пропустить поля, о которых не знает (схемы только дополняются в конец).
+ */
+final class FieldWriter {
+
+    static final byte NULL = 0;
+    static final byte LONG = 1;
+    static final byte INT = 2;
+    static final byte STRING = 3;
+    static final byte DECIMAL = 4;
+    static final byte DOUBLE = 5;
+    static final byte TRUE = 6;
+    static final byte FALSE = 7;
+    static final byte DATETIME = 8;
+    static final byte END = 0x7F;
+
+    private byte[] buffer;
+    private int position;
+
+    FieldWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    void writeLong(Long value) {
+        if (value == null) {
+            writeByte(NULL);
+            return;
+        }
+        writeByte(LONG);
+        writeVarLong(zigZag(value));
+    }
+
+    void writeInt(Integer value) {
+        if (value == null) {
+            writeByte(NULL);
+            return;
+        }
+        writeByte(INT);
+        writeVarLong(zigZag(value));
+    }
+
+    void writeString(String value) {
+        if (value == null) {
+            writeByte(NULL);
+            return;
+        }
+        writeByte(STRING);
+        writeRawString(value);
+    }
+
+    void writeEnum(Enum<?> value) {
+        // Имя, а не порядковый номер: перестановка констант не ломает старые записи
+        writeString(value != null ? value.name() : null);
+    }
+
+    void writeDecimal(BigDecimal value) {
+        if (value == null) {
+            writeByte(NULL);
+            return;
+        }
+        writeByte(DECIMAL);
+        writeVarLong(zigZag(value.scale()));
+        writeBytes(value.unscaledValue().toByteArray());
+    }
+
+    void writeDouble(Double value) {
+        if (value == null) {
+            writeByte(NULL);
+            return;
+        }
+        writeByte(DOUBLE);
+        long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    void writeBoolean(Boolean value) {
+        writeByte(value == null ? NULL : value ? TRUE : FALSE);
+    }
+
+    void writeDateTime(LocalDateTime value) {
+        if (value == null) {
+            writeByte(NULL);
+            return;
+        }
+        writeByte(DATETIME);
+        writeVarLong(zigZag(value.toEpochSecond(ZoneOffset.UTC)));
+        writeVarLong(value.getNano());
+    }
+
+    void writeEnd() {
+        writeByte(END);
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeRawString(String value) {
+        // Быстрый путь для ASCII без промежуточного массива
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (!ascii) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        writeVarLong(length);
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    int size() {
+        return position;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.backend.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Кэш из двух уровней: локальный Caffeine (L1) перед общим Redis (L2).
+ * Записи и удаления проходят в оба уровня, остальные узлы узнают о них через pub/sub.
+ *
+ * <p>{@link #get(Object, Callable)} (т.е. {@code @Cacheable(sync = true)}) объединяет
+ * одновременные промахи по ключу: значение считает один вызов, остальные ждут его результата.
+ * Между узлами то же обеспечивает необязательная блокировка {@link CacheLoadLock}.
+ * Запись L1 старше {@code freshTtl} ещё отдаётся, но обновляется в фоне (stale-while-revalidate).
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private static final long LOCK_POLL_MILLIS = 50;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher publisher;
+    private final long freshTtlNanos;
+    private final CacheLoadLock loadLock;
+    private final Executor refreshExecutor;
+    private volatile CacheAccessListener accessListener;
+
+    // Загрузки по ключам; инвалидация ключа помечает только его загрузку, чужие ключи продолжают кэшироваться
+    private final ConcurrentMap<String, Load> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter localHits;
+    private final Counter staleHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter keyEvictions;
+    private final Counter clears;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local,
+                         Cache remote,
+                         CacheInvalidationPublisher publisher,
+                         MeterRegistry meterRegistry,
+                         Duration freshTtl,
+                         CacheLoadLock loadLock,
+                         Executor refreshExecutor) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+        this.freshTtlNanos = freshTtl.toNanos();
+        this.loadLock = loadLock;
+        this.refreshExecutor = refreshExecutor;
+        this.localHits = lookupCounter(meterRegistry, name, "l1_hit");
+        this.staleHits = lookupCounter(meterRegistry, name, "l1_stale");
+        this.remoteHits = lookupCounter(meterRegistry, name, "l2_hit");
+        this.misses = lookupCounter(meterRegistry, name, "miss");
+        this.coalesced = lookupCounter(meterRegistry, name, "coalesced");
+        this.keyEvictions = evictionCounter(meterRegistry, name, "key");
+        this.clears = evictionCounter(meterRegistry, name, "all");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        recordAccess(localKey);
+        LocalEntry entry = local.getIfPresent(localKey);
+        // Без загрузчика устаревшую запись обновить в фоне нечем — перечитываем L2
+        if (entry != null && !entry.isStale()) {
+            localHits.increment();
+            return new SimpleValueWrapper(entry.value());
+        }
+        // В L1 кладём, только если ключ сейчас никто не загружает: иначе инвалидацию во время чтения не заметить
+        Load own = new Load(true);
+        boolean registered = inFlight.putIfAbsent(localKey, own) == null;
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                remoteHits.increment();
+                if (registered) {
+                    putLocal(localKey, wrapper.get(), own);
+                }
+            } else {
+                misses.increment();
+            }
+            return wrapper;
+        } finally {
+            if (registered) {
+                inFlight.remove(localKey, own);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        recordAccess(localKey);
+        LocalEntry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            if (entry.isStale()) {
+                staleHits.increment();
+                refreshAsync(key, localKey, valueLoader, entry.value());
+            } else {
+                localHits.increment();
+            }
+            return (T) entry.value();
+        }
+
+        Load own = new Load(false);
+        Load existing = register(localKey, own);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(existing.result, key, valueLoader);
+        }
+        try {
+            Object value = load(key, localKey, valueLoader, own);
+            own.result.complete(value);
+            return (T) value;
+        } catch (Throwable e) {
+            own.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, own);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        invalidateLoad(localKey);
+        if (value != null) {
+            local.put(localKey, new LocalEntry(value, System.nanoTime() + freshTtlNanos));
+        } else {
+            local.invalidate(localKey);
+        }
+        publisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        keyEvictions.increment();
+        remote.evict(key);
+        String localKey = localKey(key);
+        evictLocal(localKey);
+        publisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        keyEvictions.increment();
+        boolean present = remote.evictIfPresent(key);
+        String localKey = localKey(key);
+        evictLocal(localKey);
+        publisher.publishEvict(name, localKey);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        clears.increment();
+        remote.clear();
+        clearLocal();
+        publisher.publishClear(name);
+    }
+
+    void setAccessListener(CacheAccessListener accessListener) {
+        this.accessListener = accessListener;
+    }
+
+    private void recordAccess(String localKey) {
+        CacheAccessListener listener = accessListener;
+        if (listener != null) {
+            listener.onAccess(name, localKey);
+        }
+    }
+
+    /** Удаление только из L1 — по сообщению от другого узла */
+    void evictLocal(String localKey) {
+        invalidateLoad(localKey);
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        inFlight.values().forEach(Load::invalidate);
+        local.invalidateAll();
+    }
+
+    /**
+     * Регистрирует загрузку ключа. Возвращает загрузку, к которой надо присоединиться, или null,
+     * если считать значение должен вызывающий. Загрузка, начатая до инвалидации ключа, заменяется:
+     * её результат может быть устаревшим, а ждать его новым вызовам незачем. Чтение без загрузчика
+     * тоже заменяется — ему нечего отдать ждущим.
+     */
+    private Load register(String localKey, Load own) {
+        while (true) {
+            Load existing = inFlight.putIfAbsent(localKey, own);
+            if (existing == null) {
+                return null;
+            }
+            if (!existing.readOnly && !existing.isInvalidated()) {
+                return existing;
+            }
+            if (inFlight.replace(localKey, existing, own)) {
+                return null;
+            }
+        }
+    }
+
+    // Запись загрузки не удаляется: её владелец сам снимет её по завершении
+    private void invalidateLoad(String localKey) {
+        Load load = inFlight.get(localKey);
+        if (load != null) {
+            load.invalidate();
+        }
+    }
+
+    /**
+     * Промах L1: читает L2, при промахе в L2 считает значение сам или,
+     * если ключ уже считает другой узел, ждёт его результата в L2.
+     */
+    private Object load(Object key, String localKey, Callable<?> valueLoader, Load own) {
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            putLocal(localKey, wrapper.get(), own);
+            return wrapper.get();
+        }
+        misses.increment();
+
+        if (loadLock == null) {
+            return store(key, localKey, call(key, valueLoader), own);
+        }
+        String lockKey = "lock:" + name + "::" + localKey;
+        String token = loadLock.tryAcquire(lockKey);
+        if (token != null) {
+            try {
+                return store(key, localKey, call(key, valueLoader), own);
+            } finally {
+                loadLock.release(lockKey, token);
+            }
+        }
+
+        long deadline = System.nanoTime() + loadLock.getWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                coalesced.increment();
+                putLocal(localKey, wrapper.get(), own);
+                return wrapper.get();
+            }
+            if (!loadLock.isHeld(lockKey)) {
+                break;
+            }
+        }
+        // Владелец блокировки не успел или упал — считаем сами
+        return store(key, localKey, call(key, valueLoader), own);
+    }
+
+    private void refreshAsync(Object key, String localKey, Callable<?> valueLoader, Object staleValue) {
+        Load own = new Load(false);
+        if (register(localKey, own) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    ValueWrapper wrapper = remote.get(key);
+                    Object value = wrapper != null && wrapper.get() != null
+                            ? putLocal(localKey, wrapper.get(), own)
+                            : store(key, localKey, call(key, valueLoader), own);
+                    own.result.complete(value);
+                } catch (Throwable e) {
+                    log.warn("Background refresh of {}::{} failed: {}", name, localKey, e.getMessage());
+                    own.result.complete(staleValue);
+                } finally {
+                    inFlight.remove(localKey, own);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Очередь обновлений переполнена — попробуем при следующем обращении
+            inFlight.remove(localKey, own);
+            own.result.complete(staleValue);
+        }
+    }
+
+    private Object store(Object key, String localKey, Object value, Load load) {
+        // Если ключ инвалидировали во время расчёта, значение отдаём вызывающему, но не кэшируем
+        if (value != null && isCurrent(localKey, load)) {
+            remote.put(key, value);
+            if (!isCurrent(localKey, load)) {
+                remote.evict(key);
+            }
+            putLocal(localKey, value, load);
+        }
+        return value;
+    }
+
+    private Object putLocal(String localKey, Object value, Load load) {
+        if (isCurrent(localKey, load)) {
+            local.put(localKey, new LocalEntry(value, System.nanoTime() + freshTtlNanos));
+            // Инвалидация пришла между проверкой и записью — убираем только что записанное
+            if (!isCurrent(localKey, load)) {
+                local.invalidate(localKey);
+            }
+        }
+        return value;
+    }
+
+    // Заменённая загрузка тоже не пишет: инвалидации ключа теперь помечают не её
+    private boolean isCurrent(String localKey, Load load) {
+        return !load.isInvalidated() && inFlight.get(localKey) == load;
+    }
+
+    private static Object call(Object key, Callable<?> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future, Object key, Callable<?> valueLoader) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new ValueRetrievalException(key, valueLoader, cause);
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Counter.builder("cache.lookups")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String cacheName, String scope) {
+        return Counter.builder("cache.evictions")
+                .tag("cache", cacheName)
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    // Ключи L1 приводятся к той же строковой форме, что и в Redis, чтобы
+    // сообщения об инвалидации однозначно адресовали запись на любом узле
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /** Загрузка ключа: её результат ждут одновременные промахи */
+    private static final class Load {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final boolean readOnly;
+        private volatile boolean invalidated;
+
+        Load(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        void invalidate() {
+            invalidated = true;
+        }
+
+        boolean isInvalidated() {
+            return invalidated;
+        }
+    }
+
+    /** Запись L1 с моментом, после которого она считается устаревшей */
+    record LocalEntry(Object value, long freshUntilNanos) {
+
+        boolean isStale() {
+            return System.nanoTime() - freshUntilNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CacheManager, который оборачивает каждый кэш Redis в {@link TwoLevelCache}.
+ * Транзакционность обеспечивается здесь, а не в RedisCacheManager, чтобы
+ * запись в L1 и L2 откладывалась до коммита одинаково.
+ */
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements DisposableBean {
+
+    private static final int REFRESH_THREADS = 2;
+    private static final int REFRESH_QUEUE_CAPACITY = 256;
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationPublisher publisher;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final Duration staleWindow;
+    private final CacheLoadLock loadLock;
+    private final ThreadPoolExecutor refreshExecutor;
+    private volatile CacheAccessListener accessListener;
+
+    /**
+     * @param staleWindow сколько после localTtl запись L1 ещё отдаётся с фоновым обновлением (0 — выключено)
+     * @param loadLock    блокировка пересчёта между узлами или null, если достаточно локальной
+     */
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                CacheInvalidationPublisher publisher,
+                                MeterRegistry meterRegistry,
+                                long localMaximumSize,
+                                Duration localTtl,
+                                Duration staleWindow,
+                                CacheLoadLock loadLock) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.publisher = publisher;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.staleWindow = staleWindow;
+        this.loadLock = loadLock;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+        setTransactionAware(true);
+    }
+
+    public CacheInvalidationPublisher getPublisher() {
+        return publisher;
+    }
+
+    public CacheLoadLock getLoadLock() {
+        return loadLock;
+    }
+
+    /** Подключает учёт обращений ко всем уже созданным и будущим кэшам */
+    public void setAccessListener(CacheAccessListener accessListener) {
+        this.accessListener = accessListener;
+        for (String cacheName : getCacheNames()) {
+            TwoLevelCache cache = lookupTwoLevelCache(cacheName);
+            if (cache != null) {
+                cache.setAccessListener(accessListener);
+            }
+        }
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        // TTL в L1 ограничивает устаревание, если сообщение об инвалидации потерялось
+        com.github.benmanes.caffeine.cache.Cache<String, TwoLevelCache.LocalEntry> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl.plus(staleWindow))
+                .build();
+        TwoLevelCache cache = new TwoLevelCache(name, local, remote, publisher, meterRegistry,
+                localTtl, loadLock, refreshExecutor);
+        cache.setAccessListener(accessListener);
+        return cache;
+    }
+
+    /** Применяет инвалидацию, пришедшую от другого узла, только к L1 */
+    public void applyRemoteInvalidation(String cacheName, String localKey) {
+        TwoLevelCache twoLevelCache = lookupTwoLevelCache(cacheName);
+        if (twoLevelCache == null) {
+            return;
+        }
+        if (localKey == null) {
+            twoLevelCache.clearLocal();
+        } else {
+            twoLevelCache.evictLocal(localKey);
+        }
+    }
+
+    private TwoLevelCache lookupTwoLevelCache(String cacheName) {
+        Cache cache = lookupCache(cacheName);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        return cache instanceof TwoLevelCache twoLevelCache ? twoLevelCache : null;
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.backend.catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Условные GET для публичного каталога. ETag берётся из снимка до вызова сервиса,
+ * поэтому при совпадении {@code If-None-Match} ответ 304 отдаётся без построения тела.
+ */
+@Component
+public class CatalogHttpCache {
+
+    private final CacheControl listCacheControl;
+    private final CacheControl itemCacheControl;
+
+    public CatalogHttpCache(@Value("${app.http.catalog.list-max-age:30s}") Duration listMaxAge,
+                            @Value("${app.http.catalog.item-max-age:60s}") Duration itemMaxAge) {
+        this.listCacheControl = CacheControl.maxAge(listMaxAge).cachePublic();
+        this.itemCacheControl = CacheControl.maxAge(itemMaxAge).cachePublic();
+    }
+
+    public <T> ResponseEntity<T> list(WebRequest request, String etag, Supplier<T> body) {
+        return respond(request, etag, listCacheControl, body);
+    }
+
+    public <T> ResponseEntity<T> item(WebRequest request, String etag, Supplier<T> body) {
+        return respond(request, etag, itemCacheControl, body);
+    }
+
+    private <T> ResponseEntity<T> respond(WebRequest request, String etag, CacheControl cacheControl,
+                                          Supplier<T> body) {
+        // Ресурса нет в снимке (например, неактивная услуга) — отдаём без кэширования
+        if (etag == null) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+}
@@ -0,0 +1,554 @@
+package com.example.backend.catalog;
+
+import com.example.backend.dto.CategoryDto;
+import com.example.backend.dto.CategoryTreeDto;
+import com.example.backend.dto.ServiceDto;
+import com.example.backend.util.LongIntHashMap;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Неизменяемый снимок активного каталога: услуги и категории в колоночном виде.
+ *
+ * <p>Поля услуг лежат в параллельных массивах по порядковому номеру услуги (отсортировано по id),
+ * категории и исполнители хранятся один раз и адресуются индексом. Повторяющиеся строки и цены
+ * разделяются между записями. DTO собираются только в момент чтения.
+ *
+ * <p>Дерево категорий разложено в прямом порядке обхода: поддерево любой категории — непрерывный
+ * отрезок {@code preorder[subtreeStart[c], subtreeEnd[c])}, как во вложенных множествах.
+ *
+ * <p>ETag строятся из версий строк в БД, а не из номера снимка: так они совпадают на всех узлах
+ * и у HTTP-кэшей перед ними. Теги списков — отпечатки версий всех входящих в список строк.
+ */
+public final class CatalogSnapshot {
+
+    private static final int NONE = -1;
+    private static final long FINGERPRINT_SEED = 0xcbf29ce484222325L;
+
+    private final long version;
+
+    // Услуги
+    private final long[] serviceIds;
+    private final long[] serviceVersions;
+    private final String[] names;
+    private final String[] descriptions;
+    private final BigDecimal[] prices;
+    private final int[] durations;
+    private final String[] imageUrls;
+    private final int[] categoryOrdinals;
+    private final int[] providerOrdinals;
+    private final double[] averageRatings;
+    private final int[] reviewCounts;
+    private final LongIntHashMap serviceOrdinalById;
+
+    // Категории
+    private final long[] categoryIds;
+    private final long[] categoryVersions;
+    private final String[] categoryNames;
+    private final String[] categoryDescriptions;
+    private final String[] categoryIcons;
+    private final int[] categoryParents;
+    private final int[][] childrenOf;
+    private final int[] preorder;
+    private final int[] subtreeStart;
+    private final int[] subtreeEnd;
+    private final long[] subtreeServiceCounts;
+    private final int[][] servicesByCategory;
+    private final LongIntHashMap categoryOrdinalById;
+    private final long[] categoryServicesFingerprints;
+
+    // Исполнители
+    private final long[] providerIds;
+    private final String[] providerNames;
+    private final int[][] servicesByProvider;
+    private final LongIntHashMap providerOrdinalById;
+
+    private final long servicesFingerprint;
+    private final long categoriesFingerprint;
+
+    /** Строка услуги для сборки снимка */
+    public record ServiceRow(long id, long version, String name, String description, BigDecimal price, Integer durationMinutes,
+                             String imageUrl, long categoryId, Long providerId, String providerName,
+                             double averageRating, int reviewCount) {
+    }
+
+    /** Строка категории для сборки снимка */
+    public record CategoryRow(long id, long version, String name, String description, String icon, Long parentId) {
+    }
+
+    public static CatalogSnapshot empty() {
+        return build(List.of(), List.of(), 0);
+    }
+
+    /**
+     * Собирает снимок. Услуги, чья категория отсутствует в {@code categories}, пропускаются.
+     */
+    public static CatalogSnapshot build(Collection<ServiceRow> services, Collection<CategoryRow> categories,
+                                        long version) {
+        return new CatalogSnapshot(services, categories, version);
+    }
+
+    private CatalogSnapshot(Collection<ServiceRow> serviceRows, Collection<CategoryRow> categoryRows, long version) {
+        this.version = version;
+
+        List<CategoryRow> sortedCategories = new ArrayList<>(categoryRows);
+        sortedCategories.sort(Comparator.comparingLong(CategoryRow::id));
+        int categoryCount = sortedCategories.size();
+        categoryIds = new long[categoryCount];
+        categoryVersions = new long[categoryCount];
+        categoryNames = new String[categoryCount];
+        categoryDescriptions = new String[categoryCount];
+        categoryIcons = new String[categoryCount];
+        categoryOrdinalById = new LongIntHashMap(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            CategoryRow row = sortedCategories.get(i);
+            categoryIds[i] = row.id();
+            categoryVersions[i] = row.version();
+            categoryNames[i] = row.name();
+            categoryDescriptions[i] = row.description();
+            categoryIcons[i] = row.icon();
+            categoryOrdinalById.put(row.id(), i);
+        }
+
+        List<ServiceRow> sortedServices = new ArrayList<>(serviceRows.size());
+        for (ServiceRow row : serviceRows) {
+            if (categoryOrdinalById.get(row.categoryId(), NONE) != NONE) {
+                sortedServices.add(row);
+            }
+        }
+        sortedServices.sort(Comparator.comparingLong(ServiceRow::id));
+        int serviceCount = sortedServices.size();
+        serviceIds = new long[serviceCount];
+        serviceVersions = new long[serviceCount];
+        names = new String[serviceCount];
+        descriptions = new String[serviceCount];
+        prices = new BigDecimal[serviceCount];
+        durations = new int[serviceCount];
+        imageUrls = new String[serviceCount];
+        categoryOrdinals = new int[serviceCount];
+        providerOrdinals = new int[serviceCount];
+        averageRatings = new double[serviceCount];
+        reviewCounts = new int[serviceCount];
+        serviceOrdinalById = new LongIntHashMap(serviceCount);
+
+        Map<Object, Object> pool = new HashMap<>();
+        List<Long> providerIdList = new ArrayList<>();
+        List<String> providerNameList = new ArrayList<>();
+        Map<Long, Integer> providerOrdinalMap = new HashMap<>();
+        int[] perCategory = new int[categoryCount];
+        for (int i = 0; i < serviceCount; i++) {
+            ServiceRow row = sortedServices.get(i);
+            serviceIds[i] = row.id();
+            serviceVersions[i] = row.version();
+            names[i] = row.name();
+            descriptions[i] = row.description();
+            prices[i] = intern(pool, row.price());
+            durations[i] = row.durationMinutes() != null ? row.durationMinutes() : Integer.MIN_VALUE;
+            imageUrls[i] = intern(pool, row.imageUrl());
+            categoryOrdinals[i] = categoryOrdinalById.get(row.categoryId(), NONE);
+            perCategory[categoryOrdinals[i]]++;
+            averageRatings[i] = row.averageRating();
+            reviewCounts[i] = row.reviewCount();
+            serviceOrdinalById.put(row.id(), i);
+
+            if (row.providerId() != null) {
+                Integer providerOrdinal = providerOrdinalMap.get(row.providerId());
+                if (providerOrdinal == null) {
+                    providerOrdinal = providerIdList.size();
+                    providerOrdinalMap.put(row.providerId(), providerOrdinal);
+                    providerIdList.add(row.providerId());
+                    providerNameList.add(row.providerName());
+                }
+                providerOrdinals[i] = providerOrdinal;
+            } else {
+                providerOrdinals[i] = NONE;
+            }
+        }
+
+        servicesByCategory = group(categoryOrdinals, perCategory);
+
+        // Дерево: родитель, отсутствующий в снимке, делает категорию корнем
+        categoryParents = new int[categoryCount];
+        int[] childCounts = new int[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            Long parentId = sortedCategories.get(i).parentId();
+            int parent = parentId != null ? categoryOrdinalById.get(parentId, NONE) : NONE;
+            categoryParents[i] = parent == i ? NONE : parent;
+            if (categoryParents[i] != NONE) {
+                childCounts[categoryParents[i]]++;
+            }
+        }
+        childrenOf = group(categoryParents, childCounts);
+        preorder = new int[categoryCount];
+        subtreeStart = new int[categoryCount];
+        subtreeEnd = new int[categoryCount];
+        subtreeServiceCounts = new long[categoryCount];
+        boolean[] visited = new boolean[categoryCount];
+        int position = 0;
+        for (int i = 0; i < categoryCount; i++) {
+            if (categoryParents[i] == NONE) {
+                position = layOut(i, position, visited);
+            }
+        }
+        // Категории в цикле недостижимы из корней — показываем их как корни
+        for (int i = 0; i < categoryCount; i++) {
+            if (!visited[i]) {
+                position = layOut(i, position, visited);
+            }
+        }
+
+        int providerCount = providerIdList.size();
+        providerIds = new long[providerCount];
+        providerNames = providerNameList.toArray(new String[0]);
+        providerOrdinalById = new LongIntHashMap(providerCount);
+        int[] perProvider = new int[providerCount];
+        for (int i = 0; i < providerCount; i++) {
+            providerIds[i] = providerIdList.get(i);
+            providerOrdinalById.put(providerIds[i], i);
+        }
+        for (int providerOrdinal : providerOrdinals) {
+            if (providerOrdinal != NONE) {
+                perProvider[providerOrdinal]++;
+            }
+        }
+        servicesByProvider = group(providerOrdinals, perProvider);
+
+        long allServices = FINGERPRINT_SEED;
+        for (int i = 0; i < serviceCount; i++) {
+            allServices = fingerprintService(allServices, i);
+        }
+        servicesFingerprint = allServices;
+        categoryServicesFingerprints = new long[categoryCount];
+        long allCategories = FINGERPRINT_SEED;
+        for (int c = 0; c < categoryCount; c++) {
+            long categoryServices = FINGERPRINT_SEED;
+            for (int ordinal : servicesByCategory[c]) {
+                categoryServices = fingerprintService(categoryServices, ordinal);
+            }
+            categoryServicesFingerprints[c] = categoryServices;
+            allCategories = mix(mix(mix(allCategories, categoryIds[c]), categoryVersions[c]),
+                    subtreeServiceCounts[c]);
+        }
+        categoriesFingerprint = allCategories;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int serviceCount() {
+        return serviceIds.length;
+    }
+
+    public String servicesETag() {
+        return "s-" + serviceIds.length + "-" + Long.toHexString(servicesFingerprint);
+    }
+
+    /** null, если услуги нет среди активных */
+    public String serviceETag(long serviceId) {
+        int ordinal = serviceOrdinalById.get(serviceId, NONE);
+        if (ordinal == NONE) {
+            return null;
+        }
+        return "s" + serviceId + "-" + serviceVersions[ordinal] + "-" + categoryVersions[categoryOrdinals[ordinal]];
+    }
+
+    public String servicesByCategoryETag(long categoryId) {
+        int ordinal = categoryOrdinalById.get(categoryId, NONE);
+        if (ordinal == NONE) {
+            return null;
+        }
+        long fingerprint = FINGERPRINT_SEED;
+        for (int p = subtreeStart[ordinal]; p < subtreeEnd[ordinal]; p++) {
+            fingerprint = mix(fingerprint, categoryServicesFingerprints[preorder[p]]);
+        }
+        return "sc" + categoryId + "-" + subtreeServiceCounts[ordinal] + "-" + Long.toHexString(fingerprint);
+    }
+
+    public String categoriesETag() {
+        return "c-" + categoryIds.length + "-" + Long.toHexString(categoriesFingerprint);
+    }
+
+    public String categoryETag(long categoryId) {
+        int ordinal = categoryOrdinalById.get(categoryId, NONE);
+        if (ordinal == NONE) {
+            return null;
+        }
+        return "c" + categoryId + "-" + categoryVersions[ordinal] + "-" + servicesByCategory[ordinal].length
+                + "-" + subtreeServiceCounts[ordinal];
+    }
+
+    public List<ServiceDto> getServices() {
+        List<ServiceDto> result = new ArrayList<>(serviceIds.length);
+        for (int i = 0; i < serviceIds.length; i++) {
+            result.add(serviceDto(i));
+        }
+        return result;
+    }
+
+    public Optional<ServiceDto> findService(long serviceId) {
+        int ordinal = serviceOrdinalById.get(serviceId, NONE);
+        return ordinal == NONE ? Optional.empty() : Optional.of(serviceDto(ordinal));
+    }
+
+    /**
+     * Услуги категории вместе со всеми подкатегориями, по возрастанию id.
+     */
+    public List<ServiceDto> getServicesByCategory(long categoryId) {
+        int categoryOrdinal = categoryOrdinalById.get(categoryId, NONE);
+        if (categoryOrdinal == NONE) {
+            return List.of();
+        }
+        if (subtreeEnd[categoryOrdinal] - subtreeStart[categoryOrdinal] == 1) {
+            return serviceDtos(servicesByCategory[categoryOrdinal]);
+        }
+        int[] ordinals = new int[(int) subtreeServiceCounts[categoryOrdinal]];
+        int filled = 0;
+        for (int p = subtreeStart[categoryOrdinal]; p < subtreeEnd[categoryOrdinal]; p++) {
+            int[] own = servicesByCategory[preorder[p]];
+            System.arraycopy(own, 0, ordinals, filled, own.length);
+            filled += own.length;
+        }
+        Arrays.sort(ordinals);
+        return serviceDtos(ordinals);
+    }
+
+    public List<ServiceDto> getServicesByProvider(long providerId) {
+        int providerOrdinal = providerOrdinalById.get(providerId, NONE);
+        return providerOrdinal == NONE ? List.of() : serviceDtos(servicesByProvider[providerOrdinal]);
+    }
+
+    /**
+     * Исполнители с активными услугами в категории и её подкатегориях (без категории — все), id -> имя.
+     */
+    public Map<Long, String> getProvidersByCategory(Long categoryId) {
+        boolean[] found = new boolean[providerIds.length];
+        if (categoryId == null) {
+            Arrays.fill(found, true);
+        } else {
+            int categoryOrdinal = categoryOrdinalById.get(categoryId, NONE);
+            if (categoryOrdinal == NONE) {
+                return Map.of();
+            }
+            for (int p = subtreeStart[categoryOrdinal]; p < subtreeEnd[categoryOrdinal]; p++) {
+                for (int service : servicesByCategory[preorder[p]]) {
+                    if (providerOrdinals[service] != NONE) {
+                        found[providerOrdinals[service]] = true;
+                    }
+                }
+            }
+        }
+        Map<Long, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i]) {
+                result.put(providerIds[i], providerNames[i]);
+            }
+        }
+        return result;
+    }
+
+    public List<CategoryDto> getCategories() {
+        List<CategoryDto> result = new ArrayList<>(categoryIds.length);
+        for (int i = 0; i < categoryIds.length; i++) {
+            result.add(categoryDto(i));
+        }
+        return result;
+    }
+
+    public Optional<CategoryDto> findCategory(long categoryId) {
+        int ordinal = categoryOrdinalById.get(categoryId, NONE);
+        return ordinal == NONE ? Optional.empty() : Optional.of(categoryDto(ordinal));
+    }
+
+    /** Лес категорий: корни и дети в порядке id */
+    public List<CategoryTreeDto> getCategoryTree() {
+        List<CategoryTreeDto> roots = new ArrayList<>();
+        for (int i = 0; i < categoryIds.length; i++) {
+            if (categoryParents[i] == NONE || !isInSubtree(i, categoryParents[i])) {
+                roots.add(categoryTree(i));
+            }
+        }
+        return roots;
+    }
+
+    /** Прямые подкатегории; пустой результат, если категории нет */
+    public List<CategoryDto> getChildren(long categoryId) {
+        int ordinal = categoryOrdinalById.get(categoryId, NONE);
+        if (ordinal == NONE) {
+            return List.of();
+        }
+        List<CategoryDto> result = new ArrayList<>(childrenOf[ordinal].length);
+        for (int child : childrenOf[ordinal]) {
+            result.add(categoryDto(child));
+        }
+        return result;
+    }
+
+    public boolean containsCategory(long categoryId) {
+        return categoryOrdinalById.get(categoryId, NONE) != NONE;
+    }
+
+    /** Строки услуг для сборки следующей версии снимка */
+    public List<ServiceRow> serviceRows() {
+        List<ServiceRow> rows = new ArrayList<>(serviceIds.length);
+        for (int i = 0; i < serviceIds.length; i++) {
+            int providerOrdinal = providerOrdinals[i];
+            rows.add(new ServiceRow(serviceIds[i], serviceVersions[i], names[i], descriptions[i], prices[i],
+                    durations[i] == Integer.MIN_VALUE ? null : durations[i], imageUrls[i],
+                    categoryIds[categoryOrdinals[i]],
+                    providerOrdinal == NONE ? null : providerIds[providerOrdinal],
+                    providerOrdinal == NONE ? null : providerNames[providerOrdinal],
+                    averageRatings[i], reviewCounts[i]));
+        }
+        return rows;
+    }
+
+    public List<CategoryRow> categoryRows() {
+        List<CategoryRow> rows = new ArrayList<>(categoryIds.length);
+        for (int i = 0; i < categoryIds.length; i++) {
+            int parent = categoryParents[i];
+            rows.add(new CategoryRow(categoryIds[i], categoryVersions[i], categoryNames[i], categoryDescriptions[i],
+                    categoryIcons[i], parent == NONE ? null : categoryIds[parent]));
+        }
+        return rows;
+    }
+
+    private List<ServiceDto> serviceDtos(int[] ordinals) {
+        List<ServiceDto> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(serviceDto(ordinal));
+        }
+        return result;
+    }
+
+    private ServiceDto serviceDto(int i) {
+        ServiceDto dto = new ServiceDto();
+        dto.setId(serviceIds[i]);
+        dto.setName(names[i]);
+        dto.setDescription(descriptions[i]);
+        dto.setPrice(prices[i]);
+        dto.setDurationMinutes(durations[i] == Integer.MIN_VALUE ? null : durations[i]);
+        dto.setImageUrl(imageUrls[i]);
+        dto.setCategoryId(categoryIds[categoryOrdinals[i]]);
+        dto.setCategoryName(categoryNames[categoryOrdinals[i]]);
+        int providerOrdinal = providerOrdinals[i];
+        if (providerOrdinal != NONE) {
+            dto.setProviderId(providerIds[providerOrdinal]);
+            dto.setProviderName(providerNames[providerOrdinal]);
+        }
+        dto.setActive(true);
+        dto.setAverageRating(averageRatings[i]);
+        dto.setReviewCount(reviewCounts[i]);
+        return dto;
+    }
+
+    private CategoryDto categoryDto(int i) {
+        CategoryDto dto = new CategoryDto();
+        dto.setId(categoryIds[i]);
+        dto.setName(categoryNames[i]);
+        dto.setDescription(categoryDescriptions[i]);
+        dto.setIcon(categoryIcons[i]);
+        dto.setServiceCount((long) servicesByCategory[i].length);
+        dto.setSubtreeServiceCount(subtreeServiceCounts[i]);
+        int parent = categoryParents[i];
+        dto.setParentId(parent == NONE ? null : categoryIds[parent]);
+        return dto;
+    }
+
+    private CategoryTreeDto categoryTree(int root) {
+        List<CategoryTreeDto> children = new ArrayList<>(childrenOf[root].length);
+        for (int child : childrenOf[root]) {
+            if (isInSubtree(child, root)) {
+                children.add(categoryTree(child));
+            }
+        }
+        return new CategoryTreeDto(categoryDto(root), children);
+    }
+
+    private boolean isInSubtree(int ordinal, int ancestor) {
+        return subtreeStart[ordinal] > subtreeStart[ancestor] && subtreeStart[ordinal] < subtreeEnd[ancestor];
+    }
+
+    // Обход в глубину без рекурсии; возвращает следующую свободную позицию в preorder
+    private int layOut(int root, int position, boolean[] visited) {
+        int[] stack = new int[childrenOf.length];
+        int[] nextChild = new int[childrenOf.length];
+        int depth = 0;
+        stack[0] = root;
+        visited[root] = true;
+        subtreeStart[root] = position;
+        preorder[position++] = root;
+        while (depth >= 0) {
+            int node = stack[depth];
+            if (nextChild[depth] < childrenOf[node].length) {
+                int child = childrenOf[node][nextChild[depth]++];
+                if (visited[child]) {
+                    continue;
+                }
+                visited[child] = true;
+                subtreeStart[child] = position;
+                preorder[position++] = child;
+                stack[++depth] = child;
+                nextChild[depth] = 0;
+            } else {
+                subtreeEnd[node] = position;
+                long count = servicesByCategory[node].length;
+                for (int child : childrenOf[node]) {
+                    if (isInSubtree(child, node)) {
+                        count += subtreeServiceCounts[child];
+                    }
+                }
+                subtreeServiceCounts[node] = count;
+                depth--;
+            }
+        }
+        return position;
+    }
+
+    // Раскладывает порядковые номера услуг по группам; внутри группы сохраняется порядок по id
+    private static int[][] group(int[] groupOfService, int[] groupSizes) {
+        int[][] groups = new int[groupSizes.length][];
+        for (int g = 0; g < groupSizes.length; g++) {
+            groups[g] = new int[groupSizes[g]];
+        }
+        int[] filled = new int[groupSizes.length];
+        for (int i = 0; i < groupOfService.length; i++) {
+            int g = groupOfService[i];
+            if (g != NONE) {
+                groups[g][filled[g]++] = i;
+            }
+        }
+        return groups;
+    }
+
+    // Карточка услуги зависит от её версии и версии категории (название категории)
+    private long fingerprintService(long hash, int ordinal) {
+        return mix(mix(mix(hash, serviceIds[ordinal]), serviceVersions[ordinal]),
+                categoryVersions[categoryOrdinals[ordinal]]);
+    }
+
+    // FNV-1a по 64-битным словам с перемешиванием из splitmix64
+    private static long mix(long hash, long value) {
+        long z = (hash ^ value) * 0x100000001b3L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T intern(Map<Object, Object> pool, T value) {
+        if (value == null) {
+            return null;
+        }
+        return (T) pool.computeIfAbsent(value, v -> v);
+    }
+}
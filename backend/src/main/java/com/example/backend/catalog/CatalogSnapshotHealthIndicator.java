@@ -0,0 +1,26 @@
+package com.example.backend.catalog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Каталог читается только из снимка, поэтому до первой сборки узел не готов принимать трафик.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogSnapshotHealthIndicator implements HealthIndicator {
+
+    private final CatalogSnapshotHolder catalogSnapshotHolder;
+
+    @Override
+    public Health health() {
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current();
+        Health.Builder builder = catalogSnapshotHolder.isLoaded() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("version", snapshot.getVersion())
+                .withDetail("services", snapshot.serviceCount())
+                .build();
+    }
+}
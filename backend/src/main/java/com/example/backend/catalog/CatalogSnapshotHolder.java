@@ -0,0 +1,204 @@
+package com.example.backend.catalog;
+
+import com.example.backend.event.CategoryChangedEvent;
+import com.example.backend.event.ServiceChangedEvent;
+import com.example.backend.model.Category;
+import com.example.backend.model.Service;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.ServiceRepository;
+import com.example.backend.service.RatingAggregateService;
+import com.example.backend.service.ReviewService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Держит текущий {@link CatalogSnapshot}. Читатели берут ссылку на снимок без блокировок,
+ * изменения после коммита копятся и раз в {@code apply-interval} применяются одним новым снимком
+ * с увеличенной версией: сборка снимка стоит O(размер каталога), и собирать его на каждый отзыв дорого.
+ *
+ * <p>Снимок локален для узла, поэтому периодически пересобирается целиком — так подтягиваются
+ * изменения, сделанные на других узлах. Пересборка и применение изменений идут под одной блокировкой,
+ * поэтому изменения, пришедшие во время пересборки, применяются уже к новому снимку.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotHolder {
+
+    private final ServiceRepository serviceRepository;
+    private final CategoryRepository categoryRepository;
+    private final RatingAggregateService ratingAggregateService;
+    private final TransactionTemplate readTemplate;
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.empty();
+    private volatile boolean loaded;
+    private final Object writeLock = new Object();
+    private final Set<Long> pendingServices = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingCategories = ConcurrentHashMap.newKeySet();
+
+    public CatalogSnapshotHolder(ServiceRepository serviceRepository,
+                                 CategoryRepository categoryRepository,
+                                 RatingAggregateService ratingAggregateService,
+                                 PlatformTransactionManager transactionManager) {
+        this.serviceRepository = serviceRepository;
+        this.categoryRepository = categoryRepository;
+        this.ratingAggregateService = ratingAggregateService;
+        // Строки читаются в своём контексте: версию и рейтинг услуги меняют bulk-UPDATE в обход сущностей
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.rebuild-interval:PT5M}",
+            initialDelayString = "${app.catalog.snapshot.rebuild-interval:PT5M}")
+    public void rebuild() {
+        synchronized (writeLock) {
+            try {
+                long started = System.currentTimeMillis();
+                List<CatalogSnapshot.CategoryRow> categories = categoryRepository.findAll().stream()
+                        .map(this::toRow)
+                        .collect(Collectors.toList());
+                List<Service> services = serviceRepository.findByActiveTrue();
+                Map<Long, ReviewService.ReviewStats> stats = ratingAggregateService.getServiceStats(
+                        services.stream().map(Service::getId).collect(Collectors.toList()));
+                List<CatalogSnapshot.ServiceRow> rows = services.stream()
+                        .map(service -> toRow(service, stats.get(service.getId())))
+                        .collect(Collectors.toList());
+                swap(rows, categories);
+                loaded = true;
+                log.info("Catalog snapshot v{} built: {} services, {} categories in {} ms", snapshot.getVersion(),
+                        rows.size(), categories.size(), System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                log.error("Failed to build catalog snapshot: ", e);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onServiceChanged(ServiceChangedEvent event) {
+        pendingServices.add(event.getServiceId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        pendingCategories.add(event.getCategoryId());
+    }
+
+    /**
+     * Применяет накопленные изменения: строки читаются одним запросом на тип, снимок собирается один раз.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.apply-interval:PT0.2S}")
+    public void applyChanges() {
+        if (pendingServices.isEmpty() && pendingCategories.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            List<Long> serviceIds = drain(pendingServices);
+            List<Long> categoryIds = drain(pendingCategories);
+            if (serviceIds.isEmpty() && categoryIds.isEmpty()) {
+                return;
+            }
+            try {
+                List<CatalogSnapshot.ServiceRow> changedServices = serviceIds.isEmpty() ? List.of()
+                        : readTemplate.execute(status -> loadServiceRows(serviceIds));
+                List<CatalogSnapshot.CategoryRow> changedCategories = categoryIds.isEmpty() ? List.of()
+                        : readTemplate.execute(status -> categoryRepository.findAllById(categoryIds).stream()
+                                .map(this::toRow)
+                                .collect(Collectors.toList()));
+
+                CatalogSnapshot current = snapshot;
+                Map<Long, CatalogSnapshot.ServiceRow> services = new LinkedHashMap<>();
+                current.serviceRows().forEach(row -> services.put(row.id(), row));
+                // Отсутствие в выборке значит, что услуга удалена или скрыта
+                serviceIds.forEach(services::remove);
+                changedServices.forEach(row -> services.put(row.id(), row));
+
+                Map<Long, CatalogSnapshot.CategoryRow> categories = new LinkedHashMap<>();
+                current.categoryRows().forEach(row -> categories.put(row.id(), row));
+                categoryIds.forEach(categories::remove);
+                changedCategories.forEach(row -> categories.put(row.id(), row));
+                // Услуги удалённой категории отбрасываются при сборке
+                swap(new ArrayList<>(services.values()), new ArrayList<>(categories.values()));
+            } catch (Exception e) {
+                log.warn("Failed to apply {} catalog changes, will retry: {}",
+                        serviceIds.size() + categoryIds.size(), e.getMessage());
+                pendingServices.addAll(serviceIds);
+                pendingCategories.addAll(categoryIds);
+            }
+        }
+    }
+
+    private List<CatalogSnapshot.ServiceRow> loadServiceRows(List<Long> serviceIds) {
+        List<Service> services = serviceRepository.findWithDetailsByIdIn(serviceIds).stream()
+                .filter(Service::getActive)
+                .collect(Collectors.toList());
+        Map<Long, ReviewService.ReviewStats> stats = ratingAggregateService.getServiceStats(
+                services.stream().map(Service::getId).collect(Collectors.toList()));
+        return services.stream()
+                .map(service -> toRow(service, stats.get(service.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> drain(Set<Long> pending) {
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        return ids;
+    }
+
+    private void swap(List<CatalogSnapshot.ServiceRow> services, List<CatalogSnapshot.CategoryRow> categories) {
+        snapshot = CatalogSnapshot.build(services, categories, snapshot.getVersion() + 1);
+    }
+
+    private CatalogSnapshot.CategoryRow toRow(Category category) {
+        return new CatalogSnapshot.CategoryRow(category.getId(), versionOf(category.getVersion()), category.getName(),
+                category.getDescription(), category.getIcon(), category.getParentId());
+    }
+
+    private CatalogSnapshot.ServiceRow toRow(Service service, ReviewService.ReviewStats stats) {
+        Long providerId = null;
+        String providerName = null;
+        if (service.getProvider() != null) {
+            providerId = service.getProvider().getId();
+            providerName = service.getProvider().getFirstName() + " " + service.getProvider().getLastName();
+        }
+        return new CatalogSnapshot.ServiceRow(service.getId(), versionOf(service.getVersion()), service.getName(),
+                service.getDescription(), service.getPrice(), service.getDurationMinutes(), service.getImageUrl(),
+                service.getCategory().getId(), providerId, providerName,
+                stats != null ? stats.getAverageRating() : 0.0,
+                stats != null ? stats.getReviewCount() : 0);
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : 0;
+    }
+}
@@ -1,5 +1,13 @@
 package com.example.backend.config;
 
+import com.example.backend.cache.BinaryCacheSerializer;
+import com.example.backend.cache.CacheInvalidationListener;
+import com.example.backend.cache.CacheInvalidationPublisher;
+import com.example.backend.cache.CacheLoadLock;
+import com.example.backend.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -8,11 +16,15 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.time.Duration;
 
@@ -43,25 +55,75 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${spring.cache.redis.time-to-live:1h}") Duration cacheTtl,
+                                     @Value("${app.cache.local.enabled:true}") boolean localEnabled,
+                                     @Value("${app.cache.local.maximum-size:10000}") long localMaximumSize,
+                                     @Value("${app.cache.local.ttl:60s}") Duration localTtl,
+                                     @Value("${app.cache.local.stale-window:30s}") Duration staleWindow,
+                                     @Value("${app.cache.load-lock.enabled:false}") boolean loadLockEnabled,
+                                     @Value("${app.cache.load-lock.ttl:10s}") Duration loadLockTtl,
+                                     @Value("${app.cache.load-lock.wait:5s}") Duration loadLockWait,
+                                     @Value("${app.cache.invalidation-channel:cache-invalidation}") String channel,
+                                     @Value("${app.cache.codec.type:binary}") String codec,
+                                     @Value("${app.cache.codec.compression-threshold:2048}") int compressionThreshold) {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.activateDefaultTyping(
             LaissezFaireSubTypeValidator.instance,
             ObjectMapper.DefaultTyping.NON_FINAL,
             com.fasterxml.jackson.annotation.JsonTypeInfo.As.PROPERTY
         );
+        objectMapper.registerModule(new JavaTimeModule());
         GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
 
         RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
+                .entryTtl(cacheTtl)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer))
                 .disableCachingNullValues();
+        if ("binary".equalsIgnoreCase(codec)) {
+            // Отдельное пространство ключей: узлы со старым JSON-форматом не читают бинарные записи
+            cacheConfiguration = cacheConfiguration
+                    .computePrefixWith(cacheName -> cacheName + ":bin::")
+                    .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                            new BinaryCacheSerializer(jsonSerializer, compressionThreshold)));
+        } else {
+            cacheConfiguration = cacheConfiguration
+                    .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer));
+        }
 
-        return RedisCacheManager.builder(redisConnectionFactory)
+        if (!localEnabled) {
+            return RedisCacheManager.builder(redisConnectionFactory)
+                    .cacheDefaults(cacheConfiguration)
+                    .transactionAware()
+                    .build();
+        }
+
+        // Транзакционность включается на уровне TwoLevelCacheManager, чтобы L1 и L2 обновлялись вместе
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(cacheConfiguration)
-                .transactionAware()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(stringRedisTemplate, channel);
+        CacheLoadLock loadLock = loadLockEnabled
+                ? new CacheLoadLock(stringRedisTemplate, loadLockTtl, loadLockWait) : null;
+        return new TwoLevelCacheManager(redisCacheManager, publisher, meterRegistry,
+                localMaximumSize, localTtl, staleWindow, loadLock);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.local.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                            CacheManager cacheManager) {
+        TwoLevelCacheManager twoLevelCacheManager = (TwoLevelCacheManager) cacheManager;
+        CacheInvalidationPublisher publisher = twoLevelCacheManager.getPublisher();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(
+                new CacheInvalidationListener(twoLevelCacheManager, publisher.getNodeId()),
+                new ChannelTopic(publisher.getChannel()));
+        return container;
     }
 }
 
@@ -41,6 +41,8 @@ public class SecurityConfig {
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/categories/**").permitAll()
                         .requestMatchers("/services/**").permitAll()
+                        .requestMatchers("/changes/catalog").permitAll()
+                        .requestMatchers("/availability/**").permitAll()
                         .requestMatchers("/public/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/api-docs/**").permitAll()
                         .requestMatchers("/actuator/**").permitAll()
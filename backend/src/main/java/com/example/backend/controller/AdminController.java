@@ -1,23 +1,38 @@
 package com.example.backend.controller;
 
+import com.example.backend.dispatch.DispatchEngine;
 import com.example.backend.dto.AdminStatsDto;
+import com.example.backend.dto.BulkOrderRequest;
+import com.example.backend.dto.BulkOrderResultDto;
 import com.example.backend.dto.CreateOrderRequest;
+import com.example.backend.dto.CursorPageDto;
+import com.example.backend.dto.DispatchDecisionDto;
 import com.example.backend.dto.OrderDto;
+import com.example.backend.dto.OrderQuery;
 import com.example.backend.dto.ServiceDto;
 import com.example.backend.dto.UserDto;
+import com.example.backend.idempotency.IdempotencyService;
 import com.example.backend.model.Order;
 import com.example.backend.model.User;
 import com.example.backend.service.AdminService;
+import com.example.backend.service.BulkOrderService;
+import com.example.backend.service.RatingAggregateService;
+import com.example.backend.util.SecurityUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/admin")
@@ -27,6 +42,11 @@ import java.util.List;
 public class AdminController {
 
     private final AdminService adminService;
+    private final BulkOrderService bulkOrderService;
+    private final RatingAggregateService ratingAggregateService;
+    private final DispatchEngine dispatchEngine;
+    private final IdempotencyService idempotencyService;
+    private final SecurityUtil securityUtil;
 
     @GetMapping("/stats")
     @Operation(summary = "Get admin statistics")
@@ -104,6 +124,22 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllOrdersForAdmin());
     }
 
+    @GetMapping(value = "/orders", params = "limit")
+    @Operation(summary = "Get a filtered page of orders (keyset pagination)")
+    public ResponseEntity<CursorPageDto<OrderDto>> getOrdersPage(
+            @RequestParam Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) OrderQuery.SortOrder sort,
+            @RequestParam(required = false) Set<Order.OrderStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Long providerId,
+            @RequestParam(required = false) Long serviceId) {
+        return ResponseEntity.ok(adminService.getOrdersPage(
+                new OrderQuery(from, to, status, customerId, providerId, serviceId, sort, cursor, limit)));
+    }
+
     @PutMapping("/orders/{id}/status")
     @Operation(summary = "Update order status")
     public ResponseEntity<OrderDto> updateOrderStatus(
@@ -119,12 +155,40 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/dispatch/decisions")
+    @Operation(summary = "Get dispatch decisions with replayed choice")
+    public ResponseEntity<List<DispatchDecisionDto>> getDispatchDecisions(
+            @RequestParam(required = false) Long orderId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(dispatchEngine.getDecisions(orderId, limit));
+    }
+
     @PostMapping("/orders")
     @Operation(summary = "Create a new order")
     public ResponseEntity<OrderDto> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
-            @RequestParam Long customerId) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(adminService.createOrder(request, customerId));
+            @RequestParam Long customerId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        Long adminId = securityUtil.getUserIdFromAuthentication(authentication);
+        // Клиент входит в отпечаток: тот же ключ для другого клиента — другой запрос
+        IdempotencyService.Result<OrderDto> result = idempotencyService.execute("admin-orders", adminId,
+                idempotencyKey, Map.of("customerId", customerId, "order", request), HttpStatus.CREATED.value(),
+                OrderDto.class, () -> adminService.createOrder(request, customerId));
+        return idempotencyService.toResponse(result);
+    }
+
+    @PostMapping("/orders/bulk/reassign")
+    @Operation(summary = "Reassign many orders to a provider")
+    public ResponseEntity<BulkOrderResultDto> bulkReassignOrders(@Valid @RequestBody BulkOrderRequest request) {
+        return ResponseEntity.ok(bulkOrderService.reassign(request.getOrderIds(), request.getProviderId()));
+    }
+
+    @PostMapping("/ratings/rebuild")
+    @Operation(summary = "Rebuild rating aggregates from reviews")
+    public ResponseEntity<Void> rebuildRatings() {
+        ratingAggregateService.rebuild();
+        return ResponseEntity.noContent().build();
     }
 }
 
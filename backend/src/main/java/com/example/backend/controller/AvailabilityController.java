@@ -0,0 +1,44 @@
+package com.example.backend.controller;
+
+import com.example.backend.booking.BookingEngine;
+import com.example.backend.dto.AvailableProviderDto;
+import com.example.backend.dto.TimeSlotDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/availability")
+@RequiredArgsConstructor
+@Tag(name = "Availability", description = "Provider availability endpoints")
+public class AvailabilityController {
+
+    private final BookingEngine bookingEngine;
+
+    @GetMapping("/slots")
+    @Operation(summary = "Get free start times for a service in a time range")
+    public ResponseEntity<List<TimeSlotDto>> getFreeSlots(
+            @RequestParam Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(bookingEngine.getFreeSlots(serviceId, from, to));
+    }
+
+    @GetMapping("/providers")
+    @Operation(summary = "Get providers (optionally of a category) free for the whole visit")
+    public ResponseEntity<List<AvailableProviderDto>> getAvailableProviders(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) Integer durationMinutes) {
+        return ResponseEntity.ok(bookingEngine.getAvailableProviders(categoryId, start, durationMinutes));
+    }
+}
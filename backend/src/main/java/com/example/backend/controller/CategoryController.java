@@ -1,6 +1,9 @@
 package com.example.backend.controller;
 
+import com.example.backend.catalog.CatalogHttpCache;
+import com.example.backend.catalog.CatalogSnapshotHolder;
 import com.example.backend.dto.CategoryDto;
+import com.example.backend.dto.CategoryTreeDto;
 import com.example.backend.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,17 +24,36 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogSnapshotHolder catalogSnapshotHolder;
+    private final CatalogHttpCache catalogHttpCache;
 
     @GetMapping
     @Operation(summary = "Get all categories")
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryDto>> getAllCategories(WebRequest request) {
+        return catalogHttpCache.list(request, catalogSnapshotHolder.current().categoriesETag(),
+                categoryService::getAllCategories);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get category by ID")
-    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id, WebRequest request) {
+        return catalogHttpCache.item(request, catalogSnapshotHolder.current().categoryETag(id),
+                () -> categoryService.getCategoryById(id));
+    }
+
+    @GetMapping("/tree")
+    @Operation(summary = "Get category tree")
+    public ResponseEntity<List<CategoryTreeDto>> getCategoryTree(WebRequest request) {
+        return catalogHttpCache.list(request, catalogSnapshotHolder.current().categoriesETag(),
+                categoryService::getCategoryTree);
+    }
+
+    @GetMapping("/{id}/children")
+    @Operation(summary = "Get direct subcategories")
+    public ResponseEntity<List<CategoryDto>> getSubcategories(@PathVariable Long id, WebRequest request) {
+        String etag = catalogSnapshotHolder.current().containsCategory(id)
+                ? catalogSnapshotHolder.current().categoriesETag() : null;
+        return catalogHttpCache.list(request, etag, () -> categoryService.getSubcategories(id));
     }
 
     @PostMapping
@@ -47,6 +70,13 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.updateCategory(id, categoryDto));
     }
 
+    @PutMapping("/{id}/parent")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Move category under another parent (no parent makes it a root)")
+    public ResponseEntity<CategoryDto> moveCategory(@PathVariable Long id, @RequestParam(required = false) Long parentId) {
+        return ResponseEntity.ok(categoryService.moveCategory(id, parentId));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete category")
@@ -0,0 +1,44 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.ChangeFeedDto;
+import com.example.backend.service.ChangeLogService;
+import com.example.backend.util.SecurityUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/changes")
+@RequiredArgsConstructor
+@Tag(name = "Changes", description = "Delta sync endpoints")
+public class ChangeFeedController {
+
+    private final ChangeLogService changeLogService;
+    private final SecurityUtil securityUtil;
+
+    @GetMapping("/catalog")
+    @Operation(summary = "Get service and category changes since a version")
+    public ResponseEntity<ChangeFeedDto> getCatalogChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(changeLogService.getCatalogChanges(since, limit));
+    }
+
+    @GetMapping("/orders")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get changes of current user orders (as customer or provider) since a version")
+    public ResponseEntity<ChangeFeedDto> getOrderChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        Long userId = securityUtil.getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(changeLogService.getOrderChanges(userId, since, limit));
+    }
+}
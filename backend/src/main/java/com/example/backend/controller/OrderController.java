@@ -1,10 +1,16 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.BulkOrderRequest;
+import com.example.backend.dto.BulkOrderResultDto;
 import com.example.backend.dto.CreateOrderRequest;
+import com.example.backend.dto.CursorPageDto;
 import com.example.backend.dto.OrderDto;
+import com.example.backend.dto.OrderQuery;
 import com.example.backend.dto.ProviderStatsDto;
+import com.example.backend.idempotency.IdempotencyService;
 import com.example.backend.model.Order;
 import com.example.backend.model.User;
+import com.example.backend.service.BulkOrderService;
 import com.example.backend.service.OrderService;
 import com.example.backend.service.ProviderStatsService;
 import com.example.backend.util.SecurityUtil;
@@ -12,13 +18,16 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/orders")
@@ -27,8 +36,10 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final BulkOrderService bulkOrderService;
     private final ProviderStatsService providerStatsService;
     private final SecurityUtil securityUtil;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -52,6 +63,24 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByCustomer(userId));
     }
 
+    @GetMapping(value = "/my-orders", params = "limit")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get a page of current user orders (keyset pagination)")
+    public ResponseEntity<CursorPageDto<OrderDto>> getMyOrdersPage(
+            @RequestParam Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) OrderQuery.SortOrder sort,
+            @RequestParam(required = false) Set<Order.OrderStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long providerId,
+            @RequestParam(required = false) Long serviceId,
+            Authentication authentication) {
+        Long userId = securityUtil.getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(orderService.getOrdersPage(
+                new OrderQuery(from, to, status, userId, providerId, serviceId, sort, cursor, limit)));
+    }
+
     @GetMapping("/my-provider-orders")
     @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
     @Operation(summary = "Get orders for provider's services")
@@ -61,6 +90,24 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByProvider(providerId));
     }
 
+    @GetMapping(value = "/my-provider-orders", params = "limit")
+    @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
+    @Operation(summary = "Get a page of orders for provider's services (keyset pagination)")
+    public ResponseEntity<CursorPageDto<OrderDto>> getMyProviderOrdersPage(
+            @RequestParam Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) OrderQuery.SortOrder sort,
+            @RequestParam(required = false) Set<Order.OrderStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Long serviceId,
+            Authentication authentication) {
+        Long providerId = securityUtil.getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(orderService.getOrdersPage(
+                new OrderQuery(from, to, status, customerId, providerId, serviceId, sort, cursor, limit)));
+    }
+
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get orders by customer (Admin only)")
@@ -85,10 +132,13 @@ public class OrderController {
     @Operation(summary = "Create a new order")
     public ResponseEntity<OrderDto> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         Long customerId = securityUtil.getUserIdFromAuthentication(authentication);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(orderService.createOrder(customerId, request));
+        IdempotencyService.Result<OrderDto> result = idempotencyService.execute("orders", customerId,
+                idempotencyKey, request, HttpStatus.CREATED.value(), OrderDto.class,
+                () -> orderService.createOrder(customerId, request));
+        return idempotencyService.toResponse(result);
     }
 
     @PutMapping("/{id}/status")
@@ -98,15 +148,26 @@ public class OrderController {
             @PathVariable Long id,
             @RequestParam Order.OrderStatus status,
             Authentication authentication) {
-        Long providerId = null;
-        User.Role role = securityUtil.getUserRoleFromAuthentication(authentication);
-        
-        // Если PROVIDER, проверяем что заказ принадлежит ему
-        if (role == User.Role.PROVIDER) {
-            providerId = securityUtil.getUserIdFromAuthentication(authentication);
-        }
-        
-        return ResponseEntity.ok(orderService.updateOrderStatus(id, status, providerId));
+        return ResponseEntity.ok(orderService.updateOrderStatus(id, status, providerScope(authentication)));
+    }
+
+    @PostMapping("/bulk/status")
+    @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
+    @Operation(summary = "Update status of many orders")
+    public ResponseEntity<BulkOrderResultDto> bulkUpdateOrderStatus(
+            @Valid @RequestBody BulkOrderRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(bulkOrderService.changeStatus(
+                request.getOrderIds(), request.getStatus(), providerScope(authentication)));
+    }
+
+    @PostMapping("/bulk/cancel")
+    @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
+    @Operation(summary = "Cancel many orders")
+    public ResponseEntity<BulkOrderResultDto> bulkCancelOrders(
+            @Valid @RequestBody BulkOrderRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(bulkOrderService.cancel(request.getOrderIds(), providerScope(authentication)));
     }
 
     @DeleteMapping("/{id}")
@@ -125,5 +186,11 @@ public class OrderController {
         return ResponseEntity.ok(providerStatsService.getProviderStats(providerId));
     }
 
+    // Если PROVIDER, заказы должны принадлежать ему; null — действует администратор
+    private Long providerScope(Authentication authentication) {
+        User.Role role = securityUtil.getUserRoleFromAuthentication(authentication);
+        return role == User.Role.PROVIDER ? securityUtil.getUserIdFromAuthentication(authentication) : null;
+    }
+
 }
 
@@ -1,8 +1,15 @@
 package com.example.backend.controller;
 
+import com.example.backend.catalog.CatalogHttpCache;
+import com.example.backend.catalog.CatalogSnapshotHolder;
+import com.example.backend.dto.FacetCountsDto;
 import com.example.backend.dto.ServiceDto;
+import com.example.backend.dto.ServicePageDto;
+import com.example.backend.dto.ServiceQuery;
+import com.example.backend.dto.ServiceSearchResultDto;
 import com.example.backend.model.Service;
 import com.example.backend.repository.ServiceRepository;
+import com.example.backend.search.FacetIndex;
 import com.example.backend.service.ServiceService;
 import com.example.backend.util.SecurityUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,8 +21,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/services")
@@ -26,23 +39,80 @@ public class ServiceController {
     private final ServiceService serviceService;
     private final ServiceRepository serviceRepository;
     private final SecurityUtil securityUtil;
+    private final CatalogSnapshotHolder catalogSnapshotHolder;
+    private final CatalogHttpCache catalogHttpCache;
 
     @GetMapping
     @Operation(summary = "Get all active services")
-    public ResponseEntity<List<ServiceDto>> getAllServices() {
-        return ResponseEntity.ok(serviceService.getAllServices());
+    public ResponseEntity<List<ServiceDto>> getAllServices(WebRequest request) {
+        return catalogHttpCache.list(request, catalogSnapshotHolder.current().servicesETag(),
+                serviceService::getAllServices);
+    }
+
+    @GetMapping(params = "limit")
+    @Operation(summary = "Get a page of active services (keyset pagination)")
+    public ResponseEntity<ServicePageDto> getServicesPage(
+            @RequestParam Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ServiceQuery.SortOrder sort,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+        return ResponseEntity.ok(serviceService.getServicesPage(
+                new ServiceQuery(categoryId, minPrice, maxPrice, sort, cursor, limit)));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Full-text search over active services")
+    public ResponseEntity<ServiceSearchResultDto> searchServices(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(required = false) List<String> duration,
+            @RequestParam(required = false) List<String> rating,
+            @RequestParam(required = false) List<String> provider) {
+        return ResponseEntity.ok(serviceService.searchServices(query, limit,
+                facetFilters(category, price, duration, rating, provider)));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Get facet counts for active services")
+    public ResponseEntity<FacetCountsDto> getFacetCounts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(required = false) List<String> duration,
+            @RequestParam(required = false) List<String> rating,
+            @RequestParam(required = false) List<String> provider) {
+        return ResponseEntity.ok(serviceService.getFacetCounts(
+                facetFilters(category, price, duration, rating, provider)));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get service by ID")
-    public ResponseEntity<ServiceDto> getServiceById(@PathVariable Long id) {
-        return ResponseEntity.ok(serviceService.getServiceById(id));
+    public ResponseEntity<ServiceDto> getServiceById(@PathVariable Long id, WebRequest request) {
+        return catalogHttpCache.item(request, catalogSnapshotHolder.current().serviceETag(id),
+                () -> serviceService.getServiceById(id));
     }
 
     @GetMapping("/category/{categoryId}")
     @Operation(summary = "Get services by category")
-    public ResponseEntity<List<ServiceDto>> getServicesByCategory(@PathVariable Long categoryId) {
-        return ResponseEntity.ok(serviceService.getServicesByCategory(categoryId));
+    public ResponseEntity<List<ServiceDto>> getServicesByCategory(@PathVariable Long categoryId, WebRequest request) {
+        return catalogHttpCache.list(request, catalogSnapshotHolder.current().servicesByCategoryETag(categoryId),
+                () -> serviceService.getServicesByCategory(categoryId));
+    }
+
+    @GetMapping(value = "/category/{categoryId}", params = "limit")
+    @Operation(summary = "Get a page of services by category (keyset pagination)")
+    public ResponseEntity<ServicePageDto> getServicesByCategoryPage(
+            @PathVariable Long categoryId,
+            @RequestParam Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ServiceQuery.SortOrder sort,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+        return ResponseEntity.ok(serviceService.getServicesPage(
+                new ServiceQuery(categoryId, minPrice, maxPrice, sort, cursor, limit)));
     }
 
     @GetMapping("/provider/{providerId}")
@@ -110,18 +180,22 @@ public class ServiceController {
         serviceService.deleteService(id);
         return ResponseEntity.noContent().build();
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
 
+    private Map<FacetIndex.Facet, Set<String>> facetFilters(List<String> category, List<String> price,
+                                                           List<String> duration, List<String> rating,
+                                                           List<String> provider) {
+        Map<FacetIndex.Facet, Set<String>> filters = new EnumMap<>(FacetIndex.Facet.class);
+        putFilter(filters, FacetIndex.Facet.CATEGORY, category);
+        putFilter(filters, FacetIndex.Facet.PRICE, price);
+        putFilter(filters, FacetIndex.Facet.DURATION, duration);
+        putFilter(filters, FacetIndex.Facet.RATING, rating);
+        putFilter(filters, FacetIndex.Facet.PROVIDER, provider);
+        return filters;
+    }
 
+    private void putFilter(Map<FacetIndex.Facet, Set<String>> filters, FacetIndex.Facet facet, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(facet, new HashSet<>(values));
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.backend.dispatch;
+
+import com.example.backend.booking.BookingEngine;
+import com.example.backend.booking.ProviderScheduleIndex;
+import com.example.backend.cache.CacheInvalidator;
+import com.example.backend.catalog.CatalogSnapshot;
+import com.example.backend.catalog.CatalogSnapshotHolder;
+import com.example.backend.dto.DispatchDecisionDto;
+import com.example.backend.dto.OrderEvent;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.OrdersChangedEvent;
+import com.example.backend.kafka.OutboxPublisher;
+import com.example.backend.model.DispatchDecision;
+import com.example.backend.model.Order;
+import com.example.backend.model.User;
+import com.example.backend.repository.DispatchDecisionRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.JobLeaseService;
+import com.example.backend.service.NotificationService;
+import com.example.backend.service.RatingAggregateService;
+import com.example.backend.service.ReviewService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Назначает исполнителей ожидающим заказам: без исполнителя и у перегруженных исполнителей.
+ *
+ * <p>Кандидаты — исполнители категории услуги, свободные на время заказа и не перегруженные.
+ * Они упорядочиваются {@link DispatchScoring} по нагрузке и рейтингу; первый, чью бронь
+ * подтвердила БД, получает заказ. Нагрузка внутри пачки учитывается сразу, поэтому пачка
+ * распределяется равномерно. Каждое назначение пишется в журнал с входными данными.
+ *
+ * <p>Каждый заказ назначается в своей короткой транзакции: блокировки исполнителей не держатся
+ * до конца пачки, а сбой одного заказа (например, его отменили во время прохода) пропускает только его.
+ *
+ * <p>Работает на узле с арендой {@value #LEASE}: новые заказы без исполнителя будят его сразу,
+ * а полный проход по очереди выполняется раз в {@code sweep-interval}.
+ */
+@Service
+@Slf4j
+public class DispatchEngine {
+
+    static final String LEASE = "order-dispatch";
+    private static final Set<Order.OrderStatus> ACTIVE_STATUSES =
+            EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.IN_PROGRESS);
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final DispatchDecisionRepository dispatchDecisionRepository;
+    private final BookingEngine bookingEngine;
+    private final ProviderScheduleIndex providerScheduleIndex;
+    private final CatalogSnapshotHolder catalogSnapshotHolder;
+    private final RatingAggregateService ratingAggregateService;
+    private final JobLeaseService jobLeaseService;
+    private final NotificationService notificationService;
+    private final OutboxPublisher outboxPublisher;
+    private final CacheInvalidator cacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter assigned;
+    private final Counter unassigned;
+    private final Timer batchTimer;
+    private final AtomicBoolean wakeUp = new AtomicBoolean(true);
+    private long nextSweep;
+
+    @Value("${app.dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.dispatch.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.dispatch.max-active-orders:20}")
+    private int maxActiveOrders;
+
+    @Value("${app.dispatch.load-weight:1.0}")
+    private double loadWeight;
+
+    @Value("${app.dispatch.rating-weight:2.0}")
+    private double ratingWeight;
+
+    @Value("${app.dispatch.sweep-interval:30s}")
+    private Duration sweepInterval;
+
+    @Value("${app.dispatch.lease-duration:30s}")
+    private Duration leaseDuration;
+
+    public DispatchEngine(OrderRepository orderRepository,
+                          UserRepository userRepository,
+                          DispatchDecisionRepository dispatchDecisionRepository,
+                          BookingEngine bookingEngine,
+                          ProviderScheduleIndex providerScheduleIndex,
+                          CatalogSnapshotHolder catalogSnapshotHolder,
+                          RatingAggregateService ratingAggregateService,
+                          JobLeaseService jobLeaseService,
+                          NotificationService notificationService,
+                          OutboxPublisher outboxPublisher,
+                          CacheInvalidator cacheInvalidator,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.dispatchDecisionRepository = dispatchDecisionRepository;
+        this.bookingEngine = bookingEngine;
+        this.providerScheduleIndex = providerScheduleIndex;
+        this.catalogSnapshotHolder = catalogSnapshotHolder;
+        this.ratingAggregateService = ratingAggregateService;
+        this.jobLeaseService = jobLeaseService;
+        this.notificationService = notificationService;
+        this.outboxPublisher = outboxPublisher;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.assigned = Counter.builder("dispatch.orders").tag("result", "assigned").register(meterRegistry);
+        this.unassigned = Counter.builder("dispatch.orders").tag("result", "unassigned").register(meterRegistry);
+        this.batchTimer = Timer.builder("dispatch.batch").register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!event.isDeleted() && event.getProviderId() == null) {
+            wakeUp.set(true);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersChanged(OrdersChangedEvent event) {
+        event.getChanges().forEach(this::onOrderChanged);
+    }
+
+    @Scheduled(fixedDelayString = "${app.dispatch.interval:PT0.2S}")
+    public synchronized void dispatch() {
+        long now = System.currentTimeMillis();
+        boolean sweep = now >= nextSweep;
+        if (!enabled || (!wakeUp.getAndSet(false) && !sweep)) {
+            return;
+        }
+        if (!jobLeaseService.tryAcquire(LEASE, leaseDuration)) {
+            return;
+        }
+        if (sweep) {
+            nextSweep = now + sweepInterval.toMillis();
+        }
+        long deadline = now + leaseDuration.toMillis() / 2;
+        try {
+            Map<Long, Integer> loads = loadActiveOrders();
+            LocalDateTime afterTime = LocalDateTime.now();
+            long afterId = 0;
+            while (System.currentTimeMillis() < deadline) {
+                LocalDateTime pageAfterTime = afterTime;
+                long pageAfterId = afterId;
+                Order last = batchTimer.record(() -> dispatchPage(loads, pageAfterTime, pageAfterId));
+                if (last == null) {
+                    break;
+                }
+                afterTime = last.getScheduledDateTime();
+                afterId = last.getId();
+            }
+        } catch (Exception e) {
+            log.error("Order dispatch failed: ", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<DispatchDecisionDto> getDecisions(Long orderId, int limit) {
+        List<DispatchDecision> decisions = orderId != null
+                ? dispatchDecisionRepository.findByOrderIdOrderByIdAsc(orderId)
+                : dispatchDecisionRepository.findLatest(PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+        return decisions.stream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    /**
+     * Обрабатывает одну страницу очереди. Возвращает последний просмотренный заказ или null, если очередь кончилась.
+     */
+    private Order dispatchPage(Map<Long, Integer> loads, LocalDateTime afterTime, long afterId) {
+        Set<Long> overloaded = loads.entrySet().stream()
+                .filter(entry -> entry.getValue() > maxActiveOrders)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(HashSet::new));
+        if (overloaded.isEmpty()) {
+            overloaded.add(-1L);
+        }
+        List<Order> orders = orderRepository.findDispatchable(overloaded, LocalDateTime.now(), afterTime, afterId,
+                PageRequest.of(0, batchSize));
+        if (orders.isEmpty()) {
+            return null;
+        }
+
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current();
+        Map<Long, Set<Long>> providersByCategory = new HashMap<>();
+        for (Order order : orders) {
+            providersByCategory.computeIfAbsent(order.getService().getCategory().getId(),
+                    categoryId -> new LinkedHashSet<>(snapshot.getProvidersByCategory(categoryId).keySet()));
+        }
+        Set<Long> allCandidates = new HashSet<>();
+        providersByCategory.values().forEach(allCandidates::addAll);
+        Map<Long, ReviewService.ReviewStats> ratings = ratingAggregateService.getProviderStats(allCandidates);
+
+        for (Order order : orders) {
+            Long previousProviderId = order.getProvider() != null ? order.getProvider().getId() : null;
+            // Перегруженность могла закончиться назначениями этой же пачки
+            if (previousProviderId != null && loads.getOrDefault(previousProviderId, 0) <= maxActiveOrders) {
+                continue;
+            }
+            List<DispatchScoring.Candidate> candidates = new ArrayList<>();
+            for (Long providerId : providerScheduleIndex.freeProviders(
+                    providersByCategory.get(order.getService().getCategory().getId()),
+                    order.getScheduledDateTime(), order.getScheduledEndDateTime())) {
+                int load = loads.getOrDefault(providerId, 0);
+                if (providerId.equals(previousProviderId) || load >= maxActiveOrders) {
+                    continue;
+                }
+                ReviewService.ReviewStats stats = ratings.get(providerId);
+                candidates.add(new DispatchScoring.Candidate(providerId, load,
+                        stats != null && stats.getAverageRating() != null ? stats.getAverageRating() : 0.0,
+                        stats != null && stats.getReviewCount() != null ? stats.getReviewCount() : 0));
+            }
+            Outcome outcome;
+            try {
+                outcome = transactionTemplate.execute(status -> assign(order.getId(), previousProviderId, candidates));
+            } catch (RuntimeException e) {
+                log.warn("Failed to dispatch order {}: {}", order.getId(), e.getMessage());
+                continue;
+            }
+            if (outcome.stale()) {
+                continue;
+            }
+            if (outcome.providerId() == null) {
+                unassigned.increment();
+                continue;
+            }
+            loads.merge(outcome.providerId(), 1, Integer::sum);
+            if (previousProviderId != null) {
+                loads.merge(previousProviderId, -1, Integer::sum);
+            }
+            assigned.increment();
+        }
+        return orders.get(orders.size() - 1);
+    }
+
+    // Итог назначения заказа; stale — заказ изменился после чтения страницы и пропущен
+    private record Outcome(boolean stale, Long providerId) {
+    }
+
+    private Outcome assign(Long orderId, Long previousProviderId, List<DispatchScoring.Candidate> candidates) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null || order.getStatus() != Order.OrderStatus.PENDING
+                || !Objects.equals(order.getProvider() != null ? order.getProvider().getId() : null, previousProviderId)) {
+            return new Outcome(true, null);
+        }
+        DispatchScoring.Weights weights = new DispatchScoring.Weights(loadWeight, ratingWeight);
+        PriorityQueue<DispatchScoring.Candidate> queue = DispatchScoring.queue(candidates, weights);
+        User previousProvider = order.getProvider();
+        List<Long> conflicts = new ArrayList<>();
+        DispatchScoring.Candidate chosen = null;
+        while (!queue.isEmpty()) {
+            DispatchScoring.Candidate candidate = queue.poll();
+            order.setProvider(userRepository.getReferenceById(candidate.providerId()));
+            // Индекс мог отстать от БД (другой узел): окончательно решает проверка брони под блокировкой
+            if (bookingEngine.tryReserve(order)) {
+                chosen = candidate;
+                break;
+            }
+            conflicts.add(candidate.providerId());
+        }
+        if (chosen == null) {
+            order.setProvider(previousProvider);
+            return new Outcome(false, null);
+        }
+
+        order = orderRepository.save(order);
+
+        DispatchDecision decision = new DispatchDecision();
+        decision.setOrderId(order.getId());
+        decision.setProviderId(chosen.providerId());
+        decision.setPreviousProviderId(previousProviderId);
+        decision.setReason(previousProviderId == null ? DispatchDecision.Reason.UNASSIGNED
+                : DispatchDecision.Reason.OVERLOADED);
+        decision.setLoadWeight(weights.load());
+        decision.setRatingWeight(weights.rating());
+        decision.setCandidates(DispatchScoring.encode(candidates));
+        decision.setConflicts(conflicts.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        dispatchDecisionRepository.save(decision);
+
+        cacheInvalidator.orderReassigned(order, previousProviderId);
+        eventPublisher.publishEvent(OrderChangedEvent.of(order, false));
+        if (previousProviderId != null) {
+            // Прежний исполнитель тоже должен увидеть изменение в своей ленте заказов
+            eventPublisher.publishEvent(new OrderChangedEvent(order.getId(),
+                    order.getCustomer().getId(), previousProviderId, false));
+        }
+        outboxPublisher.publishOrderEvent(new OrderEvent(order.getId(), order.getCustomer().getId(),
+                order.getService().getId(), order.getStatus(), LocalDateTime.now(),
+                "Order assigned to provider " + chosen.providerId()));
+        notificationService.notifyAfterCommit(chosen.providerId(), "NEW_ORDER", "New Order",
+                "You have a new order for " + order.getService().getName());
+        if (previousProviderId != null) {
+            notificationService.notifyAfterCommit(previousProviderId, "ORDER_REASSIGNED", "Order Reassigned",
+                    "Your order has been reassigned to another provider");
+        }
+        return new Outcome(false, chosen.providerId());
+    }
+
+    private Map<Long, Integer> loadActiveOrders() {
+        Map<Long, Integer> loads = new HashMap<>();
+        for (Object[] row : orderRepository.countByProviderAndStatusIn(ACTIVE_STATUSES)) {
+            loads.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return loads;
+    }
+
+    private DispatchDecisionDto toDto(DispatchDecision decision) {
+        Set<Long> rejected = new HashSet<>();
+        if (decision.getConflicts() != null && !decision.getConflicts().isEmpty()) {
+            for (String id : decision.getConflicts().split(",")) {
+                rejected.add(Long.parseLong(id));
+            }
+        }
+        Long replayed = DispatchScoring.choose(DispatchScoring.decode(decision.getCandidates()),
+                new DispatchScoring.Weights(decision.getLoadWeight(), decision.getRatingWeight()), rejected);
+        return new DispatchDecisionDto(decision.getId(), decision.getOrderId(), decision.getProviderId(),
+                decision.getPreviousProviderId(), decision.getReason(), decision.getCandidates(),
+                decision.getConflicts(), decision.getDecidedAt(), replayed);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.backend.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Чистая функция выбора исполнителя: одинаковые кандидаты и веса всегда дают одинаковый порядок.
+ * Ею пользуются и диспетчер, и воспроизведение решений из журнала.
+ */
+public final class DispatchScoring {
+
+    // Рейтинг сглаживается к априорному, чтобы одна оценка 5 не перевешивала сотню оценок 4.8
+    private static final double PRIOR_RATING = 4.0;
+    private static final int PRIOR_WEIGHT = 5;
+
+    public record Candidate(long providerId, int activeOrders, double rating, int reviewCount) {
+    }
+
+    public record Weights(double load, double rating) {
+    }
+
+    private DispatchScoring() {
+    }
+
+    /** Меньше — лучше */
+    public static double score(Candidate candidate, Weights weights) {
+        double smoothedRating = (candidate.rating() * candidate.reviewCount() + PRIOR_RATING * PRIOR_WEIGHT)
+                / (candidate.reviewCount() + PRIOR_WEIGHT);
+        return weights.load() * candidate.activeOrders() - weights.rating() * smoothedRating;
+    }
+
+    public static PriorityQueue<Candidate> queue(Collection<Candidate> candidates, Weights weights) {
+        Comparator<Candidate> order = Comparator.<Candidate>comparingDouble(c -> score(c, weights))
+                .thenComparingLong(Candidate::providerId);
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Math.max(1, candidates.size()), order);
+        queue.addAll(candidates);
+        return queue;
+    }
+
+    /** Лучший кандидат, не попавший в {@code rejected}; null, если таких нет */
+    public static Long choose(Collection<Candidate> candidates, Weights weights, Set<Long> rejected) {
+        PriorityQueue<Candidate> queue = queue(candidates, weights);
+        while (!queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (!rejected.contains(candidate.providerId())) {
+                return candidate.providerId();
+            }
+        }
+        return null;
+    }
+
+    public static String encode(Collection<Candidate> candidates) {
+        StringBuilder result = new StringBuilder();
+        for (Candidate candidate : candidates) {
+            if (result.length() > 0) {
+                result.append(';');
+            }
+            // Double.toString обратим без потерь, поэтому воспроизведение считает те же баллы
+            result.append(candidate.providerId()).append(':').append(candidate.activeOrders()).append(':')
+                    .append(candidate.rating()).append(':').append(candidate.reviewCount());
+        }
+        return result.toString();
+    }
+
+    public static List<Candidate> decode(String encoded) {
+        List<Candidate> candidates = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return candidates;
+        }
+        for (String part : encoded.split(";")) {
+            String[] fields = part.split(":");
+            candidates.add(new Candidate(Long.parseLong(fields[0]), Integer.parseInt(fields[1]),
+                    Double.parseDouble(fields[2]), Integer.parseInt(fields[3])));
+        }
+        return candidates;
+    }
+}
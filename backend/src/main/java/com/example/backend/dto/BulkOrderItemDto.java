@@ -0,0 +1,21 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderItemDto {
+    private Long orderId;
+    private Outcome outcome;
+    private Order.OrderStatus status;
+    private Long providerId;
+    private String error;
+
+    public enum Outcome {
+        CHANGED, UNCHANGED, FAILED
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.Order;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderRequest {
+    @NotEmpty
+    private List<Long> orderIds;
+
+    // Новый статус для смены статуса, новый исполнитель для переназначения
+    private Order.OrderStatus status;
+    private Long providerId;
+}
@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResultDto {
+    private int total;
+    private int changed;
+    private int unchanged;
+    private int failed;
+    private List<BulkOrderItemDto> items;
+}
@@ -18,6 +18,13 @@ public class CategoryDto {
     private String description;
     private String icon;
     private Long serviceCount;
+    private Long parentId;
+    // Активные услуги категории вместе со всеми подкатегориями
+    private Long subtreeServiceCount;
+
+    public CategoryDto(Long id, String name, String description, String icon, Long serviceCount) {
+        this(id, name, description, icon, serviceCount, null, null);
+    }
 }
 
 
@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTreeDto {
+    private CategoryDto category;
+    private List<CategoryTreeDto> children;
+}
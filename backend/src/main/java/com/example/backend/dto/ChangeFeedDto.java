@@ -0,0 +1,19 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedDto {
+    // Номер, с которого продолжать следующий запрос (since)
+    private Long version;
+    private Boolean hasMore;
+    // Журнал за запрошенный период уже очищен — клиенту нужно загрузить данные целиком и продолжить с version
+    private Boolean resyncRequired;
+    private ChangeSetDto<ServiceDto> services;
+    private ChangeSetDto<CategoryDto> categories;
+    private ChangeSetDto<OrderDto> orders;
+}
@@ -0,0 +1,16 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeSetDto<T> {
+    // Созданные и изменённые записи в текущем состоянии
+    private List<T> upserted;
+    private List<Long> deletedIds;
+}
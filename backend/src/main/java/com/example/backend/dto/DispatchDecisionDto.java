@@ -0,0 +1,24 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.DispatchDecision;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchDecisionDto {
+    private Long id;
+    private Long orderId;
+    private Long providerId;
+    private Long previousProviderId;
+    private DispatchDecision.Reason reason;
+    private String candidates;
+    private String conflicts;
+    private LocalDateTime decidedAt;
+    // Результат повторного выбора по сохранённым входным данным
+    private Long replayedProviderId;
+}
@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountsDto {
+    private Integer total;
+    private Map<String, Map<String, Long>> facets;
+}
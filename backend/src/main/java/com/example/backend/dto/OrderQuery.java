@@ -0,0 +1,29 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderQuery {
+    // Интервал по времени визита: [from, to)
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Set<Order.OrderStatus> statuses;
+    private Long customerId;
+    private Long providerId;
+    private Long serviceId;
+    private SortOrder sort = SortOrder.NEWEST;
+    private String cursor;
+    private Integer limit;
+
+    public enum SortOrder {
+        SCHEDULED_ASC, SCHEDULED_DESC, NEWEST
+    }
+}
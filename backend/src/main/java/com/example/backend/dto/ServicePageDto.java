@@ -0,0 +1,19 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServicePageDto {
+    private List<ServiceDto> items;
+    private String nextCursor;
+    private Boolean hasMore;
+    private Integer total;
+    private Map<String, Map<String, Long>> facets;
+}
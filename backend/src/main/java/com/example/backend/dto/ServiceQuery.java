@@ -0,0 +1,23 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceQuery {
+    private Long categoryId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private SortOrder sort = SortOrder.NEWEST;
+    private String cursor;
+    private Integer limit;
+
+    public enum SortOrder {
+        PRICE_ASC, PRICE_DESC, RATING_DESC, NEWEST
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+}
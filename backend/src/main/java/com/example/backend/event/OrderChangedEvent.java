@@ -0,0 +1,21 @@
+package com.example.backend.event;
+
+import com.example.backend.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class OrderChangedEvent {
+    private final Long orderId;
+    private final Long customerId;
+    private final Long providerId;
+    private final boolean deleted;
+
+    public static OrderChangedEvent of(Order order, boolean deleted) {
+        return new OrderChangedEvent(order.getId(),
+                order.getCustomer() != null ? order.getCustomer().getId() : null,
+                order.getProvider() != null ? order.getProvider().getId() : null,
+                deleted);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Изменения нескольких заказов одной транзакции — журнал изменений пишет их одним батчем
+@Getter
+@AllArgsConstructor
+public class OrdersChangedEvent {
+    private final List<OrderChangedEvent> changes;
+}
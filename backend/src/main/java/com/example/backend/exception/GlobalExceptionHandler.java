@@ -42,8 +42,21 @@ public class GlobalExceptionHandler {
             if (ex.getMessage().contains("Invalid username or password") || 
                 ex.getMessage().contains("Bad credentials")) {
                 status = HttpStatus.UNAUTHORIZED;
-            } else if (ex.getMessage().contains("already exists")) {
+            } else if (ex.getMessage().contains("Invalid cursor")
+                    || ex.getMessage().contains("Invalid category parent")
+                    || ex.getMessage().contains("Invalid booking")
+                    || ex.getMessage().contains("Invalid Idempotency-Key")
+                    || ex.getMessage().contains("Invalid bulk request")) {
+                status = HttpStatus.BAD_REQUEST;
+            } else if (ex.getMessage().contains("already exists")
+                    || ex.getMessage().contains("has subcategories")
+                    || ex.getMessage().contains("not available at the requested time")
+                    || ex.getMessage().contains("Idempotency-Key is still in progress")
+                    || ex.getMessage().contains("modified concurrently")
+                    || ex.getMessage().contains("Invalid order status transition")) {
                 status = HttpStatus.CONFLICT;
+            } else if (ex.getMessage().contains("Idempotency-Key was already used")) {
+                status = HttpStatus.UNPROCESSABLE_ENTITY;
             } else if (ex.getMessage().contains("not found")) {
                 status = HttpStatus.NOT_FOUND;
             } else if (ex.getMessage().contains("disabled") || 
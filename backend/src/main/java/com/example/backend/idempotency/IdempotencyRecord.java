@@ -0,0 +1,13 @@
+package com.example.backend.idempotency;
+
+/**
+ * Запись о запросе с ключом идемпотентности. Пока запрос выполняется, {@code status} равен 0,
+ * после успеха — HTTP-статус и тело ответа в JSON. {@code token} отличает захват ключа одним
+ * запросом от повторного захвата после истечения TTL.
+ */
+public record IdempotencyRecord(String fingerprint, String token, int status, String body) {
+
+    public boolean completed() {
+        return status != 0;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.backend.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет запрос с заголовком {@code Idempotency-Key} не более одного раза: повтор с тем же ключом
+ * получает сохранённый ответ, а одновременные дубликаты ждут результата первого запроса.
+ *
+ * <p>Дубликаты на одном узле ждут общий future без обращений к хранилищу, дубликаты с других узлов
+ * опрашивают хранилище. Ключ занимается на {@code lock-ttl}, чтобы упавший узел не держал его вечно;
+ * готовый ответ хранится {@code ttl}. Неуспешный запрос освобождает ключ, и повтор выполнится заново.
+ * Ключ привязан к пользователю и отпечатку тела запроса: чужой ответ по угаданному ключу не выдаётся.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${app.idempotency.lock-ttl:30s}")
+    private Duration lockTtl;
+
+    @Value("${app.idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    @Value("${app.idempotency.poll-interval:50ms}")
+    private Duration pollInterval;
+
+    public record Result<T>(T body, int status, boolean replayed) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<String> response) {
+    }
+
+    // value — результат action, если он выполнялся здесь; при повторе есть только сохранённый body
+    private record Outcome(Object value, String body, int status, boolean replayed) {
+    }
+
+    public IdempotencyService(IdempotencyStore store, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param scope   операция, например {@code orders}
+     * @param userId  автор запроса; ключи разных пользователей не пересекаются
+     * @param key     значение заголовка; без него {@code action} просто выполняется
+     * @param request всё, что определяет результат, — из него строится отпечаток
+     */
+    public <T> Result<T> execute(String scope, Long userId, String key, Object request, int status,
+                                 Class<T> type, Supplier<T> action) {
+        if (key == null) {
+            return new Result<>(action.get(), status, false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Invalid Idempotency-Key");
+        }
+        String storeKey = "idempotency:" + scope + ":" + userId + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight leader = inFlight.putIfAbsent(storeKey, mine);
+        if (leader != null) {
+            checkFingerprint(leader.fingerprint(), fingerprint);
+            count("coalesced");
+            return new Result<>(read(await(leader.response()), type), status, true);
+        }
+        try {
+            Outcome outcome = executeOnce(storeKey, fingerprint, status, action);
+            mine.response().complete(outcome.body());
+            T body = outcome.value() != null ? type.cast(outcome.value()) : read(outcome.body(), type);
+            return new Result<>(body, outcome.status(), outcome.replayed());
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(storeKey, mine);
+        }
+    }
+
+    public <T> ResponseEntity<T> toResponse(Result<T> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(result.status());
+        if (result.replayed()) {
+            response.header(REPLAYED_HEADER, "true");
+        }
+        return response.body(result.body());
+    }
+
+    private Outcome executeOnce(String storeKey, String fingerprint, int status, Supplier<?> action) {
+        IdempotencyRecord claim = new IdempotencyRecord(fingerprint, UUID.randomUUID().toString(), 0, null);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Optional<IdempotencyRecord> existing;
+            try {
+                existing = store.putIfAbsent(storeKey, claim, lockTtl);
+            } catch (RuntimeException e) {
+                // Без хранилища дубликаты с других узлов не отсечь, но заказ принять нужно
+                log.warn("Idempotency store unavailable, executing {} without deduplication: {}",
+                        storeKey, e.getMessage());
+                count("unchecked");
+                Object value = action.get();
+                return new Outcome(value, write(value), status, false);
+            }
+            if (existing.isEmpty()) {
+                return executeClaimed(storeKey, claim, status, action);
+            }
+            IdempotencyRecord record = existing.get();
+            checkFingerprint(record.fingerprint(), fingerprint);
+            if (record.completed()) {
+                count("replayed");
+                return new Outcome(null, record.body(), record.status(), true);
+            }
+            // Запрос выполняется на другом узле — ждём его ответа или освобождения ключа
+            if (System.nanoTime() > deadline) {
+                throw new RuntimeException("Request with this Idempotency-Key is still in progress");
+            }
+            sleep(pollInterval);
+        }
+    }
+
+    private Outcome executeClaimed(String storeKey, IdempotencyRecord claim, int status, Supplier<?> action) {
+        Object value;
+        try {
+            value = action.get();
+        } catch (RuntimeException e) {
+            releaseQuietly(storeKey, claim);
+            throw e;
+        }
+        count("executed");
+        String body = write(value);
+        try {
+            store.put(storeKey, new IdempotencyRecord(claim.fingerprint(), claim.token(), status, body), ttl);
+        } catch (RuntimeException e) {
+            log.warn("Failed to save idempotent response for {}: {}", storeKey, e.getMessage());
+        }
+        return new Outcome(value, body, status, false);
+    }
+
+    private void releaseQuietly(String storeKey, IdempotencyRecord claim) {
+        try {
+            store.remove(storeKey, claim);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release idempotency key {}: {}", storeKey, e.getMessage());
+        }
+    }
+
+    private void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            count("mismatch");
+            throw new RuntimeException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private String await(CompletableFuture<String> response) {
+        try {
+            return response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Дубликат получает тот же отказ, что и исходный запрос
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(write(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read idempotent response", e);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("idempotency.requests", "result", result).increment();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.backend.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Хранилище ключей идемпотентности с TTL.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Атомарно записывает {@code record}, если ключ свободен.
+     *
+     * @return текущая запись, если ключ уже занят; пусто, если запись сделана
+     */
+    Optional<IdempotencyRecord> putIfAbsent(String key, IdempotencyRecord record, Duration ttl);
+
+    Optional<IdempotencyRecord> get(String key);
+
+    void put(String key, IdempotencyRecord record, Duration ttl);
+
+    /**
+     * Удаляет ключ, только если в нём всё ещё лежит {@code expected}.
+     */
+    void remove(String key, IdempotencyRecord expected);
+}
@@ -0,0 +1,58 @@
+package com.example.backend.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранилище в памяти процесса для тестов и запуска без Redis. Между узлами ключи не видны.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory")
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private record Entry(IdempotencyRecord record, long expiresAt) {
+
+        boolean expired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<IdempotencyRecord> putIfAbsent(String key, IdempotencyRecord record, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Entry candidate = new Entry(record, now + ttl.toMillis());
+        Entry current = entries.compute(key, (k, existing) ->
+                existing == null || existing.expired(now) ? candidate : existing);
+        return current == candidate ? Optional.empty() : Optional.of(current.record());
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> get(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && !entry.expired(System.currentTimeMillis())
+                ? Optional.of(entry.record()) : Optional.empty();
+    }
+
+    @Override
+    public void put(String key, IdempotencyRecord record, Duration ttl) {
+        entries.put(key, new Entry(record, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void remove(String key, IdempotencyRecord expected) {
+        entries.computeIfPresent(key, (k, existing) -> existing.record().equals(expected) ? null : existing);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expired(now));
+    }
+}
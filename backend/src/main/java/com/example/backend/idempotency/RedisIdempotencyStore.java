@@ -0,0 +1,77 @@
+package com.example.backend.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "redis", matchIfMissing = true)
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> putIfAbsent(String key, IdempotencyRecord record, Duration ttl) {
+        String value = write(record);
+        while (true) {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, ttl))) {
+                return Optional.empty();
+            }
+            Optional<IdempotencyRecord> existing = get(key);
+            // Ключ мог истечь между SET NX и GET — тогда пробуем занять его снова
+            if (existing.isPresent()) {
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> get(String key) {
+        String value = redisTemplate.opsForValue().get(key);
+        return value != null ? Optional.of(read(value)) : Optional.empty();
+    }
+
+    @Override
+    public void put(String key, IdempotencyRecord record, Duration ttl) {
+        redisTemplate.opsForValue().set(key, write(record), ttl);
+    }
+
+    @Override
+    public void remove(String key, IdempotencyRecord expected) {
+        redisTemplate.execute(REMOVE_SCRIPT, List.of(key), write(expected));
+    }
+
+    private String write(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotency record", e);
+        }
+    }
+
+    private IdempotencyRecord read(String value) {
+        try {
+            return objectMapper.readValue(value, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read idempotency record", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.backend.kafka;
+
+import com.example.backend.dto.OrderEvent;
+import com.example.backend.model.OutboxEvent;
+import com.example.backend.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ставит события заказов в outbox. Запись делается в транзакции вызывающего кода:
+ * откат транзакции отменяет и событие, а брокер на пути записи заказа не участвует.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${kafka.topic.order-events}")
+    private String orderEventsTopic;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishOrderEvent(OrderEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setTopic(orderEventsTopic);
+        // Ключ по заказу: события одного заказа попадают в одну партицию и читаются по порядку
+        outboxEvent.setMessageKey(String.valueOf(event.getOrderId()));
+        outboxEvent.setPayload(serialize(event));
+        outboxEventRepository.save(outboxEvent);
+    }
+
+    /**
+     * Пакетная запись для массовых операций: IDENTITY-ключ не даёт Hibernate группировать вставки,
+     * поэтому события пишутся одним JDBC-батчем в той же транзакции.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishOrderEvents(List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            rows.add(new Object[]{orderEventsTopic, String.valueOf(event.getOrderId()), serialize(event), now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (topic, message_key, payload, created_at, attempts, dead) " +
+                "VALUES (?, ?, ?, ?, 0, false)", rows);
+    }
+
+    private String serialize(OrderEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize order event: " + e.getMessage(), e);
+        }
+    }
+}
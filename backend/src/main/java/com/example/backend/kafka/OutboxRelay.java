@@ -0,0 +1,199 @@
+package com.example.backend.kafka;
+
+import com.example.backend.dto.OrderEvent;
+import com.example.backend.model.OutboxEvent;
+import com.example.backend.repository.OutboxEventRepository;
+import com.example.backend.service.JobLeaseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Переносит события из outbox в Kafka. Работает на узле, который держит аренду {@value #LEASE},
+ * поэтому при нескольких узлах порядок отправки не перемешивается.
+ *
+ * <p>Пачка отправляется целиком, затем из outbox удаляется непрерывный префикс подтверждённых
+ * сообщений. Всё после первой ошибки будет отправлено повторно, так что доставка — at-least-once,
+ * а последнее событие каждого заказа приходит последним. После {@code max-attempts} ошибок
+ * сообщение помечается мёртвым и перестаёт задерживать очередь.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    static final String LEASE = "outbox-relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter published;
+    private final Counter failed;
+    private final Timer batchTimer;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.lease-duration:30s}")
+    private Duration leaseDuration;
+
+    @Value("${app.outbox.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.max-backoff:1m}")
+    private Duration maxBackoff;
+
+    private int consecutiveFailures;
+    private long retryNotBefore;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, OrderEvent> kafkaTemplate,
+                       JobLeaseService jobLeaseService,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.jobLeaseService = jobLeaseService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.published = Counter.builder("outbox.relay.messages").tag("result", "published").register(meterRegistry);
+        this.failed = Counter.builder("outbox.relay.messages").tag("result", "failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch").register(meterRegistry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("outbox.dead", dead, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("outbox.lag", lagMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Age of the oldest unsent outbox message")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval:PT0.5S}")
+    public synchronized void relay() {
+        if (System.currentTimeMillis() < retryNotBefore || !jobLeaseService.tryAcquire(LEASE, leaseDuration)) {
+            return;
+        }
+        // Не дольше половины аренды, чтобы она не истекла посреди пачки
+        long deadline = System.currentTimeMillis() + leaseDuration.toMillis() / 2;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                List<OutboxEvent> batch = outboxEventRepository.findPending(PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int sent = batchTimer.record(() -> publish(batch));
+                if (sent < batch.size()) {
+                    backOff();
+                    break;
+                }
+                consecutiveFailures = 0;
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Outbox relay failed: ", e);
+            backOff();
+        }
+    }
+
+    // Отставание считают все узлы, а не только владелец аренды
+    @Scheduled(fixedDelayString = "${app.outbox.metrics-interval:PT15S}")
+    public void refreshMetrics() {
+        try {
+            pending.set(outboxEventRepository.countByDeadFalse());
+            dead.set(outboxEventRepository.countByDeadTrue());
+            LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+            lagMillis.set(oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()) : 0);
+        } catch (Exception e) {
+            log.warn("Failed to refresh outbox metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Отправляет пачку и удаляет подтверждённый префикс. Возвращает размер префикса.
+     */
+    private int publish(List<OutboxEvent> batch) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                OrderEvent payload = objectMapper.readValue(event.getPayload(), OrderEvent.class);
+                sends.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), payload));
+            } catch (Exception e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        List<Long> confirmed = new ArrayList<>(batch.size());
+        OutboxEvent failedEvent = null;
+        String error = null;
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                sends.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                confirmed.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "Interrupted";
+            } catch (ExecutionException e) {
+                error = String.valueOf(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            } catch (Exception e) {
+                error = String.valueOf(e.getMessage());
+            }
+            if (error != null) {
+                failedEvent = batch.get(i);
+                break;
+            }
+        }
+
+        OutboxEvent toRecord = failedEvent;
+        String message = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!confirmed.isEmpty()) {
+                outboxEventRepository.deleteByIds(confirmed);
+            }
+            if (toRecord != null) {
+                outboxEventRepository.recordFailure(toRecord.getId(), message, maxAttempts);
+            }
+        });
+        published.increment(confirmed.size());
+        if (toRecord != null) {
+            failed.increment();
+            log.warn("Failed to relay outbox message {} (attempt {}): {}", toRecord.getId(),
+                    toRecord.getAttempts() + 1, message);
+        }
+        return confirmed.size();
+    }
+
+    private void backOff() {
+        consecutiveFailures++;
+        long delay = Math.min(maxBackoff.toMillis(), 500L << Math.min(consecutiveFailures, 16));
+        retryNotBefore = System.currentTimeMillis() + delay;
+    }
+}
@@ -5,12 +5,15 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "categories")
+@Table(name = "categories", indexes = @Index(name = "idx_categories_parent", columnList = "parent_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,7 +30,38 @@ public class Category {
 
     private String icon;
 
+    // Родительская категория; null — корень. Пути по дереву хранятся в category_closure
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    // Число активных услуг; поддерживается CategoryCounterService при изменении услуг
+    @ColumnDefault("0")
+    @Column(name = "active_service_count", nullable = false)
+    private Long activeServiceCount = 0L;
+
+    // Название категории показывается в карточках услуг, поэтому версия входит и в их ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
     private Set<Service> services = new HashSet<>();
-}
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Category) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClass(this).hashCode();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Таблица замыкания дерева категорий: строка на каждую пару предок-потомок, включая саму категорию (depth = 0).
+// Поддерево любой категории выбирается одним запросом по индексу ancestor_id
+@Entity
+@Table(name = "category_closure", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, depth")
+})
+@IdClass(CategoryClosure.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosure {
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private int depth;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Запись журнала изменений для дельта-синхронизации клиентов.
+// sequence выдаётся в порядке коммитов, поэтому клиент может продолжать с последнего полученного номера
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_type_sequence", columnList = "entity_type, seq"),
+        @Index(name = "idx_change_log_customer_sequence", columnList = "customer_id, seq"),
+        @Index(name = "idx_change_log_provider_sequence", columnList = "provider_id, seq"),
+        @Index(name = "idx_change_log_changed_at", columnList = "changed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "seq", nullable = false, unique = true)
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Operation operation;
+
+    // Участники заказа — чтобы отдавать пользователю только его изменения
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "provider_id")
+    private Long providerId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt = LocalDateTime.now();
+
+    public enum EntityType {
+        ORDER, SERVICE, CATEGORY
+    }
+
+    public enum Operation {
+        UPSERT, DELETE
+    }
+}
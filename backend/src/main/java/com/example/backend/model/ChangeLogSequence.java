@@ -0,0 +1,23 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Единственная строка со счётчиком журнала изменений. Её блокировка до коммита
+// упорядочивает номера записей так же, как коммиты транзакций
+@Entity
+@Table(name = "change_log_sequence")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogSequence {
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "last_value", nullable = false)
+    private long lastValue;
+}
@@ -0,0 +1,56 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Решение диспетчера вместе со всеми входными данными: по ним выбор можно воспроизвести
+@Entity
+@Table(name = "dispatch_decisions", indexes = {
+        @Index(name = "idx_dispatch_decisions_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchDecision {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "provider_id", nullable = false)
+    private Long providerId;
+
+    @Column(name = "previous_provider_id")
+    private Long previousProviderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Reason reason;
+
+    @Column(name = "load_weight", nullable = false)
+    private double loadWeight;
+
+    @Column(name = "rating_weight", nullable = false)
+    private double ratingWeight;
+
+    // Кандидаты в виде providerId:activeOrders:rating:reviewCount через ';'
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String candidates;
+
+    // Кандидаты, отвергнутые проверкой брони в БД, через ','
+    @Column(columnDefinition = "TEXT")
+    private String conflicts;
+
+    @Column(name = "decided_at", nullable = false)
+    private LocalDateTime decidedAt = LocalDateTime.now();
+
+    public enum Reason {
+        UNASSIGNED, OVERLOADED
+    }
+}
@@ -5,12 +5,25 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+// Графы загрузки по сценариям: по умолчанию связи ленивые, нужные подгружаются тем же запросом
+@NamedEntityGraph(name = "Order.details", attributeNodes = {
+        @NamedAttributeNode("customer"), @NamedAttributeNode("service"), @NamedAttributeNode("provider")
+})
+@NamedEntityGraph(name = "Order.dispatch", attributeNodes = @NamedAttributeNode(value = "service", subgraph = "service"),
+        subgraphs = @NamedSubgraph(name = "service", attributeNodes = @NamedAttributeNode("category")))
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_provider_schedule", columnList = "provider_id, scheduled_date_time"),
+        @Index(name = "idx_orders_customer_schedule", columnList = "customer_id, scheduled_date_time"),
+        @Index(name = "idx_orders_status_schedule", columnList = "status, scheduled_date_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,22 +32,29 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
+    @ToString.Exclude
     private User customer;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_id", nullable = false)
+    @ToString.Exclude
     private com.example.backend.model.Service service;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "provider_id")
+    @ToString.Exclude
     private User provider;
 
     @NotNull
-    @Column(nullable = false)
+    @Column(name = "scheduled_date_time", nullable = false)
     private LocalDateTime scheduledDateTime;
 
+    // Конец визита по длительности услуги на момент бронирования: изменение услуги не сдвигает записи
+    @Column(name = "scheduled_end_date_time")
+    private LocalDateTime scheduledEndDateTime;
+
     private String address;
 
     private String notes;
@@ -51,8 +71,60 @@ public class Order {
 
     private LocalDateTime completedAt;
 
+    // Смена статуса — условный UPDATE по версии, см. OrderRepository.compareAndSetStatus
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+
+    public static LocalDateTime endOf(LocalDateTime start, com.example.backend.model.Service service) {
+        Integer duration = service != null ? service.getDurationMinutes() : null;
+        return start.plusMinutes(duration != null && duration > 0 ? duration : DEFAULT_DURATION_MINUTES);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void fillScheduledEnd() {
+        if (scheduledEndDateTime == null && scheduledDateTime != null) {
+            scheduledEndDateTime = endOf(scheduledDateTime, service);
+        }
+    }
+
+    // Равенство по идентификатору: прокси и загруженная сущность одной строки равны, связи не обходятся
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Order) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClass(this).hashCode();
+    }
+
     public enum OrderStatus {
-        PENDING, CONFIRMED, IN_PROGRESS, COMPLETED, CANCELLED
+        PENDING, CONFIRMED, IN_PROGRESS, COMPLETED, CANCELLED;
+
+        /**
+         * Заказ идёт PENDING -> CONFIRMED -> IN_PROGRESS -> COMPLETED и отменяется до начала работ.
+         * Администратор также может отменить начатый заказ и вернуть отменённый в PENDING.
+         */
+        public boolean canTransitionTo(OrderStatus target, boolean byAdmin) {
+            return switch (this) {
+                case PENDING -> target == CONFIRMED || target == CANCELLED;
+                case CONFIRMED -> target == IN_PROGRESS || target == CANCELLED;
+                case IN_PROGRESS -> target == COMPLETED || (byAdmin && target == CANCELLED);
+                case CANCELLED -> byAdmin && target == PENDING;
+                case COMPLETED -> false;
+            };
+        }
     }
 }
 
@@ -0,0 +1,72 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "rating_aggregates",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"target_type", "target_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingAggregate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false)
+    private TargetType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private long ratingCount;
+
+    @Column(nullable = false)
+    private long stars1;
+
+    @Column(nullable = false)
+    private long stars2;
+
+    @Column(nullable = false)
+    private long stars3;
+
+    @Column(nullable = false)
+    private long stars4;
+
+    @Column(nullable = false)
+    private long stars5;
+
+    public RatingAggregate(TargetType targetType, Long targetId) {
+        this.targetType = targetType;
+        this.targetId = targetId;
+    }
+
+    public void add(int rating, int delta) {
+        ratingSum += (long) rating * delta;
+        ratingCount += delta;
+        switch (rating) {
+            case 1 -> stars1 += delta;
+            case 2 -> stars2 += delta;
+            case 3 -> stars3 += delta;
+            case 4 -> stars4 += delta;
+            case 5 -> stars5 += delta;
+            default -> throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+    }
+
+    public double getAverage() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    public enum TargetType {
+        SERVICE, PROVIDER
+    }
+}
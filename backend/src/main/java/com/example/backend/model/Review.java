@@ -7,10 +7,15 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = "Review.details", attributeNodes = {
+        @NamedAttributeNode("provider"), @NamedAttributeNode(value = "order", subgraph = "order")
+}, subgraphs = @NamedSubgraph(name = "order", attributeNodes = @NamedAttributeNode("service")))
 @Table(name = "reviews")
 @Data
 @NoArgsConstructor
@@ -20,16 +25,19 @@ public class Review {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
+    @ToString.Exclude
     private Order order;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
+    @ToString.Exclude
     private User customer;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "provider_id", nullable = false)
+    @ToString.Exclude
     private User provider;
 
     @NotNull
@@ -42,5 +50,20 @@ public class Review {
 
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
-}
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Review) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClass(this).hashCode();
+    }
+}
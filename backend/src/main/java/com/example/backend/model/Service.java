@@ -6,13 +6,24 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "services")
+@NamedEntityGraph(name = "Service.details", attributeNodes = {
+        @NamedAttributeNode("category"), @NamedAttributeNode("provider")
+})
+@Table(name = "services", indexes = {
+        @Index(name = "idx_services_active_price", columnList = "active, price, id"),
+        @Index(name = "idx_services_active_category_price", columnList = "active, category_id, price, id"),
+        @Index(name = "idx_services_active_rating", columnList = "active, average_rating, id"),
+        @Index(name = "idx_services_active_category_rating", columnList = "active, category_id, average_rating, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,18 +46,47 @@ public class Service {
 
     private String imageUrl;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
+    @ToString.Exclude
     private Category category;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "provider_id")
+    @ToString.Exclude
     private User provider;
 
     @Column(nullable = false)
     private Boolean active = true;
 
+    // Денормализованный средний рейтинг из rating_aggregates для сортировки каталога по индексу
+    @ColumnDefault("0")
+    @Column(name = "average_rating", nullable = false)
+    private Double averageRating = 0.0;
+
+    // Версия строки: оптимистическая блокировка и ETag для кэширования по HTTP
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "service", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
     private Set<Order> orders = new HashSet<>();
-}
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Service) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClass(this).hashCode();
+    }
+}
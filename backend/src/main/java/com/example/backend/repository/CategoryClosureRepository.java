@@ -0,0 +1,62 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    boolean existsByAncestorIdAndDepthGreaterThan(Long ancestorId, int depth);
+
+    long countByDepth(int depth);
+
+    // Пути от предков родителя (и самого родителя) к новой категории
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT ancestor_id, :id, depth + 1 FROM category_closure WHERE descendant_id = :parentId",
+            nativeQuery = true)
+    int insertPathsFromParent(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    // Отрывает поддерево от прежних предков, пути внутри поддерева остаются
+    @Modifying
+    @Query(value = "DELETE FROM category_closure " +
+            "WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :id) " +
+            "AND ancestor_id NOT IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :id)",
+            nativeQuery = true)
+    int detachSubtree(@Param("id") Long id);
+
+    // Подвешивает поддерево к новому родителю: каждый предок родителя × каждый узел поддерева
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth + 1 " +
+            "FROM category_closure p CROSS JOIN category_closure s " +
+            "WHERE p.descendant_id = :parentId AND s.ancestor_id = :id",
+            nativeQuery = true)
+    int attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query("DELETE FROM CategoryClosure c WHERE c.descendantId = :id")
+    int deleteByDescendant(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM CategoryClosure c")
+    int deleteAllPaths();
+
+    // Число активных услуг во всём поддереве по счётчикам категорий — один запрос по индексу
+    @Query("SELECT COALESCE(SUM(cat.activeServiceCount), 0) FROM CategoryClosure c, Category cat " +
+            "WHERE c.ancestorId = :id AND cat.id = c.descendantId")
+    long sumActiveServiceCountInSubtree(@Param("id") Long id);
+
+    @Query("SELECT c.ancestorId, COALESCE(SUM(cat.activeServiceCount), 0) FROM CategoryClosure c, Category cat " +
+            "WHERE c.ancestorId IN :ids AND cat.id = c.descendantId GROUP BY c.ancestorId")
+    List<Object[]> sumActiveServiceCountInSubtrees(@Param("ids") Collection<Long> ids);
+}
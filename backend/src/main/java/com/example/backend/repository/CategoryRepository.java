@@ -2,9 +2,27 @@ package com.example.backend.repository;
 
 import com.example.backend.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    // Счётчик входит в карточку категории, поэтому меняет и её версию
+    @Modifying
+    @Query("UPDATE Category c SET c.activeServiceCount = c.activeServiceCount + :delta, c.version = c.version + 1 " +
+            "WHERE c.id = :id")
+    int adjustActiveServiceCount(@Param("id") Long id, @Param("delta") long delta);
+
+    // Версия меняется только у категорий, где счётчик разошёлся
+    @Modifying
+    @Query("UPDATE Category c SET c.activeServiceCount = " +
+            "(SELECT COUNT(s) FROM Service s WHERE s.category.id = c.id AND s.active = true), " +
+            "c.version = c.version + 1 " +
+            "WHERE c.activeServiceCount <> " +
+            "(SELECT COUNT(s) FROM Service s WHERE s.category.id = c.id AND s.active = true)")
+    int reconcileActiveServiceCounts();
 }
 
@@ -0,0 +1,38 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChangeLogEntryRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    @Query("SELECT e FROM ChangeLogEntry e WHERE e.entityType IN :types " +
+            "AND e.sequence > :since AND e.sequence <= :upTo ORDER BY e.sequence")
+    List<ChangeLogEntry> findChanges(@Param("types") Collection<ChangeLogEntry.EntityType> types,
+                                     @Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+
+    @Query("SELECT e FROM ChangeLogEntry e WHERE e.entityType = com.example.backend.model.ChangeLogEntry$EntityType.ORDER " +
+            "AND (e.customerId = :userId OR e.providerId = :userId) " +
+            "AND e.sequence > :since AND e.sequence <= :upTo ORDER BY e.sequence")
+    List<ChangeLogEntry> findOrderChanges(@Param("userId") Long userId, @Param("since") long since,
+                                          @Param("upTo") long upTo, Pageable pageable);
+
+    @Query("SELECT MIN(e.sequence) FROM ChangeLogEntry e")
+    Long findOldestSequence();
+
+    @Query("SELECT MAX(e.sequence) FROM ChangeLogEntry e")
+    Long findLatestSequence();
+
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry e WHERE e.changedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
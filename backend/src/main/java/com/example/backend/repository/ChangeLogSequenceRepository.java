@@ -0,0 +1,19 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.ChangeLogSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeLogSequenceRepository extends JpaRepository<ChangeLogSequence, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ChangeLogSequence s WHERE s.id = :id")
+    Optional<ChangeLogSequence> findForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,18 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.DispatchDecision;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DispatchDecisionRepository extends JpaRepository<DispatchDecision, Long> {
+
+    List<DispatchDecision> findByOrderIdOrderByIdAsc(Long orderId);
+
+    @Query("SELECT d FROM DispatchDecision d ORDER BY d.id DESC")
+    List<DispatchDecision> findLatest(Pageable pageable);
+}
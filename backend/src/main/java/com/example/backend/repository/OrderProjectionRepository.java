@@ -0,0 +1,17 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.OrderDto;
+import com.example.backend.dto.OrderQuery;
+import com.example.backend.model.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrderProjectionRepository {
+
+    /**
+     * Первые {@code limit} заказов по {@code spec} сразу в виде {@link OrderDto}: один запрос
+     * только с нужными колонками и именами клиента, исполнителя и услуги, без загрузки сущностей.
+     */
+    List<OrderDto> findOrderDtos(Specification<Order> spec, OrderQuery.SortOrder sortOrder, int limit);
+}
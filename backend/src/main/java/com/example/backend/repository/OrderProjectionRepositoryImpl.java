@@ -0,0 +1,63 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.OrderDto;
+import com.example.backend.dto.OrderQuery;
+import com.example.backend.model.Order;
+import com.example.backend.model.Service;
+import com.example.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class OrderProjectionRepositoryImpl implements OrderProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderDto> findOrderDtos(Specification<Order> spec, OrderQuery.SortOrder sortOrder, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderDto> query = cb.createQuery(OrderDto.class);
+        Root<Order> order = query.from(Order.class);
+        Join<Order, User> customer = order.join("customer");
+        Join<Order, Service> service = order.join("service");
+        Join<Order, User> provider = order.join("provider", JoinType.LEFT);
+
+        query.select(cb.construct(OrderDto.class,
+                order.get("id"),
+                customer.get("id"),
+                fullName(cb, customer),
+                service.get("id"),
+                service.get("name"),
+                provider.get("id"),
+                cb.<String>selectCase()
+                        .when(cb.isNull(provider.get("id")), cb.nullLiteral(String.class))
+                        .otherwise(fullName(cb, provider)),
+                order.get("scheduledDateTime"),
+                order.get("address"),
+                order.get("notes"),
+                order.get("status"),
+                order.get("totalPrice"),
+                order.get("createdAt"),
+                order.get("completedAt")));
+        Predicate predicate = spec.toPredicate(order, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(OrderSpecifications.orderFor(sortOrder, order, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static Expression<String> fullName(CriteriaBuilder cb, Join<Order, User> user) {
+        return cb.concat(cb.concat(user.get("firstName"), " "), user.get("lastName"));
+    }
+}
@@ -1,22 +1,104 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderProjectionRepository {
     @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId")
     List<Order> findByCustomerId(@Param("customerId") Long customerId);
     
     @Query("SELECT o FROM Order o WHERE o.provider.id = :providerId")
     List<Order> findByProviderId(@Param("providerId") Long providerId);
     
-    List<Order> findByStatus(Order.OrderStatus status);
     long countByStatus(Order.OrderStatus status);
-}
 
+    @Query("SELECT COALESCE(SUM(o.totalPrice), 0) FROM Order o WHERE o.status = :status")
+    BigDecimal sumTotalPriceByStatus(@Param("status") Order.OrderStatus status);
+
+    // Заказы для OrderDto: клиент, услуга и исполнитель загружаются тем же запросом
+    @EntityGraph("Order.details")
+    @Query("SELECT o FROM Order o")
+    List<Order> findAllWithDetails();
+
+    @EntityGraph("Order.details")
+    Optional<Order> findWithDetailsById(Long id);
+
+    @EntityGraph("Order.details")
+    List<Order> findWithDetailsByIdIn(Collection<Long> ids);
+
+    @EntityGraph("Order.details")
+    List<Order> findWithDetailsByCustomerId(Long customerId);
+
+    @EntityGraph("Order.details")
+    List<Order> findWithDetailsByProviderId(Long providerId);
+
+    @EntityGraph("Order.details")
+    List<Order> findWithDetailsByStatus(Order.OrderStatus status);
+
+    // startedAfter ограничивает просмотр индекса (provider_id, scheduledDateTime) снизу
+    @Query("SELECT COUNT(o) > 0 FROM Order o WHERE o.provider.id = :providerId " +
+            "AND o.status <> com.example.backend.model.Order$OrderStatus.CANCELLED " +
+            "AND o.scheduledDateTime > :startedAfter AND o.scheduledDateTime < :end " +
+            "AND o.scheduledEndDateTime > :start AND o.id <> :excludeId")
+    boolean existsOverlapping(@Param("providerId") Long providerId, @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end, @Param("startedAfter") LocalDateTime startedAfter,
+                              @Param("excludeId") Long excludeId);
+
+    // Строки [id, providerId, start, end] для индекса расписаний
+    @Query("SELECT o.id, o.provider.id, o.scheduledDateTime, o.scheduledEndDateTime FROM Order o " +
+            "WHERE o.provider IS NOT NULL AND o.status <> com.example.backend.model.Order$OrderStatus.CANCELLED " +
+            "AND o.scheduledEndDateTime > :after")
+    List<Object[]> findBookingsEndingAfter(@Param("after") LocalDateTime after);
+
+    @EntityGraph(attributePaths = "service")
+    List<Order> findByScheduledEndDateTimeIsNull();
+
+    // Keyset по (scheduledDateTime, id): диспетчер проходит очередь страницами без OFFSET
+    @EntityGraph("Order.dispatch")
+    @Query("SELECT o FROM Order o WHERE o.status = com.example.backend.model.Order$OrderStatus.PENDING " +
+            "AND (o.provider IS NULL OR o.provider.id IN :overloaded) AND o.scheduledDateTime > :now " +
+            "AND (o.scheduledDateTime > :afterTime OR (o.scheduledDateTime = :afterTime AND o.id > :afterId)) " +
+            "ORDER BY o.scheduledDateTime, o.id")
+    List<Order> findDispatchable(@Param("overloaded") Collection<Long> overloadedProviderIds,
+                                 @Param("now") LocalDateTime now, @Param("afterTime") LocalDateTime afterTime,
+                                 @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT o.provider.id, COUNT(o) FROM Order o WHERE o.provider IS NOT NULL " +
+            "AND o.status IN :statuses GROUP BY o.provider.id")
+    List<Object[]> countByProviderAndStatusIn(@Param("statuses") Collection<Order.OrderStatus> statuses);
+
+    // Условная смена статуса: 0 строк — заказ успели изменить после чтения версии
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.completedAt = :completedAt, o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.version = :version")
+    int compareAndSetStatus(@Param("id") Long id, @Param("version") Long version,
+                            @Param("status") Order.OrderStatus status,
+                            @Param("completedAt") LocalDateTime completedAt);
+
+    // Строки [id, status, version, customerId, providerId, serviceId, start, end] для пакетных операций
+    @Query("SELECT o.id, o.status, o.version, o.customer.id, p.id, o.service.id, o.scheduledDateTime, " +
+            "o.scheduledEndDateTime FROM Order o LEFT JOIN o.provider p WHERE o.id IN :ids")
+    List<Object[]> findBulkRows(@Param("ids") Collection<Long> ids);
+
+    // Строки [id, start, end] неотменённых заказов исполнителя, пересекающих [start, end)
+    @Query("SELECT o.id, o.scheduledDateTime, o.scheduledEndDateTime FROM Order o WHERE o.provider.id = :providerId " +
+            "AND o.status <> com.example.backend.model.Order$OrderStatus.CANCELLED " +
+            "AND o.scheduledDateTime > :startedAfter AND o.scheduledDateTime < :end " +
+            "AND o.scheduledEndDateTime > :start")
+    List<Object[]> findProviderBookings(@Param("providerId") Long providerId, @Param("start") LocalDateTime start,
+                                        @Param("end") LocalDateTime end,
+                                        @Param("startedAfter") LocalDateTime startedAfter);
+}
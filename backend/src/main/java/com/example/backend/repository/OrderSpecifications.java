@@ -0,0 +1,62 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.OrderQuery;
+import com.example.backend.model.Order;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> matching(OrderQuery orderQuery) {
+        Specification<Order> spec = Specification.where(null);
+        if (orderQuery.getCustomerId() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("customer").get("id"), orderQuery.getCustomerId()));
+        }
+        if (orderQuery.getProviderId() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("provider").get("id"), orderQuery.getProviderId()));
+        }
+        if (orderQuery.getServiceId() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("service").get("id"), orderQuery.getServiceId()));
+        }
+        if (orderQuery.getStatuses() != null && !orderQuery.getStatuses().isEmpty()) {
+            spec = spec.and((root, query, cb) -> root.get("status").in(orderQuery.getStatuses()));
+        }
+        if (orderQuery.getFrom() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get("scheduledDateTime"), orderQuery.getFrom()));
+        }
+        if (orderQuery.getTo() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThan(root.get("scheduledDateTime"), orderQuery.getTo()));
+        }
+        return spec;
+    }
+
+    // Условие keyset-пагинации: строки строго после последней строки предыдущей страницы
+    public static Specification<Order> after(OrderQuery.SortOrder sortOrder, LocalDateTime lastTime, Long lastId) {
+        return (root, query, cb) -> switch (sortOrder) {
+            case SCHEDULED_ASC -> cb.or(
+                    cb.greaterThan(root.get("scheduledDateTime"), lastTime),
+                    cb.and(cb.equal(root.get("scheduledDateTime"), lastTime), cb.greaterThan(root.get("id"), lastId)));
+            case SCHEDULED_DESC -> cb.or(
+                    cb.lessThan(root.get("scheduledDateTime"), lastTime),
+                    cb.and(cb.equal(root.get("scheduledDateTime"), lastTime), cb.lessThan(root.get("id"), lastId)));
+            case NEWEST -> cb.lessThan(root.get("id"), lastId);
+        };
+    }
+
+    public static List<jakarta.persistence.criteria.Order> orderFor(OrderQuery.SortOrder sortOrder, Root<Order> root,
+                                                                    CriteriaBuilder cb) {
+        return switch (sortOrder) {
+            case SCHEDULED_ASC -> List.of(cb.asc(root.get("scheduledDateTime")), cb.asc(root.get("id")));
+            case SCHEDULED_DESC -> List.of(cb.desc(root.get("scheduledDateTime")), cb.desc(root.get("id")));
+            case NEWEST -> List.of(cb.desc(root.get("id")));
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.dead = false ORDER BY e.id")
+    List<OutboxEvent> findPending(Pageable pageable);
+
+    long countByDeadFalse();
+
+    long countByDeadTrue();
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.dead = false")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, " +
+            "e.dead = CASE WHEN e.attempts + 1 >= :maxAttempts THEN true ELSE false END WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error, @Param("maxAttempts") int maxAttempts);
+}
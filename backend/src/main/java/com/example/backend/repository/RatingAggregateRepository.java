@@ -0,0 +1,34 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.RatingAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RatingAggregateRepository extends JpaRepository<RatingAggregate, Long> {
+    Optional<RatingAggregate> findByTargetTypeAndTargetId(RatingAggregate.TargetType targetType, Long targetId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM RatingAggregate a WHERE a.targetType = :targetType AND a.targetId = :targetId")
+    Optional<RatingAggregate> findForUpdate(@Param("targetType") RatingAggregate.TargetType targetType,
+                                            @Param("targetId") Long targetId);
+
+    // Пустой агрегат под первый отзыв: одновременная вставка того же ключа дождётся первой и ничего не сделает
+    @Modifying
+    @Query(value = "INSERT INTO rating_aggregates (target_type, target_id, rating_sum, rating_count, " +
+            "stars1, stars2, stars3, stars4, stars5) VALUES (:targetType, :targetId, 0, 0, 0, 0, 0, 0, 0) " +
+            "ON CONFLICT (target_type, target_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("targetType") String targetType, @Param("targetId") Long targetId);
+
+    List<RatingAggregate> findByTargetTypeAndTargetIdIn(RatingAggregate.TargetType targetType, Collection<Long> targetIds);
+}
@@ -1,15 +1,36 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Review;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    List<Review> findByProviderId(Long providerId);
-    List<Review> findByOrderServiceId(Long serviceId);
-    List<Review> findByOrderId(Long orderId);
+    boolean existsByOrderId(Long orderId);
+
+    // Отзывы для ReviewDto: исполнитель и услуга заказа загружаются тем же запросом
+    @EntityGraph("Review.details")
+    @Query("SELECT r FROM Review r")
+    List<Review> findAllWithDetails();
+
+    @EntityGraph("Review.details")
+    Optional<Review> findWithDetailsById(Long id);
+
+    @EntityGraph("Review.details")
+    List<Review> findWithDetailsByProviderId(Long providerId);
+
+    @EntityGraph("Review.details")
+    List<Review> findWithDetailsByOrderServiceId(Long serviceId);
+
+    @Query("SELECT r.order.service.id, r.rating, COUNT(r) FROM Review r GROUP BY r.order.service.id, r.rating")
+    List<Object[]> countRatingsByService();
+
+    @Query("SELECT r.provider.id, r.rating, COUNT(r) FROM Review r GROUP BY r.provider.id, r.rating")
+    List<Object[]> countRatingsByProvider();
 }
 
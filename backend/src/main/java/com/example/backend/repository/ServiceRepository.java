@@ -1,16 +1,54 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Service;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ServiceRepository extends JpaRepository<Service, Long> {
+public interface ServiceRepository extends JpaRepository<Service, Long>, JpaSpecificationExecutor<Service> {
     List<Service> findByCategoryId(Long categoryId);
     List<Service> findByProviderId(Long providerId);
+    long countByProviderId(Long providerId);
+
+    // Услуги для карточек и индексов каталога: категория и исполнитель загружаются тем же запросом
+    @EntityGraph("Service.details")
+    @Query("SELECT s FROM Service s")
+    List<Service> findAllWithDetails();
+
+    @EntityGraph("Service.details")
+    Optional<Service> findWithDetailsById(Long id);
+
+    @EntityGraph("Service.details")
+    List<Service> findWithDetailsByIdIn(Collection<Long> ids);
+
+    @EntityGraph("Service.details")
+    List<Service> findWithDetailsByProviderId(Long providerId);
+
+    @EntityGraph("Service.details")
     List<Service> findByActiveTrue();
+
+    @EntityGraph("Service.details")
     List<Service> findByCategoryIdAndActiveTrue(Long categoryId);
-}
 
+    @Modifying
+    @Query("UPDATE Service s SET s.averageRating = :averageRating, s.version = s.version + 1 WHERE s.id = :id")
+    int updateAverageRating(@Param("id") Long id, @Param("averageRating") Double averageRating);
+
+    @Modifying
+    @Query("UPDATE Service s SET s.averageRating = 0, s.version = s.version + 1")
+    int resetAverageRatings();
+
+    // Имя исполнителя входит в карточку услуги, поэтому при переименовании меняется и её версия
+    @Modifying
+    @Query("UPDATE Service s SET s.version = s.version + 1 WHERE s.provider.id = :providerId")
+    int incrementVersionsByProvider(@Param("providerId") Long providerId);
+}
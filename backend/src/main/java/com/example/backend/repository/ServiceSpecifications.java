@@ -0,0 +1,78 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.ServiceQuery;
+import com.example.backend.model.CategoryClosure;
+import com.example.backend.model.Service;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+public final class ServiceSpecifications {
+
+    private ServiceSpecifications() {
+    }
+
+    public static Specification<Service> active() {
+        return (root, query, cb) -> cb.isTrue(root.get("active"));
+    }
+
+    // Категория вместе со всеми подкатегориями — подзапрос по таблице замыкания
+    public static Specification<Service> inCategory(Long categoryId) {
+        return (root, query, cb) -> {
+            Subquery<Long> subtree = query.subquery(Long.class);
+            Root<CategoryClosure> closure = subtree.from(CategoryClosure.class);
+            subtree.select(closure.get("descendantId")).where(cb.equal(closure.get("ancestorId"), categoryId));
+            return root.get("category").get("id").in(subtree);
+        };
+    }
+
+    public static Specification<Service> priceFrom(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Service> priceTo(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Service> matching(ServiceQuery serviceQuery) {
+        Specification<Service> spec = active();
+        if (serviceQuery.getCategoryId() != null) {
+            spec = spec.and(inCategory(serviceQuery.getCategoryId()));
+        }
+        if (serviceQuery.getMinPrice() != null) {
+            spec = spec.and(priceFrom(serviceQuery.getMinPrice()));
+        }
+        if (serviceQuery.getMaxPrice() != null) {
+            spec = spec.and(priceTo(serviceQuery.getMaxPrice()));
+        }
+        return spec;
+    }
+
+    // Условие keyset-пагинации: строки строго после последней строки предыдущей страницы
+    public static Specification<Service> after(ServiceQuery.SortOrder sortOrder, Object lastValue, Long lastId) {
+        return (root, query, cb) -> switch (sortOrder) {
+            case PRICE_ASC -> cb.or(
+                    cb.greaterThan(root.get("price"), (BigDecimal) lastValue),
+                    cb.and(cb.equal(root.get("price"), lastValue), cb.greaterThan(root.get("id"), lastId)));
+            case PRICE_DESC -> cb.or(
+                    cb.lessThan(root.get("price"), (BigDecimal) lastValue),
+                    cb.and(cb.equal(root.get("price"), lastValue), cb.lessThan(root.get("id"), lastId)));
+            case RATING_DESC -> cb.or(
+                    cb.lessThan(root.get("averageRating"), (Double) lastValue),
+                    cb.and(cb.equal(root.get("averageRating"), lastValue), cb.lessThan(root.get("id"), lastId)));
+            case NEWEST -> cb.lessThan(root.get("id"), lastId);
+        };
+    }
+
+    public static Sort sortFor(ServiceQuery.SortOrder sortOrder) {
+        return switch (sortOrder) {
+            case PRICE_ASC -> Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));
+            case PRICE_DESC -> Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id"));
+            case RATING_DESC -> Sort.by(Sort.Order.desc("averageRating"), Sort.Order.desc("id"));
+            case NEWEST -> Sort.by(Sort.Order.desc("id"));
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.search;
+
+import com.example.backend.event.CategoryChangedEvent;
+import com.example.backend.event.ServiceChangedEvent;
+import com.example.backend.model.Service;
+import com.example.backend.repository.ServiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Держит in-memory индексы каталога в актуальном состоянии после коммита изменений.
+ *
+ * <p>Индексы локальны для узла, поэтому периодически пересобираются целиком — так подтягиваются
+ * изменения с других узлов, а неудачная сборка при старте не оставляет поиск пустым до перезапуска.
+ */
+@Component
+@Slf4j
+public class CatalogIndexUpdater {
+
+    private final ServiceRepository serviceRepository;
+    private final ServiceSearchIndex serviceSearchIndex;
+    private final FacetIndex facetIndex;
+    private final TransactionTemplate freshRead;
+
+    private final Object rebuildLock = new Object();
+    private volatile boolean rebuilding;
+    // Строки пересборки прочитаны раньше, поэтому изменения за время сборки применяются к индексам повторно
+    private final Queue<Long> servicesChangedDuringRebuild = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> categoriesChangedDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    public CatalogIndexUpdater(ServiceRepository serviceRepository,
+                               ServiceSearchIndex serviceSearchIndex,
+                               FacetIndex facetIndex,
+                               PlatformTransactionManager transactionManager) {
+        this.serviceRepository = serviceRepository;
+        this.serviceSearchIndex = serviceSearchIndex;
+        this.facetIndex = facetIndex;
+        // Рейтинг услуги меняется bulk-UPDATE, и сущность в контексте завершённой транзакции
+        // хранит старое значение — для индексов услуги читаются заново
+        this.freshRead = new TransactionTemplate(transactionManager);
+        this.freshRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.freshRead.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.index.rebuild-interval:PT5M}",
+            initialDelayString = "${app.search.index.rebuild-interval:PT5M}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            try {
+                rebuilding = true;
+                long started = System.currentTimeMillis();
+                List<Service> services = serviceRepository.findByActiveTrue();
+                serviceSearchIndex.rebuild(services);
+                facetIndex.rebuild(services);
+                log.info("Catalog indexes built for {} services in {} ms",
+                        services.size(), System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                log.error("Failed to build catalog indexes: ", e);
+            } finally {
+                rebuilding = false;
+                Long id;
+                while ((id = categoriesChangedDuringRebuild.poll()) != null) {
+                    refreshCategory(id);
+                }
+                while ((id = servicesChangedDuringRebuild.poll()) != null) {
+                    refreshService(id);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onServiceChanged(ServiceChangedEvent event) {
+        if (rebuilding) {
+            servicesChangedDuringRebuild.add(event.getServiceId());
+        }
+        refreshService(event.getServiceId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (rebuilding) {
+            categoriesChangedDuringRebuild.add(event.getCategoryId());
+        }
+        refreshCategory(event.getCategoryId());
+    }
+
+    private void refreshService(Long serviceId) {
+        Optional<Service> service = freshRead.execute(status ->
+                serviceRepository.findWithDetailsById(serviceId).filter(Service::getActive));
+        if (service.isPresent()) {
+            serviceSearchIndex.upsert(service.get());
+            facetIndex.upsert(service.get());
+        } else {
+            serviceSearchIndex.remove(serviceId);
+            facetIndex.remove(serviceId);
+        }
+    }
+
+    private void refreshCategory(Long categoryId) {
+        List<Service> services = freshRead.execute(status -> serviceRepository.findByCategoryIdAndActiveTrue(categoryId));
+        serviceSearchIndex.removeCategory(categoryId);
+        facetIndex.removeCategory(categoryId);
+        for (Service service : services) {
+            serviceSearchIndex.upsert(service);
+            facetIndex.upsert(service);
+        }
+    }
+}
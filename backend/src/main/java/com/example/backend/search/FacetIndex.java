@@ -0,0 +1,345 @@
+package com.example.backend.search;
+
+import com.example.backend.model.Service;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Фасетный индекс: битовые множества документов на каждое значение фасета
+// и колоночные ординалы значений для подсчёта всех фасетов за один проход
+@Component
+public class FacetIndex {
+
+    private static final int[] PRICE_BOUNDS = {1000, 2000, 5000, 10000};
+    private static final int[] DURATION_BOUNDS = {60, 120, 240};
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalsByServiceId = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final EnumMap<Facet, FacetColumn> columns = new EnumMap<>(Facet.class);
+    private long[] serviceIds = new long[256];
+    private int docCount;
+
+    public FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            columns.put(facet, new FacetColumn());
+        }
+    }
+
+    public void rebuild(Collection<Service> services) {
+        lock.writeLock().lock();
+        try {
+            ordinalsByServiceId.clear();
+            freeOrdinals.clear();
+            live.clear();
+            serviceIds = new long[256];
+            docCount = 0;
+            for (Facet facet : Facet.values()) {
+                columns.put(facet, new FacetColumn());
+            }
+            services.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Service service) {
+        lock.writeLock().lock();
+        try {
+            index(service);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = ordinalsByServiceId.remove(serviceId);
+            if (doc != null) {
+                clearDocument(doc);
+                freeOrdinals.push(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            BitSet docs = columns.get(Facet.CATEGORY).docsFor(String.valueOf(categoryId));
+            if (docs == null) {
+                return;
+            }
+            BitSet snapshot = (BitSet) docs.clone();
+            for (int doc = snapshot.nextSetBit(0); doc >= 0; doc = snapshot.nextSetBit(doc + 1)) {
+                ordinalsByServiceId.remove(serviceIds[doc]);
+                clearDocument(doc);
+                freeOrdinals.push(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Проверка документа на соответствие фильтрам (для сужения полнотекстового поиска)
+    public boolean matches(long serviceId, Map<Facet, Set<String>> filters) {
+        lock.readLock().lock();
+        try {
+            Integer doc = ordinalsByServiceId.get(serviceId);
+            if (doc == null) {
+                return false;
+            }
+            for (Map.Entry<Facet, Set<String>> filter : filters.entrySet()) {
+                if (filter.getValue() == null || filter.getValue().isEmpty()) {
+                    continue;
+                }
+                String value = columns.get(filter.getKey()).valueOf(doc);
+                if (value == null || !filter.getValue().contains(value)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Считает значения всех фасетов с учётом выбранных фильтров. Для каждого фасета
+     * учитываются фильтры остальных фасетов (дизъюнктивный фасетный поиск), поэтому
+     * документ, не прошедший ровно один фильтр, добавляется только в счётчики этого фасета.
+     *
+     * @param restrictTo если не null — учитываются только эти услуги (например, результаты поиска)
+     */
+    public FacetCounts count(Map<Facet, Set<String>> filters, long[] restrictTo) {
+        lock.readLock().lock();
+        try {
+            Facet[] facets = Facet.values();
+            BitSet[] masks = new BitSet[facets.length];
+            for (Facet facet : facets) {
+                Set<String> selected = filters.get(facet);
+                if (selected != null && !selected.isEmpty()) {
+                    masks[facet.ordinal()] = columns.get(facet).docsForAny(selected);
+                }
+            }
+
+            BitSet candidates;
+            if (restrictTo != null) {
+                candidates = new BitSet(docCount);
+                for (long serviceId : restrictTo) {
+                    Integer doc = ordinalsByServiceId.get(serviceId);
+                    if (doc != null) {
+                        candidates.set(doc);
+                    }
+                }
+            } else {
+                candidates = live;
+            }
+
+            long[][] counts = new long[facets.length][];
+            int[][] ordinals = new int[facets.length][];
+            for (Facet facet : facets) {
+                counts[facet.ordinal()] = new long[columns.get(facet).values.size()];
+                ordinals[facet.ordinal()] = columns.get(facet).ordinals;
+            }
+            int total = 0;
+            for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                int missedFacet = -1;
+                int misses = 0;
+                for (int f = 0; f < facets.length && misses < 2; f++) {
+                    if (masks[f] != null && !masks[f].get(doc)) {
+                        missedFacet = f;
+                        misses++;
+                    }
+                }
+                if (misses == 0) {
+                    total++;
+                    for (int f = 0; f < facets.length; f++) {
+                        increment(counts[f], ordinals[f][doc]);
+                    }
+                } else if (misses == 1) {
+                    increment(counts[missedFacet], ordinals[missedFacet][doc]);
+                }
+            }
+
+            Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+            for (Facet facet : facets) {
+                FacetColumn column = columns.get(facet);
+                Map<String, Long> valueCounts = new LinkedHashMap<>();
+                for (int v = 0; v < column.values.size(); v++) {
+                    if (counts[facet.ordinal()][v] > 0) {
+                        valueCounts.put(column.values.get(v), counts[facet.ordinal()][v]);
+                    }
+                }
+                result.put(facet.getKey(), valueCounts);
+            }
+            return new FacetCounts(total, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void increment(long[] counts, int valueOrdinal) {
+        if (valueOrdinal >= 0) {
+            counts[valueOrdinal]++;
+        }
+    }
+
+    private void index(Service service) {
+        Integer existing = ordinalsByServiceId.get(service.getId());
+        int doc;
+        if (existing != null) {
+            doc = existing;
+            clearDocument(doc);
+        } else {
+            doc = !freeOrdinals.isEmpty() ? freeOrdinals.pop() : docCount++;
+            ensureCapacity(doc + 1);
+            ordinalsByServiceId.put(service.getId(), doc);
+        }
+        serviceIds[doc] = service.getId();
+        live.set(doc);
+        columns.get(Facet.CATEGORY).set(doc, service.getCategory() != null
+                ? String.valueOf(service.getCategory().getId()) : null);
+        columns.get(Facet.PRICE).set(doc, priceBucket(service.getPrice()));
+        columns.get(Facet.DURATION).set(doc, durationBucket(service.getDurationMinutes()));
+        columns.get(Facet.RATING).set(doc, ratingBand(service.getAverageRating()));
+        columns.get(Facet.PROVIDER).set(doc, service.getProvider() != null
+                ? String.valueOf(service.getProvider().getId()) : null);
+    }
+
+    private void clearDocument(int doc) {
+        live.clear(doc);
+        for (FacetColumn column : columns.values()) {
+            column.clear(doc);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > serviceIds.length) {
+            int newCapacity = Math.max(capacity, serviceIds.length * 2);
+            serviceIds = Arrays.copyOf(serviceIds, newCapacity);
+            for (FacetColumn column : columns.values()) {
+                column.ensureCapacity(newCapacity);
+            }
+        }
+    }
+
+    static String priceBucket(BigDecimal price) {
+        return price != null ? bucket(price.doubleValue(), PRICE_BOUNDS) : null;
+    }
+
+    static String durationBucket(Integer durationMinutes) {
+        return durationMinutes != null ? bucket(durationMinutes, DURATION_BOUNDS) : null;
+    }
+
+    static String ratingBand(Double averageRating) {
+        if (averageRating == null || averageRating <= 0) {
+            return "unrated";
+        }
+        int lower = Math.max(1, Math.min(4, (int) Math.floor(averageRating)));
+        return lower + "-" + (lower + 1);
+    }
+
+    private static String bucket(double value, int[] bounds) {
+        int lower = 0;
+        for (int bound : bounds) {
+            if (value < bound) {
+                return lower + "-" + bound;
+            }
+            lower = bound;
+        }
+        return lower + "+";
+    }
+
+    public enum Facet {
+        CATEGORY("category"), PRICE("price"), DURATION("duration"), RATING("rating"), PROVIDER("provider");
+
+        private final String key;
+
+        Facet(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    public record FacetCounts(int total, Map<String, Map<String, Long>> facets) {
+    }
+
+    private static final class FacetColumn {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> valueOrdinals = new HashMap<>();
+        private final List<BitSet> docsByValue = new ArrayList<>();
+        private int[] ordinals = new int[256];
+
+        private FacetColumn() {
+            Arrays.fill(ordinals, -1);
+        }
+
+        private void set(int doc, String value) {
+            if (value == null) {
+                ordinals[doc] = -1;
+                return;
+            }
+            int ordinal = valueOrdinals.computeIfAbsent(value, v -> {
+                values.add(v);
+                docsByValue.add(new BitSet());
+                return values.size() - 1;
+            });
+            ordinals[doc] = ordinal;
+            docsByValue.get(ordinal).set(doc);
+        }
+
+        private void clear(int doc) {
+            if (doc < ordinals.length && ordinals[doc] >= 0) {
+                docsByValue.get(ordinals[doc]).clear(doc);
+                ordinals[doc] = -1;
+            }
+        }
+
+        private String valueOf(int doc) {
+            return ordinals[doc] >= 0 ? values.get(ordinals[doc]) : null;
+        }
+
+        private BitSet docsFor(String value) {
+            Integer ordinal = valueOrdinals.get(value);
+            return ordinal != null ? docsByValue.get(ordinal) : null;
+        }
+
+        private BitSet docsForAny(Set<String> selected) {
+            BitSet union = new BitSet();
+            for (String value : selected) {
+                BitSet docs = docsFor(value);
+                if (docs != null) {
+                    union.or(docs);
+                }
+            }
+            return union;
+        }
+
+        private void ensureCapacity(int capacity) {
+            int oldLength = ordinals.length;
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            Arrays.fill(ordinals, oldLength, capacity, -1);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.backend.search;
+
+import com.example.backend.model.Service;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+// Инвертированный индекс по названию, описанию и категории услуг с ранжированием BM25
+@Component
+public class ServiceSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_BOOST = 0.8f;
+    private static final float FUZZY_BOOST = 0.6f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Буферы размером с индекс держим только на число ядер: лишние потоки берут временный буфер,
+    // и память не растёт с размером пула веб-сервера
+    private final BlockingQueue<ScoreBuffer> scoreBuffers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> ordinalsByServiceId = new HashMap<>();
+    private final List<Map<String, Integer>> termVectors = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private long[] serviceIds = new long[256];
+    private long[] categoryIds = new long[256];
+    private int[] docLengths = new int[256];
+    private int docCount;
+    private int liveCount;
+    private long totalLength;
+
+    public void rebuild(Collection<Service> services) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Service service : services) {
+                addDocument(service.getId(), categoryIdOf(service), buildTermVector(service));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Service service) {
+        Map<String, Integer> termVector = buildTermVector(service);
+        lock.writeLock().lock();
+        try {
+            removeDocument(service.getId());
+            addDocument(service.getId(), categoryIdOf(service), termVector);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(serviceId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+                if (categoryIds[doc] == categoryId) {
+                    removeDocument(serviceIds[doc]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    public SearchResult search(String query, int limit, LongPredicate filter) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0, new long[0]);
+        }
+
+        lock.readLock().lock();
+        ScoreBuffer buffer = acquireBuffer();
+        try {
+            float[] scores = buffer.scores;
+            int[] matchedTokens = buffer.matchedTokens;
+            int[] lastToken = buffer.lastToken;
+            float avgDocLength = liveCount > 0 ? (float) totalLength / liveCount : 1f;
+
+            for (int t = 0; t < tokens.size(); t++) {
+                for (Map.Entry<String, Float> expansion : expand(tokens.get(t)).entrySet()) {
+                    Postings postings = terms.get(expansion.getKey());
+                    float idf = idf(postings.size);
+                    for (int i = 0; i < postings.size; i++) {
+                        int doc = postings.docs[i];
+                        if (!live.get(doc)) {
+                            continue;
+                        }
+                        int tf = postings.frequencies[i];
+                        float norm = K1 * (1 - B + B * docLengths[doc] / avgDocLength);
+                        if (matchedTokens[doc] == 0) {
+                            buffer.touch(doc);
+                        }
+                        scores[doc] += idf * tf * (K1 + 1) / (tf + norm) * expansion.getValue();
+                        if (lastToken[doc] != t) {
+                            lastToken[doc] = t;
+                            matchedTokens[doc]++;
+                        }
+                    }
+                }
+            }
+
+            // Документы, совпавшие с большим числом слов запроса, поднимаются выше
+            PriorityQueue<ScoredService> top = new PriorityQueue<>(
+                    (a, b) -> a.score() != b.score() ? Float.compare(a.score(), b.score())
+                            : Long.compare(b.serviceId(), a.serviceId()));
+            long[] matched = new long[buffer.touchedCount];
+            int total = 0;
+            for (int i = 0; i < buffer.touchedCount; i++) {
+                int doc = buffer.touched[i];
+                matched[i] = serviceIds[doc];
+                if (filter != null && !filter.test(serviceIds[doc])) {
+                    continue;
+                }
+                total++;
+                float score = scores[doc] * matchedTokens[doc] / tokens.size();
+                if (top.size() < limit) {
+                    top.offer(new ScoredService(serviceIds[doc], score));
+                } else if (score > top.peek().score()) {
+                    top.poll();
+                    top.offer(new ScoredService(serviceIds[doc], score));
+                }
+            }
+
+            List<ScoredService> hits = new ArrayList<>(top);
+            hits.sort((a, b) -> a.score() != b.score() ? Float.compare(b.score(), a.score())
+                    : Long.compare(a.serviceId(), b.serviceId()));
+            return new SearchResult(hits, total, matched);
+        } finally {
+            buffer.reset();
+            scoreBuffers.offer(buffer);
+            lock.readLock().unlock();
+        }
+    }
+
+    private ScoreBuffer acquireBuffer() {
+        ScoreBuffer buffer = scoreBuffers.poll();
+        return (buffer != null ? buffer : new ScoreBuffer()).ensureCapacity(docCount);
+    }
+
+    private Map<String, Float> expand(String token) {
+        Map<String, Float> expansions = new LinkedHashMap<>();
+        String stem = TextAnalyzer.stem(token);
+        if (terms.containsKey(stem)) {
+            expansions.put(stem, 1f);
+        }
+        for (String term : terms.subMap(stem, true, stem + Character.MAX_VALUE, true).keySet()) {
+            if (expansions.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            expansions.putIfAbsent(term, PREFIX_BOOST);
+        }
+        if (expansions.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            String first = stem.substring(0, 1);
+            NavigableMap<String, Postings> candidates = terms.subMap(first, true, first + Character.MAX_VALUE, true);
+            for (String term : candidates.keySet()) {
+                if (Math.abs(term.length() - stem.length()) <= maxEdits
+                        && editDistance(stem, term, maxEdits) <= maxEdits) {
+                    expansions.put(term, FUZZY_BOOST);
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (liveCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private Map<String, Integer> buildTermVector(Service service) {
+        Map<String, Integer> termVector = new HashMap<>();
+        addField(termVector, service.getName(), NAME_WEIGHT);
+        addField(termVector, service.getCategory() != null ? service.getCategory().getName() : null, CATEGORY_WEIGHT);
+        addField(termVector, service.getDescription(), DESCRIPTION_WEIGHT);
+        return termVector;
+    }
+
+    private void addField(Map<String, Integer> termVector, String text, int weight) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            termVector.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void addDocument(Long serviceId, long categoryId, Map<String, Integer> termVector) {
+        int doc = docCount++;
+        if (doc == serviceIds.length) {
+            int capacity = serviceIds.length * 2;
+            serviceIds = Arrays.copyOf(serviceIds, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : termVector.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), k -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        serviceIds[doc] = serviceId;
+        categoryIds[doc] = categoryId;
+        docLengths[doc] = length;
+        termVectors.add(termVector);
+        ordinalsByServiceId.put(serviceId, doc);
+        live.set(doc);
+        liveCount++;
+        totalLength += length;
+    }
+
+    // Удаление помечает документ мёртвым; постинги чистятся при периодическом сжатии
+    private void removeDocument(Long serviceId) {
+        Integer doc = ordinalsByServiceId.remove(serviceId);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        termVectors.set(doc, null);
+        liveCount--;
+        totalLength -= docLengths[doc];
+    }
+
+    private void compactIfNeeded() {
+        int dead = docCount - liveCount;
+        if (dead < COMPACTION_THRESHOLD || dead < liveCount) {
+            return;
+        }
+        long[] oldServiceIds = serviceIds;
+        long[] oldCategoryIds = categoryIds;
+        List<Map<String, Integer>> oldTermVectors = new ArrayList<>(termVectors);
+        BitSet oldLive = (BitSet) live.clone();
+        clear();
+        for (int doc = oldLive.nextSetBit(0); doc >= 0; doc = oldLive.nextSetBit(doc + 1)) {
+            addDocument(oldServiceIds[doc], oldCategoryIds[doc], oldTermVectors.get(doc));
+        }
+    }
+
+    private void clear() {
+        terms.clear();
+        ordinalsByServiceId.clear();
+        termVectors.clear();
+        live.clear();
+        serviceIds = new long[256];
+        categoryIds = new long[256];
+        docLengths = new int[256];
+        docCount = 0;
+        liveCount = 0;
+        totalLength = 0;
+    }
+
+    private static long categoryIdOf(Service service) {
+        return service.getCategory() != null ? service.getCategory().getId() : -1L;
+    }
+
+    // Расстояние Дамерау–Левенштейна с ранним выходом при превышении порога
+    static int editDistance(String a, String b, int maxEdits) {
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, current[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, prevPrev[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] tmp = prevPrev;
+            prevPrev = prev;
+            prev = current;
+            current = tmp;
+        }
+        return prev[b.length()];
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    // Переиспользуемые буферы счёта: после запроса обнуляются только затронутые документы
+    private static final class ScoreBuffer {
+        private float[] scores = new float[0];
+        private int[] matchedTokens = new int[0];
+        private int[] lastToken = new int[0];
+        private int[] touched = new int[16];
+        private int touchedCount;
+
+        private ScoreBuffer ensureCapacity(int capacity) {
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+                matchedTokens = new int[capacity];
+                lastToken = new int[capacity];
+                Arrays.fill(lastToken, -1);
+            }
+            return this;
+        }
+
+        private void touch(int doc) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = doc;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                scores[doc] = 0;
+                matchedTokens[doc] = 0;
+                lastToken[doc] = -1;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    public record ScoredService(long serviceId, float score) {
+    }
+
+    // matchedServiceIds — все совпадения по тексту до применения фильтра, totalHits — после
+    public record SearchResult(List<ScoredService> hits, int totalHits, long[] matchedServiceIds) {
+    }
+}
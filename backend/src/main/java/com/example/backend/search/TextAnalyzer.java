@@ -0,0 +1,74 @@
+package com.example.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Токенизация и лёгкий стемминг для русского и английского текста
+public final class TextAnalyzer {
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final String[] RUSSIAN_SUFFIXES = {
+            "иями", "ями", "ами", "иях", "ого", "его", "ому", "ему", "ыми", "ими",
+            "ией", "ий", "ый", "ой", "ая", "яя", "ое", "ее", "ые", "ие", "ых", "их",
+            "ую", "юю", "ов", "ев", "ей", "ам", "ям", "ах", "ях", "ом", "ем", "ию", "ия",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"
+    };
+
+    private static final String[] ENGLISH_SUFFIXES = {
+            "ings", "ing", "ies", "ed", "es", "ly", "s"
+    };
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            terms.add(stem(token));
+        }
+        return terms;
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    public static String stem(String token) {
+        String[] suffixes = isCyrillic(token) ? RUSSIAN_SUFFIXES : ENGLISH_SUFFIXES;
+        for (String suffix : suffixes) {
+            if (token.endsWith(suffix) && token.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                return token.substring(0, token.length() - suffix.length());
+            }
+        }
+        return token;
+    }
+
+    private static boolean isCyrillic(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.UnicodeBlock.of(token.charAt(i)) == Character.UnicodeBlock.CYRILLIC) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.backend.service;
 
+import com.example.backend.cache.CacheInvalidator;
 import com.example.backend.dto.AdminStatsDto;
 import com.example.backend.dto.CreateOrderRequest;
+import com.example.backend.dto.CursorPageDto;
 import com.example.backend.dto.OrderDto;
+import com.example.backend.dto.OrderQuery;
 import com.example.backend.dto.ServiceDto;
 import com.example.backend.dto.UserDto;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.OrdersChangedEvent;
+import com.example.backend.event.ServiceChangedEvent;
 import com.example.backend.model.Category;
 import com.example.backend.model.Order;
 import com.example.backend.model.User;
@@ -15,12 +21,13 @@ import com.example.backend.repository.UserRepository;
 import com.example.backend.service.OrderService;
 import com.example.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +44,9 @@ public class AdminService {
     private final UserService userService;
     private final OrderService orderService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheInvalidator cacheInvalidator;
+    private final CategoryCounterService categoryCounterService;
 
     public AdminStatsDto getStatistics() {
         AdminStatsDto stats = new AdminStatsDto();
@@ -64,10 +74,7 @@ public class AdminService {
         stats.setCancelledOrders(cancelledOrders);
 
 
-        BigDecimal totalRevenue = orderRepository.findAll().stream()
-                .filter(order -> order.getStatus() == Order.OrderStatus.COMPLETED)
-                .map(Order::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalRevenue = orderRepository.sumTotalPriceByStatus(Order.OrderStatus.COMPLETED);
         stats.setTotalRevenue(totalRevenue);
 
         Map<String, Long> ordersByStatus = new HashMap<>();
@@ -98,6 +105,7 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setActive(active);
         user = userRepository.save(user);
+        cacheInvalidator.userChanged(user, false);
         return convertUserToDto(user);
     }
 
@@ -107,26 +115,27 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setRole(role);
         user = userRepository.save(user);
+        cacheInvalidator.userChanged(user, false);
         return convertUserToDto(user);
     }
 
     @Transactional
-    @CacheEvict(value = "users", allEntries = true)
     public void deleteUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new RuntimeException("User not found");
-        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        List<Order> orders = new ArrayList<>(user.getOrders());
         userRepository.deleteById(userId);
+        cacheInvalidator.userChanged(user, false);
+        cacheInvalidator.ordersDeleted(orders);
     }
 
     @Transactional
-    @CacheEvict(value = "users", allEntries = true)
     public UserDto createUser(UserDto userDto) {
         return userService.createUser(userDto);
     }
 
     public List<ServiceDto> getAllServices() {
-        return serviceRepository.findAll().stream()
+        return serviceRepository.findAllWithDetails().stream()
                 .map(this::convertServiceToDto)
                 .collect(Collectors.toList());
     }
@@ -135,22 +144,31 @@ public class AdminService {
     public ServiceDto updateServiceStatus(Long serviceId, Boolean active) {
         com.example.backend.model.Service service = serviceRepository.findById(serviceId)
                 .orElseThrow(() -> new RuntimeException("Service not found"));
+        boolean wasActive = service.getActive();
         service.setActive(active);
         service = serviceRepository.save(service);
+        categoryCounterService.serviceChanged(service.getCategory().getId(), wasActive,
+                service.getCategory().getId(), service.getActive());
+        eventPublisher.publishEvent(new ServiceChangedEvent(serviceId));
         return convertServiceToDto(service);
     }
 
     @Transactional
-    @CacheEvict(value = "services", allEntries = true)
     public void deleteService(Long serviceId) {
-        if (!serviceRepository.existsById(serviceId)) {
-            throw new RuntimeException("Service not found");
-        }
+        com.example.backend.model.Service service = serviceRepository.findById(serviceId)
+                .orElseThrow(() -> new RuntimeException("Service not found"));
+        // Заказы услуги удаляются каскадом, клиентам они должны прийти как удалённые
+        List<Order> orders = new ArrayList<>(service.getOrders());
+        eventPublisher.publishEvent(new OrdersChangedEvent(orders.stream()
+                .map(order -> OrderChangedEvent.of(order, true))
+                .collect(Collectors.toList())));
         serviceRepository.deleteById(serviceId);
+        cacheInvalidator.ordersDeleted(orders);
+        categoryCounterService.serviceChanged(service.getCategory().getId(), service.getActive(), null, false);
+        eventPublisher.publishEvent(new ServiceChangedEvent(serviceId));
     }
 
     @Transactional
-    @CacheEvict(value = "services", allEntries = true)
     public ServiceDto createService(ServiceDto serviceDto) {
         Category category = categoryRepository.findById(serviceDto.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
@@ -171,35 +189,32 @@ public class AdminService {
         }
 
         service = serviceRepository.save(service);
+        categoryCounterService.serviceChanged(null, false, category.getId(), service.getActive());
+        eventPublisher.publishEvent(new ServiceChangedEvent(service.getId()));
         return convertServiceToDto(service);
     }
 
     public List<OrderDto> getAllOrdersForAdmin() {
-        return orderRepository.findAll().stream()
+        return orderRepository.findAllWithDetails().stream()
                 .map(this::convertOrderToDto)
                 .collect(Collectors.toList());
     }
 
+    public CursorPageDto<OrderDto> getOrdersPage(OrderQuery orderQuery) {
+        return orderService.getOrdersPage(orderQuery);
+    }
+
     @Transactional
     public OrderDto updateOrderStatusByAdmin(Long orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        order.setStatus(status);
-        if (status == Order.OrderStatus.COMPLETED) {
-            order.setCompletedAt(java.time.LocalDateTime.now());
-        }
-        order = orderRepository.save(order);
-        return convertOrderToDto(order);
+        return orderService.updateOrderStatus(orderId, status, null);
     }
 
     @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
     public void deleteOrder(Long orderId) {
         orderService.deleteOrder(orderId);
     }
 
     @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
     public OrderDto createOrder(CreateOrderRequest request, Long customerId) {
         return orderService.createOrder(customerId, request);
     }
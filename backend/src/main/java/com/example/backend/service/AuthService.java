@@ -1,5 +1,6 @@
 package com.example.backend.service;
 
+import com.example.backend.cache.CacheInvalidator;
 import com.example.backend.dto.AuthRequest;
 import com.example.backend.dto.AuthResponse;
 import com.example.backend.dto.RegisterRequest;
@@ -27,6 +28,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final CacheInvalidator cacheInvalidator;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -48,6 +50,7 @@ public class AuthService {
         user.setActive(true);
 
         user = userRepository.save(user);
+        cacheInvalidator.userChanged(user, false);
         log.info("User registered successfully: {}", user.getUsername());
 
         String token = jwtTokenProvider.generateToken(
@@ -0,0 +1,356 @@
+package com.example.backend.service;
+
+import com.example.backend.booking.BookingEngine;
+import com.example.backend.cache.CacheInvalidator;
+import com.example.backend.dto.BulkOrderItemDto;
+import com.example.backend.dto.BulkOrderResultDto;
+import com.example.backend.dto.OrderEvent;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.OrdersChangedEvent;
+import com.example.backend.kafka.OutboxPublisher;
+import com.example.backend.model.Order;
+import com.example.backend.model.User;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовые операции над заказами: смена статуса, отмена и переназначение исполнителя.
+ *
+ * <p>Заказы обрабатываются пачками по {@code chunk-size}, каждая в своей транзакции: пачка читается
+ * одним запросом, изменения применяются JDBC-батчем условных UPDATE по версии, события пишутся
+ * в outbox и журнал изменений одним батчем, а уведомления сводятся в одно на пользователя. Результат возвращается
+ * по каждому заказу; ошибка пачки помечает неуспешными только её заказы.
+ */
+@Service
+@Slf4j
+public class BulkOrderService {
+
+    private static final String UPDATE_STATUS =
+            "UPDATE orders SET status = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String COMPLETE =
+            "UPDATE orders SET status = ?, completed_at = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String REASSIGN =
+            "UPDATE orders SET provider_id = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final Set<Order.OrderStatus> REASSIGNABLE =
+            EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final BookingEngine bookingEngine;
+    private final OutboxPublisher outboxPublisher;
+    private final NotificationService notificationService;
+    private final CacheInvalidator cacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.orders.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.orders.bulk.max-items:5000}")
+    private int maxItems;
+
+    public BulkOrderService(OrderRepository orderRepository,
+                            UserRepository userRepository,
+                            BookingEngine bookingEngine,
+                            OutboxPublisher outboxPublisher,
+                            NotificationService notificationService,
+                            CacheInvalidator cacheInvalidator,
+                            ApplicationEventPublisher eventPublisher,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.bookingEngine = bookingEngine;
+        this.outboxPublisher = outboxPublisher;
+        this.notificationService = notificationService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private record Row(Long id, Order.OrderStatus status, Long version, Long customerId, Long providerId,
+                       Long serviceId, LocalDateTime start, LocalDateTime end) {
+
+        static Row of(Object[] row) {
+            return new Row((Long) row[0], (Order.OrderStatus) row[1], (Long) row[2], (Long) row[3], (Long) row[4],
+                    (Long) row[5], (LocalDateTime) row[6], (LocalDateTime) row[7]);
+        }
+    }
+
+    /**
+     * Смена статуса исполнителем ({@code providerId} задан) или администратором ({@code providerId == null})
+     * по тем же правилам переходов, что и для одного заказа. Возобновление отменённых заказов требует
+     * брони времени и делается поштучно.
+     */
+    public BulkOrderResultDto changeStatus(List<Long> orderIds, Order.OrderStatus target, Long providerId) {
+        if (target == null) {
+            throw new RuntimeException("Invalid bulk request: status is required");
+        }
+        return process(orderIds, chunk -> changeStatusChunk(chunk, target, providerId));
+    }
+
+    public BulkOrderResultDto cancel(List<Long> orderIds, Long providerId) {
+        return changeStatus(orderIds, Order.OrderStatus.CANCELLED, providerId);
+    }
+
+    /**
+     * Переназначение ожидающих и подтверждённых заказов исполнителю. Время всех заказов пачки
+     * проверяется одной выборкой его броней; заказы, на чьё время он занят, не переносятся.
+     */
+    public BulkOrderResultDto reassign(List<Long> orderIds, Long newProviderId) {
+        User provider = newProviderId != null ? userRepository.findById(newProviderId).orElse(null) : null;
+        if (provider == null || provider.getRole() != User.Role.PROVIDER || !Boolean.TRUE.equals(provider.getActive())) {
+            throw new RuntimeException("Provider not found");
+        }
+        return process(orderIds, chunk -> reassignChunk(chunk, newProviderId));
+    }
+
+    private BulkOrderResultDto process(List<Long> orderIds,
+                                       Function<List<Long>, Map<Long, BulkOrderItemDto>> chunkAction) {
+        List<Long> ids = orderIds == null ? List.of()
+                : new ArrayList<>(orderIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new)));
+        if (ids.isEmpty() || ids.size() > maxItems) {
+            throw new RuntimeException("Invalid bulk request: 1 to " + maxItems + " order ids are required");
+        }
+
+        Map<Long, BulkOrderItemDto> results = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            try {
+                results.putAll(transactionTemplate.execute(status -> chunkAction.apply(chunk)));
+            } catch (RuntimeException e) {
+                log.warn("Bulk order batch of {} orders failed: {}", chunk.size(), e.getMessage());
+                chunk.forEach(id -> results.put(id, failed(id, "Bulk batch failed: " + e.getMessage())));
+            }
+        }
+
+        List<BulkOrderItemDto> items = new ArrayList<>(ids.size());
+        int changed = 0;
+        int unchanged = 0;
+        for (Long id : ids) {
+            BulkOrderItemDto item = results.get(id);
+            items.add(item);
+            if (item.getOutcome() == BulkOrderItemDto.Outcome.CHANGED) {
+                changed++;
+            } else if (item.getOutcome() == BulkOrderItemDto.Outcome.UNCHANGED) {
+                unchanged++;
+            }
+        }
+        return new BulkOrderResultDto(ids.size(), changed, unchanged, ids.size() - changed - unchanged, items);
+    }
+
+    private Map<Long, BulkOrderItemDto> changeStatusChunk(List<Long> chunk, Order.OrderStatus target, Long providerId) {
+        boolean byAdmin = providerId == null;
+        Map<Long, BulkOrderItemDto> results = new HashMap<>();
+        Map<Long, Row> rows = loadRows(chunk);
+        List<Row> accepted = new ArrayList<>();
+        for (Long id : chunk) {
+            Row row = rows.get(id);
+            String error = null;
+            if (row == null) {
+                error = "Order not found";
+            } else if (providerId != null && row.providerId() != null && !row.providerId().equals(providerId)) {
+                error = "Provider can only update status of their own orders";
+            } else if (row.status() == target) {
+                results.put(id, item(row, BulkOrderItemDto.Outcome.UNCHANGED, row.status(), row.providerId()));
+                continue;
+            } else if (row.status() == Order.OrderStatus.CANCELLED) {
+                error = "Cancelled orders cannot be reopened in bulk";
+            } else if (!row.status().canTransitionTo(target, byAdmin)) {
+                error = "Invalid order status transition from " + row.status() + " to " + target;
+            }
+            if (error != null) {
+                results.put(id, failed(id, error));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(accepted.size());
+        for (Row row : accepted) {
+            args.add(target == Order.OrderStatus.COMPLETED
+                    ? new Object[]{target.name(), Timestamp.valueOf(now), row.id(), row.version()}
+                    : new Object[]{target.name(), row.id(), row.version()});
+        }
+        int[] counts = args.isEmpty() ? new int[0]
+                : jdbcTemplate.batchUpdate(target == Order.OrderStatus.COMPLETED ? COMPLETE : UPDATE_STATUS, args);
+        List<Row> changed = applied(accepted, counts, results);
+        changed.forEach(row -> results.put(row.id(), item(row, BulkOrderItemDto.Outcome.CHANGED, target, row.providerId())));
+        if (changed.isEmpty()) {
+            return results;
+        }
+
+        Set<Order.OrderStatus> statuses = changed.stream().map(Row::status).collect(Collectors.toCollection(HashSet::new));
+        statuses.add(target);
+        cacheInvalidator.ordersChanged(ids(changed), customers(changed), providers(changed), statuses);
+        List<OrderChangedEvent> changes = new ArrayList<>(changed.size());
+        List<OrderEvent> events = new ArrayList<>(changed.size());
+        for (Row row : changed) {
+            changes.add(new OrderChangedEvent(row.id(), row.customerId(), row.providerId(), false));
+            events.add(new OrderEvent(row.id(), row.customerId(), row.serviceId(), target, now,
+                    "Order status updated to " + target));
+        }
+        eventPublisher.publishEvent(new OrdersChangedEvent(changes));
+        outboxPublisher.publishOrderEvents(events);
+
+        notifyGrouped(changed, Row::customerId, "ORDER_STATUS_UPDATED", "Order Status Updated",
+                "Your order status has been updated to " + target,
+                count -> count + " of your orders have been updated to " + target);
+        // Исполнитель отменяет сам и знает об этом; об отмене администратором сообщаем исполнителям
+        if (target == Order.OrderStatus.CANCELLED && byAdmin) {
+            notifyGrouped(changed, Row::providerId, "ORDER_CANCELLED", "Order Cancelled",
+                    "Your order has been cancelled",
+                    count -> count + " of your orders have been cancelled");
+        }
+        return results;
+    }
+
+    private Map<Long, BulkOrderItemDto> reassignChunk(List<Long> chunk, Long newProviderId) {
+        Map<Long, BulkOrderItemDto> results = new HashMap<>();
+        Map<Long, Row> rows = loadRows(chunk);
+        List<Row> candidates = new ArrayList<>();
+        for (Long id : chunk) {
+            Row row = rows.get(id);
+            if (row == null) {
+                results.put(id, failed(id, "Order not found"));
+            } else if (newProviderId.equals(row.providerId())) {
+                results.put(id, item(row, BulkOrderItemDto.Outcome.UNCHANGED, row.status(), row.providerId()));
+            } else if (!REASSIGNABLE.contains(row.status())) {
+                results.put(id, failed(id, "Only pending or confirmed orders can be reassigned"));
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        List<BookingEngine.Visit> visits = new ArrayList<>(candidates.size());
+        for (Row row : candidates) {
+            LocalDateTime end = row.end() != null ? row.end() : row.start().plusMinutes(Order.DEFAULT_DURATION_MINUTES);
+            visits.add(new BookingEngine.Visit(row.id(), row.start(), end));
+        }
+        Set<Long> busy = bookingEngine.reserveAll(newProviderId, visits);
+        List<Row> accepted = new ArrayList<>(candidates.size());
+        List<Object[]> args = new ArrayList<>(candidates.size());
+        for (Row row : candidates) {
+            if (busy.contains(row.id())) {
+                results.put(row.id(), failed(row.id(), "Provider is not available at the requested time"));
+            } else {
+                accepted.add(row);
+                args.add(new Object[]{newProviderId, row.id(), row.version()});
+            }
+        }
+        int[] counts = args.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(REASSIGN, args);
+        List<Row> changed = applied(accepted, counts, results);
+        changed.forEach(row -> results.put(row.id(), item(row, BulkOrderItemDto.Outcome.CHANGED, row.status(), newProviderId)));
+        if (changed.isEmpty()) {
+            return results;
+        }
+
+        Set<Long> providers = providers(changed);
+        providers.add(newProviderId);
+        cacheInvalidator.ordersChanged(ids(changed), customers(changed), providers,
+                changed.stream().map(Row::status).collect(Collectors.toSet()));
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderChangedEvent> changes = new ArrayList<>(changed.size() * 2);
+        List<OrderEvent> events = new ArrayList<>(changed.size());
+        for (Row row : changed) {
+            changes.add(new OrderChangedEvent(row.id(), row.customerId(), newProviderId, false));
+            if (row.providerId() != null) {
+                changes.add(new OrderChangedEvent(row.id(), row.customerId(), row.providerId(), false));
+            }
+            events.add(new OrderEvent(row.id(), row.customerId(), row.serviceId(), row.status(), now,
+                    "Order assigned to provider " + newProviderId));
+        }
+        eventPublisher.publishEvent(new OrdersChangedEvent(changes));
+        outboxPublisher.publishOrderEvents(events);
+
+        notifyGrouped(changed, row -> newProviderId, "NEW_ORDER", "New Order",
+                "You have a new order", count -> "You have " + count + " new orders");
+        notifyGrouped(changed, Row::providerId, "ORDER_REASSIGNED", "Order Reassigned",
+                "Your order has been reassigned to another provider",
+                count -> count + " of your orders have been reassigned to another provider");
+        return results;
+    }
+
+    private Map<Long, Row> loadRows(List<Long> ids) {
+        Map<Long, Row> rows = new HashMap<>();
+        for (Object[] row : orderRepository.findBulkRows(ids)) {
+            Row parsed = Row.of(row);
+            rows.put(parsed.id(), parsed);
+        }
+        return rows;
+    }
+
+    // Строки, которые батч обновил; 0 строк — заказ изменили после чтения пачки
+    private static List<Row> applied(List<Row> accepted, int[] counts, Map<Long, BulkOrderItemDto> results) {
+        List<Row> changed = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            Row row = accepted.get(i);
+            if (counts[i] == 0) {
+                results.put(row.id(), failed(row.id(), "Order was modified concurrently, please retry"));
+            } else {
+                changed.add(row);
+            }
+        }
+        return changed;
+    }
+
+    /** Одно уведомление на пользователя: текст для одного заказа или сводка по числу заказов */
+    private void notifyGrouped(List<Row> rows, Function<Row, Long> recipient, String type, String title,
+                               String single, Function<Integer, String> summary) {
+        Map<Long, Integer> counts = new TreeMap<>();
+        for (Row row : rows) {
+            Long userId = recipient.apply(row);
+            if (userId != null) {
+                counts.merge(userId, 1, Integer::sum);
+            }
+        }
+        counts.forEach((userId, count) ->
+                notificationService.notifyAfterCommit(userId, type, title, count == 1 ? single : summary.apply(count)));
+    }
+
+    private static List<Long> ids(List<Row> rows) {
+        return rows.stream().map(Row::id).collect(Collectors.toList());
+    }
+
+    private static Set<Long> customers(List<Row> rows) {
+        return rows.stream().map(Row::customerId).collect(Collectors.toSet());
+    }
+
+    private static Set<Long> providers(List<Row> rows) {
+        return rows.stream().map(Row::providerId).filter(Objects::nonNull).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static BulkOrderItemDto item(Row row, BulkOrderItemDto.Outcome outcome, Order.OrderStatus status,
+                                         Long providerId) {
+        return new BulkOrderItemDto(row.id(), outcome, status, providerId, null);
+    }
+
+    private static BulkOrderItemDto failed(Long id, String error) {
+        return new BulkOrderItemDto(id, BulkOrderItemDto.Outcome.FAILED, null, null, error);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.backend.service;
+
+import com.example.backend.cache.CacheInvalidator;
+import com.example.backend.cache.CacheRefreshScheduler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Регистрирует горячие ключи и прогревает их до того, как узел станет готов.
+// Услуги и категории читаются из снимка каталога и в кэше не хранятся
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupRunner {
+
+    private final CacheRefreshScheduler cacheRefreshScheduler;
+    private final UserService userService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        cacheRefreshScheduler.registerRefresher(CacheInvalidator.USERS, key -> {
+            if (CacheInvalidator.ALL_KEY.equals(key)) {
+                userService.refreshAllUsers();
+            } else if (key.startsWith(CacheInvalidator.USERNAME_KEY_PREFIX)) {
+                // /users/me кэшируется по имени пользователя
+                userService.refreshUserByUsername(key.substring(CacheInvalidator.USERNAME_KEY_PREFIX.length()));
+            } else {
+                userService.refreshUserById(Long.valueOf(key));
+            }
+        });
+
+        cacheRefreshScheduler.registerWarmupKey(CacheInvalidator.USERS, CacheInvalidator.ALL_KEY);
+
+        cacheRefreshScheduler.warmUp();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+/**
+ * Число активных услуг в категории хранится в самой категории и меняется
+ * вместе с услугой в той же транзакции, а не пересчитывается при каждом чтении.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryCounterService {
+
+    private final CategoryRepository categoryRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Переход услуги из состояния (previousCategoryId, wasActive) в (categoryId, active).
+     * Для новой услуги previousCategoryId = null, для удалённой categoryId = null.
+     */
+    @Transactional
+    public void serviceChanged(Long previousCategoryId, boolean wasActive, Long categoryId, boolean active) {
+        Long from = wasActive ? previousCategoryId : null;
+        Long to = active ? categoryId : null;
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        if (from != null) {
+            categoryRepository.adjustActiveServiceCount(from, -1);
+        }
+        if (to != null) {
+            categoryRepository.adjustActiveServiceCount(to, 1);
+        }
+    }
+
+    // Сверка счётчиков одним UPDATE: при первом запуске заполняет их, дальше исправляет расхождения
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        try {
+            Integer fixed = new TransactionTemplate(transactionManager)
+                    .execute(status -> categoryRepository.reconcileActiveServiceCounts());
+            if (fixed != null && fixed > 0) {
+                log.info("Reconciled active service counters for {} categories", fixed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to reconcile category service counters: ", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Category;
+import com.example.backend.model.CategoryClosure;
+import com.example.backend.repository.CategoryClosureRepository;
+import com.example.backend.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Поддерживает таблицу замыкания дерева категорий при создании, переносе и удалении категорий.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryHierarchyService {
+
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final CategoryRepository categoryRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    public void validateParent(Long parentId) {
+        if (parentId != null && !categoryRepository.existsById(parentId)) {
+            throw new RuntimeException("Parent category not found");
+        }
+    }
+
+    @Transactional
+    public void attach(Category category) {
+        categoryClosureRepository.save(new CategoryClosure(category.getId(), category.getId(), 0));
+        if (category.getParentId() != null) {
+            categoryClosureRepository.insertPathsFromParent(category.getId(), category.getParentId());
+        }
+    }
+
+    @Transactional
+    public void move(Long categoryId, Long newParentId) {
+        if (newParentId != null && categoryClosureRepository.existsByAncestorIdAndDescendantId(categoryId, newParentId)) {
+            throw new RuntimeException("Invalid category parent: a category cannot be moved into its own subtree");
+        }
+        categoryClosureRepository.detachSubtree(categoryId);
+        if (newParentId != null) {
+            categoryClosureRepository.attachSubtree(categoryId, newParentId);
+        }
+    }
+
+    @Transactional
+    public void remove(Long categoryId) {
+        if (categoryClosureRepository.existsByAncestorIdAndDepthGreaterThan(categoryId, 0)) {
+            throw new RuntimeException("Category has subcategories");
+        }
+        categoryClosureRepository.deleteByDescendant(categoryId);
+    }
+
+    public long getSubtreeServiceCount(Long categoryId) {
+        return categoryClosureRepository.sumActiveServiceCountInSubtree(categoryId);
+    }
+
+    public Map<Long, Long> getSubtreeServiceCounts(Collection<Long> categoryIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (categoryIds.isEmpty()) {
+            return counts;
+        }
+        for (Object[] row : categoryClosureRepository.sumActiveServiceCountInSubtrees(categoryIds)) {
+            counts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    // Категории, созданные до появления дерева, получают пути при первом запуске
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfNeeded() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                List<Category> categories = categoryRepository.findAll();
+                if (categoryClosureRepository.countByDepth(0) == categories.size()) {
+                    return;
+                }
+                categoryClosureRepository.deleteAllPaths();
+                categoryClosureRepository.saveAll(buildPaths(categories));
+                log.info("Rebuilt category closure for {} categories", categories.size());
+            });
+        } catch (Exception e) {
+            log.error("Failed to rebuild category closure: ", e);
+        }
+    }
+
+    private List<CategoryClosure> buildPaths(List<Category> categories) {
+        Map<Long, Long> parents = new HashMap<>();
+        categories.forEach(category -> parents.put(category.getId(), category.getParentId()));
+        List<CategoryClosure> paths = new ArrayList<>();
+        for (Category category : categories) {
+            Set<Long> seen = new HashSet<>();
+            Long ancestor = category.getId();
+            int depth = 0;
+            // Обрыв на отсутствующем родителе или цикле: такие категории становятся корнями
+            while (ancestor != null && parents.containsKey(ancestor) && seen.add(ancestor)) {
+                paths.add(new CategoryClosure(ancestor, category.getId(), depth++));
+                ancestor = parents.get(ancestor);
+            }
+        }
+        return paths;
+    }
+}
@@ -1,17 +1,22 @@
 package com.example.backend.service;
 
+import com.example.backend.catalog.CatalogSnapshot;
+import com.example.backend.catalog.CatalogSnapshotHolder;
 import com.example.backend.dto.CategoryDto;
+import com.example.backend.dto.CategoryTreeDto;
+import com.example.backend.event.CategoryChangedEvent;
 import com.example.backend.model.Category;
 import com.example.backend.repository.CategoryRepository;
-import com.example.backend.repository.ServiceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,35 +25,39 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
-    private final ServiceRepository serviceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogSnapshotHolder catalogSnapshotHolder;
+    private final CategoryHierarchyService categoryHierarchyService;
 
     public List<CategoryDto> getAllCategories() {
-        log.debug("Getting all categories");
-        try {
-            List<Category> allCategories = categoryRepository.findAll();
-            log.debug("Found {} categories in database", allCategories.size());
-            
-            if (allCategories.isEmpty()) {
-                log.info("No categories found in database, returning empty list");
-                return new ArrayList<>();
-            }
-            
-            List<CategoryDto> categories = allCategories.stream()
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList());
-            log.debug("Converted {} categories to DTOs", categories.size());
-            return categories;
-        } catch (Exception e) {
-            log.error("Error getting categories: ", e);
-            throw new RuntimeException("Failed to retrieve categories: " + e.getMessage(), e);
-        }
+        return catalogSnapshotHolder.current().getCategories();
     }
 
-    @Cacheable(value = "categories", key = "#id")
     public CategoryDto getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
+        return catalogSnapshotHolder.current().findCategory(id)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
-        return convertToDto(category);
+    }
+
+    public List<CategoryTreeDto> getCategoryTree() {
+        return catalogSnapshotHolder.current().getCategoryTree();
+    }
+
+    public List<CategoryDto> getSubcategories(Long id) {
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current();
+        if (!snapshot.containsCategory(id)) {
+            throw new RuntimeException("Category not found");
+        }
+        return snapshot.getChildren(id);
+    }
+
+    // Счётчики поддеревьев для всей страницы ленты изменений одним GROUP BY
+    public List<CategoryDto> getCategoriesByIds(Collection<Long> ids) {
+        List<Category> categories = categoryRepository.findAllById(ids);
+        Map<Long, Long> subtreeCounts = categoryHierarchyService.getSubtreeServiceCounts(
+                categories.stream().map(Category::getId).collect(Collectors.toList()));
+        return categories.stream()
+                .map(category -> toDto(category, subtreeCounts.getOrDefault(category.getId(), 0L)))
+                .collect(Collectors.toList());
     }
 
     @Transactional
@@ -57,7 +66,11 @@ public class CategoryService {
         category.setName(categoryDto.getName());
         category.setDescription(categoryDto.getDescription());
         category.setIcon(categoryDto.getIcon());
+        categoryHierarchyService.validateParent(categoryDto.getParentId());
+        category.setParentId(categoryDto.getParentId());
         category = categoryRepository.save(category);
+        categoryHierarchyService.attach(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
         return convertToDto(category);
     }
 
@@ -69,27 +82,46 @@ public class CategoryService {
         category.setDescription(categoryDto.getDescription());
         category.setIcon(categoryDto.getIcon());
         category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        return convertToDto(category);
+    }
+
+    // Перенос в другую ветку; parentId = null делает категорию корнем
+    @Transactional
+    public CategoryDto moveCategory(Long id, Long parentId) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Category not found"));
+        if (Objects.equals(category.getParentId(), parentId)) {
+            return convertToDto(category);
+        }
+        categoryHierarchyService.validateParent(parentId);
+        categoryHierarchyService.move(id, parentId);
+        category.setParentId(parentId);
+        category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
         return convertToDto(category);
     }
 
     @Transactional
     public void deleteCategory(Long id) {
+        categoryHierarchyService.remove(id);
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     private CategoryDto convertToDto(Category category) {
+        return toDto(category, categoryHierarchyService.getSubtreeServiceCount(category.getId()));
+    }
+
+    private CategoryDto toDto(Category category, long subtreeServiceCount) {
         CategoryDto dto = new CategoryDto();
         dto.setId(category.getId());
         dto.setName(category.getName());
         dto.setDescription(category.getDescription());
         dto.setIcon(category.getIcon());
-        try {
-            dto.setServiceCount((long) serviceRepository.findByCategoryIdAndActiveTrue(category.getId()).size());
-        } catch (Exception e) {
-            log.warn("Error counting services for category {}: {}", category.getId(), e.getMessage());
-           
-            dto.setServiceCount(0L);
-        }
+        dto.setServiceCount(category.getActiveServiceCount());
+        dto.setParentId(category.getParentId());
+        dto.setSubtreeServiceCount(subtreeServiceCount);
         return dto;
     }
 }
@@ -0,0 +1,266 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CategoryDto;
+import com.example.backend.dto.ChangeFeedDto;
+import com.example.backend.dto.ChangeSetDto;
+import com.example.backend.dto.OrderDto;
+import com.example.backend.dto.ServiceDto;
+import com.example.backend.event.CategoryChangedEvent;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.OrdersChangedEvent;
+import com.example.backend.event.ServiceChangedEvent;
+import com.example.backend.model.ChangeLogEntry;
+import com.example.backend.model.ChangeLogEntry.EntityType;
+import com.example.backend.model.ChangeLogEntry.Operation;
+import com.example.backend.model.ChangeLogSequence;
+import com.example.backend.repository.ChangeLogEntryRepository;
+import com.example.backend.repository.ChangeLogSequenceRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Журнал изменений заказов, услуг и категорий для дельта-синхронизации клиентов.
+ *
+ * <p>Записи добавляются перед коммитом той же транзакции, что меняет данные. Номер берётся
+ * из строки-счётчика под блокировкой, которая держится до коммита, поэтому номера растут
+ * в порядке коммитов и клиент, получивший номер N, не пропустит более ранний коммит.
+ * Содержимое записей отдаётся в текущем состоянии, а не в момент изменения.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeLogService {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Set<EntityType> CATALOG_TYPES = EnumSet.of(EntityType.SERVICE, EntityType.CATEGORY);
+    private static final String INSERT_ENTRY = "INSERT INTO change_log " +
+            "(seq, entity_type, entity_id, operation, customer_id, provider_id, changed_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_ENTRY_TYPES = {Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.VARCHAR,
+            Types.BIGINT, Types.BIGINT, Types.TIMESTAMP};
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final ChangeLogSequenceRepository changeLogSequenceRepository;
+    private final ServiceService serviceService;
+    private final CategoryService categoryService;
+    private final OrderService orderService;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.change-log.retention:30d}")
+    private Duration retention;
+
+    @PostConstruct
+    void initSequence() {
+        try {
+            if (!changeLogSequenceRepository.existsById(ChangeLogSequence.ID)) {
+                Long latest = changeLogEntryRepository.findLatestSequence();
+                changeLogSequenceRepository.save(new ChangeLogSequence(ChangeLogSequence.ID, latest != null ? latest : 0));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Строку уже создал другой узел
+            log.debug("Change log sequence already initialized");
+        } catch (Exception e) {
+            log.warn("Failed to initialize change log sequence: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        record(EntityType.ORDER, event.getOrderId(), event.isDeleted() ? Operation.DELETE : Operation.UPSERT,
+                event.getCustomerId(), event.getProviderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrdersChanged(OrdersChangedEvent event) {
+        recordOrders(event.getChanges());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onServiceChanged(ServiceChangedEvent event) {
+        // Деактивация и удаление различаются при чтении: в ленте каталога неактивная услуга удалена
+        record(EntityType.SERVICE, event.getServiceId(), Operation.UPSERT, null, null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        record(EntityType.CATEGORY, event.getCategoryId(), Operation.UPSERT, null, null);
+    }
+
+    @Transactional(readOnly = true)
+    public ChangeFeedDto getCatalogChanges(long since, Integer limit) {
+        long upTo = committedSequence();
+        if (resyncRequired(since, upTo)) {
+            return resync(upTo);
+        }
+        int size = pageSize(limit);
+        List<ChangeLogEntry> entries = changeLogEntryRepository.findChanges(CATALOG_TYPES, since, upTo,
+                PageRequest.of(0, size + 1));
+        boolean hasMore = entries.size() > size;
+        List<ChangeLogEntry> page = hasMore ? entries.subList(0, size) : entries;
+
+        ChangeFeedDto feed = new ChangeFeedDto(nextVersion(page, hasMore, upTo), hasMore, false, null, null, null);
+        feed.setServices(changeSet(page, EntityType.SERVICE, serviceService::getActiveServicesByIds, ServiceDto::getId));
+        feed.setCategories(changeSet(page, EntityType.CATEGORY, categoryService::getCategoriesByIds, CategoryDto::getId));
+        return feed;
+    }
+
+    /**
+     * Изменения заказов, где пользователь — заказчик или исполнитель.
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedDto getOrderChanges(Long userId, long since, Integer limit) {
+        long upTo = committedSequence();
+        if (resyncRequired(since, upTo)) {
+            return resync(upTo);
+        }
+        int size = pageSize(limit);
+        List<ChangeLogEntry> entries = changeLogEntryRepository.findOrderChanges(userId, since, upTo,
+                PageRequest.of(0, size + 1));
+        boolean hasMore = entries.size() > size;
+        List<ChangeLogEntry> page = hasMore ? entries.subList(0, size) : entries;
+
+        ChangeFeedDto feed = new ChangeFeedDto(nextVersion(page, hasMore, upTo), hasMore, false, null, null, null);
+        feed.setOrders(changeSet(page, EntityType.ORDER, ids -> visibleOrders(userId, ids), OrderDto::getId));
+        return feed;
+    }
+
+    @Scheduled(cron = "${app.change-log.prune-cron:0 30 3 * * *}")
+    @Transactional
+    public void prune() {
+        int deleted = changeLogEntryRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Pruned {} change log entries older than {}", deleted, retention);
+        }
+    }
+
+    private void record(EntityType entityType, Long entityId, Operation operation, Long customerId, Long providerId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ChangeLogEntry entry = new ChangeLogEntry();
+            entry.setSequence(reserve(1));
+            entry.setEntityType(entityType);
+            entry.setEntityId(entityId);
+            entry.setOperation(operation);
+            entry.setCustomerId(customerId);
+            entry.setProviderId(providerId);
+            changeLogEntryRepository.save(entry);
+        });
+    }
+
+    // Счётчик блокируется один раз на всю пачку, записи вставляются JDBC-батчем
+    private void recordOrders(List<OrderChangedEvent> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long first = reserve(changes.size());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> args = new ArrayList<>(changes.size());
+            for (int i = 0; i < changes.size(); i++) {
+                OrderChangedEvent change = changes.get(i);
+                Operation operation = change.isDeleted() ? Operation.DELETE : Operation.UPSERT;
+                args.add(new Object[]{first + i, EntityType.ORDER.name(), change.getOrderId(), operation.name(),
+                        change.getCustomerId(), change.getProviderId(), now});
+            }
+            jdbcTemplate.batchUpdate(INSERT_ENTRY, args, INSERT_ENTRY_TYPES);
+        });
+    }
+
+    // Занимает count номеров подряд и возвращает первый; блокировка строки держится до коммита
+    private long reserve(int count) {
+        ChangeLogSequence sequence = changeLogSequenceRepository.findForUpdate(ChangeLogSequence.ID)
+                .orElseGet(() -> changeLogSequenceRepository.saveAndFlush(
+                        new ChangeLogSequence(ChangeLogSequence.ID, 0)));
+        sequence.setLastValue(sequence.getLastValue() + count);
+        return sequence.getLastValue() - count + 1;
+    }
+
+    // Номер последнего закоммиченного изменения: все записи с меньшими номерами уже видны
+    private long committedSequence() {
+        return changeLogSequenceRepository.findById(ChangeLogSequence.ID)
+                .map(ChangeLogSequence::getLastValue)
+                .orElse(0L);
+    }
+
+    private boolean resyncRequired(long since, long upTo) {
+        if (since < 0 || since > upTo) {
+            return true;
+        }
+        Long oldest = changeLogEntryRepository.findOldestSequence();
+        long oldestRetained = oldest != null ? oldest : upTo + 1;
+        return since + 1 < oldestRetained;
+    }
+
+    private ChangeFeedDto resync(long upTo) {
+        return new ChangeFeedDto(upTo, false, true, null, null, null);
+    }
+
+    private long nextVersion(List<ChangeLogEntry> page, boolean hasMore, long upTo) {
+        // Без следующей страницы можно перескочить и чужие изменения до upTo
+        return hasMore ? page.get(page.size() - 1).getSequence() : upTo;
+    }
+
+    private <T> ChangeSetDto<T> changeSet(List<ChangeLogEntry> page, EntityType entityType,
+                                          Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        // Несколько изменений одной записи схлопываются в последнее
+        Map<Long, Operation> latest = new LinkedHashMap<>();
+        for (ChangeLogEntry entry : page) {
+            if (entry.getEntityType() == entityType) {
+                latest.remove(entry.getEntityId());
+                latest.put(entry.getEntityId(), entry.getOperation());
+            }
+        }
+        List<Long> upsertIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        latest.forEach((id, operation) -> (operation == Operation.DELETE ? deletedIds : upsertIds).add(id));
+
+        List<T> upserted = upsertIds.isEmpty() ? List.of() : loader.apply(upsertIds);
+        // Запись могла исчезнуть после изменения — для клиента она удалена
+        Set<Long> found = new HashSet<>();
+        upserted.forEach(item -> found.add(idOf.apply(item)));
+        for (Long id : upsertIds) {
+            if (!found.contains(id)) {
+                deletedIds.add(id);
+            }
+        }
+        return new ChangeSetDto<>(upserted, deletedIds);
+    }
+
+    // Журнал хранит участников на момент изменения: заказ, переданный другому исполнителю,
+    // прежнему исполнителю отдаётся как удалённый
+    private List<OrderDto> visibleOrders(Long userId, List<Long> ids) {
+        return orderService.getOrdersByIds(ids).stream()
+                .filter(order -> userId.equals(order.getCustomerId()) || userId.equals(order.getProviderId()))
+                .collect(Collectors.toList());
+    }
+
+    private int pageSize(Integer limit) {
+        return limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.backend.service;
+
+import com.example.backend.model.JobLease;
+import com.example.backend.repository.JobLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Аренды фоновых задач в БД: из нескольких узлов задачу выполняет тот, кто держит аренду.
+ * Владелец продлевает её на каждом запуске; если узел упал, аренду заберут после истечения.
+ */
+@Service
+@Slf4j
+public class JobLeaseService {
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    public JobLeaseService(JobLeaseRepository jobLeaseRepository, PlatformTransactionManager transactionManager) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Аренда не должна зависеть от транзакции вызывающего кода
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Захватывает или продлевает аренду на {@code duration}. false — аренда у другого узла.
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Integer updated = transactionTemplate.execute(status ->
+                    jobLeaseRepository.tryAcquire(name, owner, now, now.plus(duration)));
+            if (updated != null && updated > 0) {
+                return true;
+            }
+            if (jobLeaseRepository.existsById(name)) {
+                return false;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    jobLeaseRepository.saveAndFlush(new JobLease(name, owner, now.plus(duration))));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Строку аренды одновременно создал другой узел
+            return false;
+        } catch (Exception e) {
+            log.warn("Failed to acquire lease {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jobLeaseRepository.release(name, owner, LocalDateTime.now()));
+        } catch (Exception e) {
+            log.warn("Failed to release lease {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -12,57 +12,39 @@ import java.time.LocalDateTime;
 public class NotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final SideEffectPipeline sideEffectPipeline;
 
-    public void sendNotification(Long userId, String type, String title, String message) {
-        try {
-            NotificationDto notification = new NotificationDto();
-            notification.setUserId(userId);
-            notification.setType(type);
-            notification.setTitle(title);
-            notification.setMessage(message);
-            notification.setRead(false);
-            notification.setCreatedAt(LocalDateTime.now());
-
+    /**
+     * Отправляет уведомление в фоне после коммита текущей транзакции, с повторами при ошибке.
+     */
+    public void notifyAfterCommit(Long userId, String type, String title, String message) {
+        sideEffectPipeline.afterCommit("notification", () -> sendNotification(userId, type, title, message));
+    }
 
-            if (messagingTemplate != null) {
-                messagingTemplate.convertAndSend("/topic/notifications/" + userId, notification);
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to send notification via WebSocket: " + e.getMessage());
-           
+    public void sendNotification(Long userId, String type, String title, String message) {
+        NotificationDto notification = new NotificationDto();
+        notification.setUserId(userId);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setRead(false);
+        notification.setCreatedAt(LocalDateTime.now());
+
+        if (messagingTemplate != null) {
+            messagingTemplate.convertAndSend("/topic/notifications/" + userId, notification);
         }
     }
 
     public void sendBroadcastNotification(String type, String title, String message) {
-        try {
-            NotificationDto notification = new NotificationDto();
-            notification.setType(type);
-            notification.setTitle(title);
-            notification.setMessage(message);
-            notification.setRead(false);
-            notification.setCreatedAt(LocalDateTime.now());
-
-          
-            if (messagingTemplate != null) {
-                messagingTemplate.convertAndSend("/topic/notifications/broadcast", notification);
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to send broadcast notification via WebSocket: " + e.getMessage());
-
+        NotificationDto notification = new NotificationDto();
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setRead(false);
+        notification.setCreatedAt(LocalDateTime.now());
+
+        if (messagingTemplate != null) {
+            messagingTemplate.convertAndSend("/topic/notifications/broadcast", notification);
         }
     }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
@@ -1,22 +1,32 @@
 package com.example.backend.service;
 
+import com.example.backend.booking.BookingEngine;
+import com.example.backend.cache.CacheInvalidator;
 import com.example.backend.dto.CreateOrderRequest;
+import com.example.backend.dto.CursorPageDto;
 import com.example.backend.dto.OrderDto;
 import com.example.backend.dto.OrderEvent;
+import com.example.backend.dto.OrderQuery;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.kafka.OutboxPublisher;
 import com.example.backend.model.Order;
 import com.example.backend.model.User;
 import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.OrderSpecifications;
 import com.example.backend.repository.ServiceRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,174 +37,193 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final ServiceRepository serviceRepository;
     private final UserRepository userRepository;
-    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final OutboxPublisher outboxPublisher;
+    private final BookingEngine bookingEngine;
     private final NotificationService notificationService;
+    private final CacheInvalidator cacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Value("${kafka.topic.order-events}")
-    private String orderEventsTopic;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
-    @Cacheable(value = "orders", key = "'all'")
+    @Value("${app.orders.status-update-attempts:10}")
+    private int statusUpdateAttempts;
+
+    @Cacheable(value = "orders", key = "'all'", sync = true)
     public List<OrderDto> getAllOrders() {
-        return orderRepository.findAll().stream()
+        return orderRepository.findAllWithDetails().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "orders", key = "#id")
+    @Cacheable(value = "orders", key = "#id", sync = true)
     public OrderDto getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         return convertToDto(order);
     }
 
+    public List<OrderDto> getOrdersByIds(Collection<Long> ids) {
+        return orderRepository.findWithDetailsByIdIn(ids).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Cacheable(value = "orders", key = "'customer_' + #customerId", sync = true)
     public List<OrderDto> getOrdersByCustomer(Long customerId) {
-        List<Order> orders = orderRepository.findByCustomerId(customerId);
+        List<Order> orders = orderRepository.findWithDetailsByCustomerId(customerId);
         return orders.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(value = "orders", key = "'provider_' + #providerId", sync = true)
     public List<OrderDto> getOrdersByProvider(Long providerId) {
-        List<Order> orders = orderRepository.findByProviderId(providerId);
+        List<Order> orders = orderRepository.findWithDetailsByProviderId(providerId);
         return orders.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "orders", key = "'status_' + #status")
+    @Cacheable(value = "orders", key = "'status_' + #status", sync = true)
     public List<OrderDto> getOrdersByStatus(Order.OrderStatus status) {
-        return orderRepository.findByStatus(status).stream()
+        return orderRepository.findWithDetailsByStatus(status).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
-    public OrderDto createOrder(Long customerId, CreateOrderRequest request) {
-        try {
-            User customer = userRepository.findById(customerId)
-                    .orElseThrow(() -> new RuntimeException("Customer not found with id: " + customerId));
-
-            com.example.backend.model.Service service = serviceRepository.findById(request.getServiceId())
-                    .orElseThrow(() -> new RuntimeException("Service not found with id: " + request.getServiceId()));
-
-            if (request.getScheduledDateTime() == null) {
-                throw new RuntimeException("Scheduled date time is required");
-            }
-
-            if (service.getPrice() == null) {
-                throw new RuntimeException("Service price is not set");
+    public CursorPageDto<OrderDto> getOrdersPage(OrderQuery orderQuery) {
+        OrderQuery.SortOrder sortOrder = orderQuery.getSort() != null
+                ? orderQuery.getSort() : OrderQuery.SortOrder.NEWEST;
+        int limit = orderQuery.getLimit() != null
+                ? Math.max(1, Math.min(orderQuery.getLimit(), MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+
+        Specification<Order> spec = OrderSpecifications.matching(orderQuery);
+        if (orderQuery.getCursor() != null && !orderQuery.getCursor().isBlank()) {
+            List<String> parts = CursorCodec.decode(orderQuery.getCursor(), 3);
+            if (!sortOrder.name().equals(parts.get(0))) {
+                throw new RuntimeException("Invalid cursor: sort order does not match");
             }
+            spec = spec.and(OrderSpecifications.after(sortOrder, parseCursorTime(sortOrder, parts.get(1)),
+                    parseCursorId(parts.get(2))));
+        }
 
-            Order order = new Order();
-            order.setCustomer(customer);
-            order.setService(service);
-            order.setProvider(service.getProvider());
-            order.setScheduledDateTime(request.getScheduledDateTime());
-            order.setAddress(request.getAddress() != null ? request.getAddress() : customer.getAddress());
-            order.setNotes(request.getNotes());
-            order.setStatus(Order.OrderStatus.PENDING);
-            order.setTotalPrice(service.getPrice());
-
-        order = orderRepository.save(order);
-
-
-        try {
-            OrderEvent event = new OrderEvent(
-                    order.getId(),
-                    customer.getId(),
-                    service.getId(),
-                    order.getStatus(),
-                    LocalDateTime.now(),
-                    "Order created successfully"
-            );
-            kafkaTemplate.send(orderEventsTopic, event);
-        } catch (Exception e) {
-            System.err.println("Failed to send Kafka event: " + e.getMessage());
-        
+        // Лишняя строка показывает, есть ли следующая страница
+        List<OrderDto> rows = orderRepository.findOrderDtos(spec, sortOrder, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<OrderDto> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderDto last = page.get(page.size() - 1);
+            String time = sortOrder == OrderQuery.SortOrder.NEWEST ? "" : last.getScheduledDateTime().toString();
+            nextCursor = CursorCodec.encode(sortOrder.name(), time, String.valueOf(last.getId()));
         }
+        return new CursorPageDto<>(page, nextCursor, hasMore);
+    }
 
+    private LocalDateTime parseCursorTime(OrderQuery.SortOrder sortOrder, String value) {
         try {
-            notificationService.sendNotification(
-                    customer.getId(),
-                    "ORDER_CREATED",
-                    "Order Created",
-                    "Your order for " + service.getName() + " has been created successfully"
-            );
-
-            if (service.getProvider() != null) {
-                notificationService.sendNotification(
-                        service.getProvider().getId(),
-                        "NEW_ORDER",
-                        "New Order",
-                        "You have a new order for " + service.getName()
-                );
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to send notification: " + e.getMessage());
-        
+            return sortOrder == OrderQuery.SortOrder.NEWEST ? null : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor", e);
         }
+    }
 
-            return convertToDto(order);
-        } catch (RuntimeException e) {
-            System.err.println("Error in createOrder: " + e.getMessage());
-            throw e;
-        } catch (Exception e) {
-            System.err.println("Unexpected error in createOrder: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to create order: " + e.getMessage(), e);
+    private Long parseCursorId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor", e);
         }
     }
 
     @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
-    public OrderDto updateOrderStatus(Long id, Order.OrderStatus status, Long providerId) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    public OrderDto createOrder(Long customerId, CreateOrderRequest request) {
+        User customer = userRepository.findById(customerId)
+                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + customerId));
 
-      
-        if (providerId != null && order.getProvider() != null) {
-            if (!order.getProvider().getId().equals(providerId)) {
-                throw new RuntimeException("Provider can only update status of their own orders");
-            }
-        }
+        com.example.backend.model.Service service = serviceRepository.findById(request.getServiceId())
+                .orElseThrow(() -> new RuntimeException("Service not found with id: " + request.getServiceId()));
 
-        order.setStatus(status);
-        if (status == Order.OrderStatus.COMPLETED) {
-            order.setCompletedAt(LocalDateTime.now());
+        if (request.getScheduledDateTime() == null) {
+            throw new RuntimeException("Scheduled date time is required");
         }
 
-        order = orderRepository.save(order);
+        if (service.getPrice() == null) {
+            throw new RuntimeException("Service price is not set");
+        }
 
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setService(service);
+        order.setProvider(service.getProvider());
+        order.setScheduledDateTime(request.getScheduledDateTime());
+        order.setAddress(request.getAddress() != null ? request.getAddress() : customer.getAddress());
+        order.setNotes(request.getNotes());
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setTotalPrice(service.getPrice());
+        bookingEngine.reserve(order);
 
-        try {
-            OrderEvent event = new OrderEvent(
-                    order.getId(),
-                    order.getCustomer().getId(),
-                    order.getService().getId(),
-                    order.getStatus(),
-                    LocalDateTime.now(),
-                    "Order status updated to " + status
+        order = orderRepository.save(order);
+        cacheInvalidator.orderChanged(order, null);
+        eventPublisher.publishEvent(OrderChangedEvent.of(order, false));
+
+        OrderEvent event = new OrderEvent(
+                order.getId(),
+                customer.getId(),
+                service.getId(),
+                order.getStatus(),
+                LocalDateTime.now(),
+                "Order created successfully"
+        );
+        outboxPublisher.publishOrderEvent(event);
+
+        notificationService.notifyAfterCommit(
+                customer.getId(),
+                "ORDER_CREATED",
+                "Order Created",
+                "Your order for " + service.getName() + " has been created successfully"
+        );
+        if (service.getProvider() != null) {
+            notificationService.notifyAfterCommit(
+                    service.getProvider().getId(),
+                    "NEW_ORDER",
+                    "New Order",
+                    "You have a new order for " + service.getName()
             );
-            kafkaTemplate.send(orderEventsTopic, event);
-        } catch (Exception e) {
-            System.err.println("Failed to send Kafka event: " + e.getMessage());
-          
         }
 
+        return convertToDto(order);
+    }
 
-        try {
-            notificationService.sendNotification(
-                    order.getCustomer().getId(),
-                    "ORDER_STATUS_UPDATED",
-                    "Order Status Updated",
-                    "Your order status has been updated to " + status
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to send notification: " + e.getMessage());
-           
+    /**
+     * Смена статуса исполнителем ({@code providerId} задан) или администратором ({@code providerId == null}).
+     */
+    @Transactional
+    public OrderDto updateOrderStatus(Long id, Order.OrderStatus status, Long providerId) {
+        Transition transition = transition(id, status, providerId, providerId == null);
+        Order order = transition.order();
+        if (!transition.changed()) {
+            return convertToDto(order);
         }
 
+        OrderEvent event = new OrderEvent(
+                order.getId(),
+                order.getCustomer().getId(),
+                order.getService().getId(),
+                order.getStatus(),
+                LocalDateTime.now(),
+                "Order status updated to " + status
+        );
+        outboxPublisher.publishOrderEvent(event);
+
+        notificationService.notifyAfterCommit(
+                order.getCustomer().getId(),
+                "ORDER_STATUS_UPDATED",
+                "Order Status Updated",
+                "Your order status has been updated to " + status
+        );
+
         return convertToDto(order);
     }
 
@@ -204,69 +233,94 @@ public class OrderService {
     }
 
     @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
     public void cancelOrder(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        orderRepository.save(order);
-
+        Transition transition = transition(id, Order.OrderStatus.CANCELLED, null, false);
+        if (!transition.changed()) {
+            return;
+        }
+        Order order = transition.order();
+
+        OrderEvent event = new OrderEvent(
+                order.getId(),
+                order.getCustomer().getId(),
+                order.getService().getId(),
+                Order.OrderStatus.CANCELLED,
+                LocalDateTime.now(),
+                "Order cancelled"
+        );
+        outboxPublisher.publishOrderEvent(event);
 
-        try {
-            OrderEvent event = new OrderEvent(
-                    order.getId(),
-                    order.getCustomer().getId(),
-                    order.getService().getId(),
-                    Order.OrderStatus.CANCELLED,
-                    LocalDateTime.now(),
-                    "Order cancelled"
+        if (order.getProvider() != null) {
+            notificationService.notifyAfterCommit(
+                    order.getProvider().getId(),
+                    "ORDER_CANCELLED",
+                    "Order Cancelled",
+                    "Order #" + order.getId() + " has been cancelled"
             );
-            kafkaTemplate.send(orderEventsTopic, event);
-        } catch (Exception e) {
-            System.err.println("Failed to send Kafka event: " + e.getMessage());
-           
         }
+    }
 
-     
-        if (order.getProvider() != null) {
-            try {
-                notificationService.sendNotification(
-                        order.getProvider().getId(),
-                        "ORDER_CANCELLED",
-                        "Order Cancelled",
-                        "Order #" + order.getId() + " has been cancelled"
-                );
-            } catch (Exception e) {
-                System.err.println("Failed to send notification: " + e.getMessage());
-                
+    private record Transition(Order order, boolean changed) {
+    }
+
+    /**
+     * Переводит заказ в {@code target} по правилам {@link Order.OrderStatus#canTransitionTo}.
+     *
+     * <p>Строка не блокируется на время проверки: статус меняется условным UPDATE по прочитанной версии,
+     * и если заказ успели изменить, чтение и проверка повторяются. Повтор того же статуса ничего не меняет.
+     */
+    private Transition transition(Long id, Order.OrderStatus target, Long providerId, boolean byAdmin) {
+        for (int attempt = 1; ; attempt++) {
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (providerId != null && order.getProvider() != null && !order.getProvider().getId().equals(providerId)) {
+                throw new RuntimeException("Provider can only update status of their own orders");
+            }
+            Order.OrderStatus previousStatus = order.getStatus();
+            if (previousStatus == target) {
+                return new Transition(order, false);
+            }
+            if (!previousStatus.canTransitionTo(target, byAdmin)) {
+                throw new RuntimeException("Invalid order status transition from " + previousStatus + " to " + target);
+            }
+            LocalDateTime completedAt = target == Order.OrderStatus.COMPLETED
+                    ? LocalDateTime.now() : order.getCompletedAt();
+            if (orderRepository.compareAndSetStatus(id, order.getVersion(), target, completedAt) == 1) {
+                order = orderRepository.findWithDetailsById(id)
+                        .orElseThrow(() -> new RuntimeException("Order not found"));
+                // Возобновлённый заказ снова занимает время исполнителя — за это время его могли занять
+                if (previousStatus == Order.OrderStatus.CANCELLED) {
+                    bookingEngine.reserve(order);
+                }
+                cacheInvalidator.orderChanged(order, previousStatus);
+                eventPublisher.publishEvent(OrderChangedEvent.of(order, false));
+                return new Transition(order, true);
+            }
+            if (attempt >= statusUpdateAttempts) {
+                throw new RuntimeException("Order was modified concurrently, please retry");
             }
         }
     }
 
     @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
     public void deleteOrder(Long id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
        
-        try {
-            OrderEvent event = new OrderEvent(
-                    order.getId(),
-                    order.getCustomer().getId(),
-                    order.getService().getId(),
-                    order.getStatus(),
-                    LocalDateTime.now(),
-                    "Order deleted by admin"
-            );
-            kafkaTemplate.send(orderEventsTopic, event);
-        } catch (Exception e) {
-            System.err.println("Failed to send Kafka event: " + e.getMessage());
-         
-        }
+        OrderEvent event = new OrderEvent(
+                order.getId(),
+                order.getCustomer().getId(),
+                order.getService().getId(),
+                order.getStatus(),
+                LocalDateTime.now(),
+                "Order deleted by admin"
+        );
+        outboxPublisher.publishOrderEvent(event);
         
         orderRepository.deleteById(id);
+        cacheInvalidator.orderChanged(order, null);
+        eventPublisher.publishEvent(OrderChangedEvent.of(order, true));
     }
 
     private OrderDto convertToDto(Order order) {
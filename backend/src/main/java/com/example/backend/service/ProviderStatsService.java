@@ -25,11 +25,11 @@ public class ProviderStatsService {
         ProviderStatsDto stats = new ProviderStatsDto();
 
       
-        long totalServices = serviceRepository.findByProviderId(providerId).size();
+        long totalServices = serviceRepository.countByProviderId(providerId);
         stats.setTotalServices(totalServices);
 
      
-        List<Order> orders = orderRepository.findByProviderId(providerId);
+        List<Order> orders = orderRepository.findWithDetailsByProviderId(providerId);
         long totalOrders = orders.size();
         stats.setTotalOrders(totalOrders);
 
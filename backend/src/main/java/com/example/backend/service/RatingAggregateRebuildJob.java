@@ -0,0 +1,29 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RatingAggregateRebuildJob {
+
+    private final RatingAggregateService ratingAggregateService;
+    private final ReviewRepository reviewRepository;
+
+    // Первичное заполнение агрегатов для баз, где отзывы появились до их введения
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (ratingAggregateService.isEmpty() && reviewRepository.count() > 0) {
+                ratingAggregateService.rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Failed to initialize rating aggregates: ", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.backend.service;
+
+import com.example.backend.event.ServiceChangedEvent;
+import com.example.backend.model.RatingAggregate;
+import com.example.backend.model.RatingAggregate.TargetType;
+import com.example.backend.repository.RatingAggregateRepository;
+import com.example.backend.repository.ReviewRepository;
+import com.example.backend.repository.ServiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingAggregateService {
+
+    private final RatingAggregateRepository ratingAggregateRepository;
+    private final ReviewRepository reviewRepository;
+    private final ServiceRepository serviceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public void reviewAdded(Long serviceId, Long providerId, int rating) {
+        apply(TargetType.SERVICE, serviceId, rating, 1);
+        apply(TargetType.PROVIDER, providerId, rating, 1);
+    }
+
+    @Transactional
+    public void reviewRemoved(Long serviceId, Long providerId, int rating) {
+        apply(TargetType.SERVICE, serviceId, rating, -1);
+        apply(TargetType.PROVIDER, providerId, rating, -1);
+    }
+
+    @Transactional
+    public void reviewChanged(Long serviceId, Long providerId, int oldRating, int newRating) {
+        if (oldRating == newRating) {
+            return;
+        }
+        reviewRemoved(serviceId, providerId, oldRating);
+        reviewAdded(serviceId, providerId, newRating);
+    }
+
+    public ReviewService.ReviewStats getServiceStats(Long serviceId) {
+        return ratingAggregateRepository.findByTargetTypeAndTargetId(TargetType.SERVICE, serviceId)
+                .map(this::toStats)
+                .orElseGet(() -> new ReviewService.ReviewStats(0.0, 0));
+    }
+
+    // Один запрос на всю страницу каталога вместо выборки отзывов по каждой услуге
+    public Map<Long, ReviewService.ReviewStats> getServiceStats(Collection<Long> serviceIds) {
+        return getStats(TargetType.SERVICE, serviceIds);
+    }
+
+    public Map<Long, ReviewService.ReviewStats> getProviderStats(Collection<Long> providerIds) {
+        return getStats(TargetType.PROVIDER, providerIds);
+    }
+
+    @Transactional
+    public void rebuild() {
+        log.info("Rebuilding rating aggregates from reviews");
+        ratingAggregateRepository.deleteAllInBatch();
+
+        Map<Long, RatingAggregate> byService = accumulate(TargetType.SERVICE, reviewRepository.countRatingsByService());
+        Map<Long, RatingAggregate> byProvider = accumulate(TargetType.PROVIDER, reviewRepository.countRatingsByProvider());
+
+        ratingAggregateRepository.saveAll(byService.values());
+        ratingAggregateRepository.saveAll(byProvider.values());
+
+        serviceRepository.resetAverageRatings();
+        byService.values().forEach(aggregate ->
+                serviceRepository.updateAverageRating(aggregate.getTargetId(), aggregate.getAverage()));
+        log.info("Rating aggregates rebuilt: {} services, {} providers", byService.size(), byProvider.size());
+    }
+
+    public boolean isEmpty() {
+        return ratingAggregateRepository.count() == 0;
+    }
+
+    private void apply(TargetType targetType, Long targetId, int rating, int delta) {
+        if (targetId == null) {
+            return;
+        }
+        RatingAggregate aggregate = ratingAggregateRepository.findForUpdate(targetType, targetId)
+                .orElseGet(() -> {
+                    ratingAggregateRepository.insertIfAbsent(targetType.name(), targetId);
+                    return ratingAggregateRepository.findForUpdate(targetType, targetId).orElseThrow();
+                });
+        aggregate.add(rating, delta);
+        ratingAggregateRepository.save(aggregate);
+        if (targetType == TargetType.SERVICE) {
+            serviceRepository.updateAverageRating(targetId, aggregate.getAverage());
+            eventPublisher.publishEvent(new ServiceChangedEvent(targetId));
+        }
+    }
+
+    private Map<Long, ReviewService.ReviewStats> getStats(TargetType targetType, Collection<Long> targetIds) {
+        Map<Long, ReviewService.ReviewStats> stats = new HashMap<>();
+        if (targetIds.isEmpty()) {
+            return stats;
+        }
+        for (RatingAggregate aggregate : ratingAggregateRepository.findByTargetTypeAndTargetIdIn(targetType, targetIds)) {
+            stats.put(aggregate.getTargetId(), toStats(aggregate));
+        }
+        return stats;
+    }
+
+    private Map<Long, RatingAggregate> accumulate(TargetType targetType, List<Object[]> rows) {
+        Map<Long, RatingAggregate> aggregates = new HashMap<>();
+        for (Object[] row : rows) {
+            Long targetId = (Long) row[0];
+            if (targetId == null) {
+                continue;
+            }
+            int rating = (Integer) row[1];
+            long count = (Long) row[2];
+            RatingAggregate aggregate = aggregates.computeIfAbsent(targetId, id -> new RatingAggregate(targetType, id));
+            aggregate.add(rating, Math.toIntExact(count));
+        }
+        return aggregates;
+    }
+
+    private ReviewService.ReviewStats toStats(RatingAggregate aggregate) {
+        return new ReviewService.ReviewStats(aggregate.getAverage(), Math.toIntExact(aggregate.getRatingCount()));
+    }
+}
@@ -24,41 +24,34 @@ public class ReviewService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final ServiceRepository serviceRepository;
+    private final RatingAggregateService ratingAggregateService;
 
     public List<ReviewDto> getAllReviews() {
-        return reviewRepository.findAll().stream()
+        return reviewRepository.findAllWithDetails().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
     public ReviewDto getReviewById(Long id) {
-        Review review = reviewRepository.findById(id)
+        Review review = reviewRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
         return convertToDto(review);
     }
 
     public List<ReviewDto> getReviewsByProvider(Long providerId) {
-        return reviewRepository.findByProviderId(providerId).stream()
+        return reviewRepository.findWithDetailsByProviderId(providerId).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
     public List<ReviewDto> getReviewsByService(Long serviceId) {
-        return reviewRepository.findByOrderServiceId(serviceId).stream()
+        return reviewRepository.findWithDetailsByOrderServiceId(serviceId).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
     public ReviewStats getReviewStatsForService(Long serviceId) {
-        List<Review> reviews = reviewRepository.findByOrderServiceId(serviceId);
-        if (reviews.isEmpty()) {
-            return new ReviewStats(0.0, 0);
-        }
-        double averageRating = reviews.stream()
-                .mapToInt(r -> r.getRating())
-                .average()
-                .orElse(0.0);
-        return new ReviewStats(averageRating, reviews.size());
+        return ratingAggregateService.getServiceStats(serviceId);
     }
 
     @Transactional
@@ -74,12 +67,9 @@ public class ReviewService {
             throw new RuntimeException("You can only review completed orders");
         }
 
-        
-        reviewRepository.findByOrderId(order.getId()).stream()
-                .findFirst()
-                .ifPresent(r -> {
-                    throw new RuntimeException("Review already exists for this order");
-                });
+        if (reviewRepository.existsByOrderId(order.getId())) {
+            throw new RuntimeException("Review already exists for this order");
+        }
 
         Review review = new Review();
         review.setOrder(order);
@@ -90,24 +80,36 @@ public class ReviewService {
         review.setCreatedAt(LocalDateTime.now());
 
         review = reviewRepository.save(review);
+        ratingAggregateService.reviewAdded(order.getService().getId(), providerIdOf(review), review.getRating());
         return convertToDto(review);
     }
 
     @Transactional
     public ReviewDto updateReview(Long id, ReviewDto reviewDto) {
-        Review review = reviewRepository.findById(id)
+        Review review = reviewRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
 
+        int oldRating = review.getRating();
         review.setRating(reviewDto.getRating());
         review.setComment(reviewDto.getComment());
 
         review = reviewRepository.save(review);
+        ratingAggregateService.reviewChanged(review.getOrder().getService().getId(), providerIdOf(review),
+                oldRating, review.getRating());
         return convertToDto(review);
     }
 
     @Transactional
     public void deleteReview(Long id) {
-        reviewRepository.deleteById(id);
+        reviewRepository.findById(id).ifPresent(review -> {
+            reviewRepository.delete(review);
+            ratingAggregateService.reviewRemoved(review.getOrder().getService().getId(), providerIdOf(review),
+                    review.getRating());
+        });
+    }
+
+    private Long providerIdOf(Review review) {
+        return review.getProvider() != null ? review.getProvider().getId() : null;
     }
 
     private ReviewDto convertToDto(Review review) {
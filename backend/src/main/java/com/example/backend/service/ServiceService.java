@@ -1,59 +1,165 @@
 package com.example.backend.service;
 
+import com.example.backend.catalog.CatalogSnapshot;
+import com.example.backend.catalog.CatalogSnapshotHolder;
+import com.example.backend.dto.FacetCountsDto;
 import com.example.backend.dto.ServiceDto;
+import com.example.backend.dto.ServicePageDto;
+import com.example.backend.dto.ServiceQuery;
+import com.example.backend.dto.ServiceSearchResultDto;
+import com.example.backend.event.ServiceChangedEvent;
 import com.example.backend.model.Category;
 import com.example.backend.model.User;
 import com.example.backend.repository.CategoryRepository;
 import com.example.backend.repository.ServiceRepository;
+import com.example.backend.repository.ServiceSpecifications;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.search.FacetIndex;
+import com.example.backend.search.ServiceSearchIndex;
+import com.example.backend.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ServiceService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ServiceRepository serviceRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
-    private final ReviewService reviewService;
+    private final RatingAggregateService ratingAggregateService;
+    private final ServiceSearchIndex serviceSearchIndex;
+    private final FacetIndex facetIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogSnapshotHolder catalogSnapshotHolder;
+    private final CategoryCounterService categoryCounterService;
 
-    @Cacheable(value = "services")
+    // Активный каталог читается из снимка в памяти, без обращений к БД и Redis
     public List<ServiceDto> getAllServices() {
-        return serviceRepository.findByActiveTrue().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return catalogSnapshotHolder.current().getServices();
     }
 
-    @Cacheable(value = "services", key = "#id")
     public ServiceDto getServiceById(Long id) {
-        com.example.backend.model.Service service = serviceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Service not found"));
-        return convertToDto(service);
+        // В снимке только активные услуги, снятые с публикации читаем из БД
+        return catalogSnapshotHolder.current().findService(id)
+                .orElseGet(() -> convertToDto(serviceRepository.findWithDetailsById(id)
+                        .orElseThrow(() -> new RuntimeException("Service not found"))));
+    }
+
+    // Текущее состояние активных услуг из списка, для ленты изменений
+    public List<ServiceDto> getActiveServicesByIds(Collection<Long> ids) {
+        return convertToDtos(serviceRepository.findWithDetailsByIdIn(ids).stream()
+                .filter(com.example.backend.model.Service::getActive)
+                .collect(Collectors.toList()));
     }
 
     public List<ServiceDto> getServicesByCategory(Long categoryId) {
-        return serviceRepository.findByCategoryIdAndActiveTrue(categoryId).stream()
-                .map(this::convertToDto)
+        return catalogSnapshotHolder.current().getServicesByCategory(categoryId);
+    }
+
+    public ServicePageDto getServicesPage(ServiceQuery serviceQuery) {
+        ServiceQuery.SortOrder sortOrder = serviceQuery.getSort() != null
+                ? serviceQuery.getSort() : ServiceQuery.SortOrder.NEWEST;
+        int limit = serviceQuery.getLimit() != null
+                ? Math.max(1, Math.min(serviceQuery.getLimit(), MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+
+        Specification<com.example.backend.model.Service> spec = ServiceSpecifications.matching(serviceQuery);
+        if (serviceQuery.getCursor() != null && !serviceQuery.getCursor().isBlank()) {
+            List<String> parts = CursorCodec.decode(serviceQuery.getCursor(), 3);
+            if (!sortOrder.name().equals(parts.get(0))) {
+                throw new RuntimeException("Invalid cursor: sort order does not match");
+            }
+            Object sortValue;
+            Long afterId;
+            try {
+                sortValue = parseSortValue(sortOrder, parts.get(1));
+                afterId = Long.valueOf(parts.get(2));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor", e);
+            }
+            spec = spec.and(ServiceSpecifications.after(sortOrder, sortValue, afterId));
+        }
+
+        // Берём на одну строку больше, чтобы узнать, есть ли следующая страница, без COUNT(*)
+        List<com.example.backend.model.Service> rows = serviceRepository.findBy(spec,
+                q -> q.project("category", "provider").sortBy(ServiceSpecifications.sortFor(sortOrder))
+                        .limit(limit + 1).all());
+
+        boolean hasMore = rows.size() > limit;
+        List<com.example.backend.model.Service> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            com.example.backend.model.Service last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(sortOrder.name(), sortValueOf(sortOrder, last), String.valueOf(last.getId()));
+        }
+        FacetIndex.FacetCounts facetCounts = listingFacets(serviceQuery);
+        return new ServicePageDto(convertToDtos(page), nextCursor, hasMore, facetCounts.total(), facetCounts.facets());
+    }
+
+    // Фасеты по тем же условиям, что и выдача, но по снимку каталога — без запросов в БД
+    private FacetIndex.FacetCounts listingFacets(ServiceQuery serviceQuery) {
+        if (serviceQuery.getCategoryId() == null && serviceQuery.getMinPrice() == null
+                && serviceQuery.getMaxPrice() == null) {
+            return facetIndex.count(Map.of(), null);
+        }
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current();
+        List<ServiceDto> scope = serviceQuery.getCategoryId() != null
+                ? snapshot.getServicesByCategory(serviceQuery.getCategoryId()) : snapshot.getServices();
+        long[] serviceIds = scope.stream()
+                .filter(service -> serviceQuery.getMinPrice() == null
+                        || service.getPrice().compareTo(serviceQuery.getMinPrice()) >= 0)
+                .filter(service -> serviceQuery.getMaxPrice() == null
+                        || service.getPrice().compareTo(serviceQuery.getMaxPrice()) <= 0)
+                .mapToLong(ServiceDto::getId)
+                .toArray();
+        return facetIndex.count(Map.of(), serviceIds);
+    }
+
+    public ServiceSearchResultDto searchServices(String query, Integer limit,
+                                                 Map<FacetIndex.Facet, Set<String>> filters) {
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        LongPredicate filter = hasFilters(filters) ? serviceId -> facetIndex.matches(serviceId, filters) : null;
+        ServiceSearchIndex.SearchResult result = serviceSearchIndex.search(query, size, filter);
+        // Фасеты считаются по всем совпадениям текста, выбранные фильтры учитываются внутри подсчёта
+        FacetIndex.FacetCounts facetCounts = facetIndex.count(filters, result.matchedServiceIds());
+
+        CatalogSnapshot snapshot = catalogSnapshotHolder.current();
+        List<ServiceDto> services = result.hits().stream()
+                .map(hit -> snapshot.findService(hit.serviceId()))
+                .flatMap(Optional::stream)
                 .collect(Collectors.toList());
+        return new ServiceSearchResultDto(services, result.totalHits(), facetCounts.facets());
+    }
+
+    public FacetCountsDto getFacetCounts(Map<FacetIndex.Facet, Set<String>> filters) {
+        FacetIndex.FacetCounts counts = facetIndex.count(filters, null);
+        return new FacetCountsDto(counts.total(), counts.facets());
+    }
+
+    private boolean hasFilters(Map<FacetIndex.Facet, Set<String>> filters) {
+        return filters.values().stream().anyMatch(values -> values != null && !values.isEmpty());
     }
 
     public List<ServiceDto> getServicesByProvider(Long providerId) {
-        return serviceRepository.findByProviderId(providerId).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(serviceRepository.findWithDetailsByProviderId(providerId));
     }
 
     @Transactional
-    @CacheEvict(value = "services", allEntries = true)
     public ServiceDto createService(ServiceDto serviceDto) {
         Category category = categoryRepository.findById(serviceDto.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
@@ -74,14 +180,16 @@ public class ServiceService {
         }
 
         service = serviceRepository.save(service);
+        categoryCounterService.serviceChanged(null, false, category.getId(), true);
+        eventPublisher.publishEvent(new ServiceChangedEvent(service.getId()));
         return convertToDto(service);
     }
 
     @Transactional
-    @CacheEvict(value = "services", allEntries = true)
     public ServiceDto updateService(Long id, ServiceDto serviceDto) {
         com.example.backend.model.Service service = serviceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Service not found"));
+        Long previousCategoryId = service.getCategory().getId();
 
         service.setName(serviceDto.getName());
         service.setDescription(serviceDto.getDescription());
@@ -96,19 +204,52 @@ public class ServiceService {
         }
 
         service = serviceRepository.save(service);
+        categoryCounterService.serviceChanged(previousCategoryId, service.getActive(),
+                service.getCategory().getId(), service.getActive());
+        eventPublisher.publishEvent(new ServiceChangedEvent(service.getId()));
         return convertToDto(service);
     }
 
     @Transactional
-    @CacheEvict(value = "services", allEntries = true)
     public void deleteService(Long id) {
         com.example.backend.model.Service service = serviceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Service not found"));
+        boolean wasActive = service.getActive();
         service.setActive(false);
         serviceRepository.save(service);
+        categoryCounterService.serviceChanged(service.getCategory().getId(), wasActive, null, false);
+        eventPublisher.publishEvent(new ServiceChangedEvent(id));
+    }
+
+    private String sortValueOf(ServiceQuery.SortOrder sortOrder, com.example.backend.model.Service service) {
+        return switch (sortOrder) {
+            case PRICE_ASC, PRICE_DESC -> service.getPrice().toPlainString();
+            case RATING_DESC -> String.valueOf(service.getAverageRating());
+            case NEWEST -> "";
+        };
+    }
+
+    private Object parseSortValue(ServiceQuery.SortOrder sortOrder, String value) {
+        return switch (sortOrder) {
+            case PRICE_ASC, PRICE_DESC -> new BigDecimal(value);
+            case RATING_DESC -> Double.valueOf(value);
+            case NEWEST -> null;
+        };
+    }
+
+    private List<ServiceDto> convertToDtos(List<com.example.backend.model.Service> services) {
+        Map<Long, ReviewService.ReviewStats> stats = ratingAggregateService.getServiceStats(
+                services.stream().map(com.example.backend.model.Service::getId).collect(Collectors.toList()));
+        return services.stream()
+                .map(service -> convertToDto(service, stats.get(service.getId())))
+                .collect(Collectors.toList());
     }
 
     private ServiceDto convertToDto(com.example.backend.model.Service service) {
+        return convertToDto(service, ratingAggregateService.getServiceStats(service.getId()));
+    }
+
+    private ServiceDto convertToDto(com.example.backend.model.Service service, ReviewService.ReviewStats reviewStats) {
         ServiceDto dto = new ServiceDto();
         dto.setId(service.getId());
         dto.setName(service.getName());
@@ -125,10 +266,13 @@ public class ServiceService {
             dto.setProviderName(service.getProvider().getFirstName() + " " + service.getProvider().getLastName());
         }
 
-     
-        var reviewStats = reviewService.getReviewStatsForService(service.getId());
-        dto.setAverageRating(reviewStats.getAverageRating());
-        dto.setReviewCount(reviewStats.getReviewCount());
+        if (reviewStats != null) {
+            dto.setAverageRating(reviewStats.getAverageRating());
+            dto.setReviewCount(reviewStats.getReviewCount());
+        } else {
+            dto.setAverageRating(0.0);
+            dto.setReviewCount(0);
+        }
 
         return dto;
     }
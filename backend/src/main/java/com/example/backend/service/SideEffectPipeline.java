@@ -0,0 +1,182 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Побочные действия (уведомления и т.п.), которые выполняются в фоне после коммита транзакции.
+ *
+ * <p>Задачи попадают в ограниченную очередь и разбираются воркерами пачками. Если очередь
+ * заполнена и не освободилась за {@code offer-timeout}, задача выполняется в потоке вызова —
+ * так нагрузка тормозит источник, а не теряется. Упавшая задача повторяется с экспоненциальной
+ * задержкой до {@code max-attempts} раз. Задачи откатившейся транзакции не выполняются.
+ */
+@Component
+@Slf4j
+public class SideEffectPipeline implements DisposableBean {
+
+    private record Task(String name, Runnable action, int attempt) {
+    }
+
+    private final BlockingQueue<Task> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter retried;
+    private final Counter callerRuns;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private volatile boolean running = true;
+
+    public SideEffectPipeline(MeterRegistry meterRegistry,
+                              @Value("${app.side-effects.workers:2}") int workerCount,
+                              @Value("${app.side-effects.queue-capacity:10000}") int queueCapacity,
+                              @Value("${app.side-effects.batch-size:50}") int batchSize,
+                              @Value("${app.side-effects.offer-timeout:50ms}") Duration offerTimeout,
+                              @Value("${app.side-effects.max-attempts:3}") int maxAttempts,
+                              @Value("${app.side-effects.initial-backoff:200ms}") Duration initialBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.succeeded = taskCounter("succeeded");
+        this.failed = taskCounter("failed");
+        this.retried = taskCounter("retried");
+        this.callerRuns = taskCounter("caller_runs");
+        Gauge.builder("side_effects.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "side-effect-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "side-effect-" + threadNumber.incrementAndGet());
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Выполнить действие после коммита текущей транзакции; вне транзакции — сразу в фоне.
+     */
+    public void afterCommit(String name, Runnable action) {
+        Task task = new Task(name, action, 1);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(task);
+                }
+            });
+        } else {
+            submit(task);
+        }
+    }
+
+    private void submit(Task task) {
+        try {
+            if (running && queue.offer(task, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        callerRuns.increment();
+        run(task);
+    }
+
+    private void work() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Task first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (Task task : batch) {
+                    run(task);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void run(Task task) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            task.action().run();
+            succeeded.increment();
+        } catch (Exception e) {
+            retryOrFail(task, e);
+        } finally {
+            sample.stop(timers.computeIfAbsent(task.name(), name -> Timer.builder("side_effects.task")
+                    .tag("name", name)
+                    .register(meterRegistry)));
+        }
+    }
+
+    private void retryOrFail(Task task, Exception e) {
+        if (task.attempt() >= maxAttempts || !running) {
+            failed.increment();
+            log.warn("Side effect {} failed after {} attempts: {}", task.name(), task.attempt(), e.getMessage());
+            return;
+        }
+        retried.increment();
+        long delay = initialBackoff.toMillis() << (task.attempt() - 1);
+        Task next = new Task(task.name(), task.action(), task.attempt() + 1);
+        retryScheduler.schedule(() -> submit(next), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private Counter taskCounter(String result) {
+        return Counter.builder("side_effects.tasks").tag("result", result).register(meterRegistry);
+    }
+
+    // Дорабатываем то, что уже в очереди, но не дольше нескольких секунд
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        retryScheduler.shutdownNow();
+        for (Thread worker : workers) {
+            worker.join(5000);
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Dropping {} pending side effects on shutdown", queue.size());
+        }
+    }
+}
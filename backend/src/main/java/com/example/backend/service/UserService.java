@@ -1,16 +1,21 @@
 package com.example.backend.service;
 
+import com.example.backend.cache.CacheInvalidator;
 import com.example.backend.dto.UserDto;
+import com.example.backend.event.ServiceChangedEvent;
 import com.example.backend.model.User;
+import com.example.backend.repository.ServiceRepository;
 import com.example.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,30 +24,53 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheInvalidator cacheInvalidator;
+    private final ServiceRepository serviceRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Cacheable(value = "users", key = "'all'")
+    @Cacheable(value = "users", key = "'all'", sync = true)
     public List<UserDto> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "users", key = "#id")
+    @Cacheable(value = "users", key = "#id", sync = true)
     public UserDto getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return convertToDto(user);
     }
 
-    @Cacheable(value = "users", key = "'username_' + #username")
+    @Cacheable(value = "users", key = "'username_' + #username", sync = true)
     public UserDto getUserByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return convertToDto(user);
     }
 
+    @CachePut(value = "users", key = "'all'")
+    public List<UserDto> refreshAllUsers() {
+        return userRepository.findAll().stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    @CachePut(value = "users", key = "#id")
+    public UserDto refreshUserById(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return convertToDto(user);
+    }
+
+    @CachePut(value = "users", key = "'username_' + #username")
+    public UserDto refreshUserByUsername(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return convertToDto(user);
+    }
+
     @Transactional
-    @CacheEvict(value = "users", allEntries = true)
     public UserDto createUser(UserDto userDto) {
         if (userRepository.existsByUsername(userDto.getUsername())) {
             throw new RuntimeException("Username already exists");
@@ -63,15 +91,19 @@ public class UserService {
         user.setActive(userDto.getActive() != null ? userDto.getActive() : true);
 
         user = userRepository.save(user);
+        cacheInvalidator.userChanged(user, false);
         return convertToDto(user);
     }
 
     @Transactional
-    @CacheEvict(value = "users", allEntries = true)
     public UserDto updateUser(Long id, UserDto userDto) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        // Имя пользователя попадает в карточки услуг и заказов, их нужно сбросить отдельно
+        boolean displayNameChanged = !Objects.equals(user.getFirstName(), userDto.getFirstName())
+                || !Objects.equals(user.getLastName(), userDto.getLastName());
+
         user.setFirstName(userDto.getFirstName());
         user.setLastName(userDto.getLastName());
         user.setPhone(userDto.getPhone());
@@ -79,35 +111,40 @@ public class UserService {
         user.setEmail(userDto.getEmail());
 
         user = userRepository.save(user);
+        cacheInvalidator.userChanged(user, displayNameChanged);
+        if (displayNameChanged) {
+            serviceRepository.incrementVersionsByProvider(user.getId());
+            serviceRepository.findByProviderId(user.getId())
+                    .forEach(service -> eventPublisher.publishEvent(new ServiceChangedEvent(service.getId())));
+        }
         return convertToDto(user);
     }
 
     @Transactional
-    @CacheEvict(value = "users", allEntries = true)
     public UserDto updateUserRole(Long id, User.Role role) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setRole(role);
         user = userRepository.save(user);
+        cacheInvalidator.userChanged(user, false);
         return convertToDto(user);
     }
 
     @Transactional
-    @CacheEvict(value = "users", allEntries = true)
     public void deactivateUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setActive(false);
         userRepository.save(user);
+        cacheInvalidator.userChanged(user, false);
     }
 
     @Transactional
-    @CacheEvict(value = "users", allEntries = true)
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found");
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.deleteById(id);
+        cacheInvalidator.userChanged(user, false);
     }
 
     private UserDto convertToDto(User user) {
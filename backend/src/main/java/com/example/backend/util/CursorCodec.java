@@ -0,0 +1,33 @@
+package com.example.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+// Непрозрачные курсоры: значения ключа последней строки, упакованные в base64url
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "\u001F";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String... parts) {
+        String raw = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static List<String> decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> parts = Arrays.asList(raw.split(SEPARATOR, -1));
+            if (parts.size() != expectedParts) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.backend.util;
+
+import java.util.Arrays;
+
+// Открытая адресация long -> int без упаковки ключей в Long; после заполнения используется только для чтения
+public final class LongIntHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Unsupported key " + key);
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            if (size + 1 > keys.length / 2) {
+                throw new IllegalStateException("LongIntHashMap capacity exceeded");
+            }
+            size++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    public int get(long key, int defaultValue) {
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
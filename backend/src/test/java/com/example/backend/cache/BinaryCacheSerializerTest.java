@@ -0,0 +1,145 @@
+package com.example.backend.cache;
+
+import com.example.backend.dto.CategoryDto;
+import com.example.backend.dto.OrderDto;
+import com.example.backend.dto.ServiceDto;
+import com.example.backend.dto.UserDto;
+import com.example.backend.model.Order;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Корректность бинарного формата кэша и его размер относительно JSON.
+ */
+class BinaryCacheSerializerTest {
+
+    private static final int CATALOG_SIZE = 500;
+
+    private final GenericJackson2JsonRedisSerializer json = jsonSerializer();
+    private final BinaryCacheSerializer binary = new BinaryCacheSerializer(json, 2048);
+
+    @Test
+    void roundTripPreservesCachedDtos() {
+        assertEquals(service(1), binary.deserialize(binary.serialize(service(1))));
+        assertEquals(order(2), binary.deserialize(binary.serialize(order(2))));
+        assertEquals(user(3), binary.deserialize(binary.serialize(user(3))));
+        assertEquals(category(4), binary.deserialize(binary.serialize(category(4))));
+
+        List<ServiceDto> catalog = catalog();
+        byte[] bytes = binary.serialize(catalog);
+        assertEquals(BinaryCacheSerializer.FLAG_LZ4, bytes[2], "large lists should be compressed");
+        assertEquals(catalog, binary.deserialize(bytes));
+    }
+
+    @Test
+    void passwordIsNotCached() {
+        UserDto user = user(5);
+        user.setPassword("secret");
+        UserDto cached = (UserDto) binary.deserialize(binary.serialize(user));
+        assertNull(cached.getPassword());
+    }
+
+    @Test
+    void unsupportedFormatVersionReadsAsMiss() {
+        byte[] bytes = binary.serialize(service(1));
+        bytes[1] = BinaryCacheSerializer.FORMAT_VERSION + 1;
+        assertNull(binary.deserialize(bytes));
+    }
+
+    @Test
+    void corruptedValueReadsAsMiss() {
+        byte[] bytes = binary.serialize(catalog());
+        assertNull(binary.deserialize(Arrays.copyOf(bytes, bytes.length / 2)));
+    }
+
+    @Test
+    void legacyJsonValueIsStillReadable() {
+        ServiceDto service = service(7);
+        assertEquals(service, binary.deserialize(json.serialize(service)));
+    }
+
+    @Test
+    void fieldsAppendedByNewerVersionAreSkipped() {
+        byte[] bytes = binary.serialize(category(8));
+        // Имитируем запись более новой версии: лишнее строковое поле перед маркером конца
+        byte[] extra = {FieldWriter.STRING, 3, 'n', 'e', 'w'};
+        byte[] newer = new byte[bytes.length + extra.length];
+        System.arraycopy(bytes, 0, newer, 0, bytes.length - 1);
+        System.arraycopy(extra, 0, newer, bytes.length - 1, extra.length);
+        newer[newer.length - 1] = FieldWriter.END;
+
+        assertEquals(category(8), binary.deserialize(newer));
+    }
+
+    @Test
+    void binaryIsSmallerThanJson() {
+        List<ServiceDto> catalog = catalog();
+        BinaryCacheSerializer uncompressed = new BinaryCacheSerializer(json, -1);
+
+        byte[] jsonBytes = json.serialize(catalog);
+        byte[] binaryBytes = uncompressed.serialize(catalog);
+        byte[] compressedBytes = binary.serialize(catalog);
+
+        assertEquals(catalog, uncompressed.deserialize(binaryBytes));
+        assertEquals(catalog, binary.deserialize(compressedBytes));
+        assertTrue(binaryBytes.length * 2 < jsonBytes.length,
+                () -> "binary should be at least 2x smaller than JSON: " + binaryBytes.length + " vs " + jsonBytes.length);
+        assertTrue(compressedBytes.length < binaryBytes.length,
+                () -> "LZ4 should shrink the catalog: " + compressedBytes.length + " vs " + binaryBytes.length);
+    }
+
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        // Та же настройка, что и в RedisConfig
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.activateDefaultTyping(
+                LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY
+        );
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    private static List<ServiceDto> catalog() {
+        List<ServiceDto> services = new ArrayList<>();
+        for (int i = 1; i <= CATALOG_SIZE; i++) {
+            services.add(service(i));
+        }
+        return services;
+    }
+
+    private static ServiceDto service(long id) {
+        return new ServiceDto(id, "Уборка квартиры " + id, "Генеральная уборка с мытьём окон и балконов",
+                new BigDecimal("2500.00").add(BigDecimal.valueOf(id)), 120, "/images/cleaning.jpg",
+                id % 8 + 1, "Уборка", id % 20 + 1, "Иван Петров", true, 4.5, (int) (id % 50));
+    }
+
+    private static OrderDto order(long id) {
+        return new OrderDto(id, 10L, "Анна Смирнова", 20L, "Ремонт сантехники", 30L, "Иван Петров",
+                LocalDateTime.of(2024, 5, 1, 10, 30), "ул. Ленина, 1", null, Order.OrderStatus.PENDING,
+                new BigDecimal("1500.00"), LocalDateTime.of(2024, 4, 28, 9, 15, 42, 123_000_000), null);
+    }
+
+    private static UserDto user(long id) {
+        return new UserDto(id, "user" + id, "user" + id + "@example.com", "Анна", "Смирнова",
+                "+79990000000", null, "CUSTOMER", null, LocalDateTime.of(2024, 1, 1, 0, 0), true);
+    }
+
+    private static CategoryDto category(long id) {
+        return new CategoryDto(id, "Уборка", "Уборка помещений", "broom", 12L);
+    }
+}
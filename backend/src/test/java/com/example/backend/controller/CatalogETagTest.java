@@ -0,0 +1,107 @@
+package com.example.backend.controller;
+
+import com.example.backend.catalog.CatalogSnapshotHolder;
+import com.example.backend.dto.ReviewDto;
+import com.example.backend.model.Category;
+import com.example.backend.model.Order;
+import com.example.backend.model.Review;
+import com.example.backend.model.User;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.ReviewRepository;
+import com.example.backend.repository.ServiceRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.RatingAggregateService;
+import com.example.backend.service.ReviewService;
+import com.example.backend.support.SqlCountTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static com.example.backend.support.TestFixtures.category;
+import static com.example.backend.support.TestFixtures.order;
+import static com.example.backend.support.TestFixtures.review;
+import static com.example.backend.support.TestFixtures.service;
+import static com.example.backend.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag каталога после изменений, которые меняют карточку услуги без её сохранения через JPA:
+ * рейтинг пересчитывается bulk-UPDATE, и устаревшая сущность в контексте не должна оставить старую версию.
+ */
+@SqlCountTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private ReviewService reviewService;
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+    @Autowired
+    private CatalogSnapshotHolder catalogSnapshotHolder;
+
+    private Long serviceId;
+    private Long categoryId;
+    private Review review;
+
+    @BeforeAll
+    void createFixtures() {
+        User customer = userRepository.save(user("etag-customer", User.Role.CUSTOMER));
+        User provider = userRepository.save(user("etag-provider", User.Role.PROVIDER));
+        Category category = categoryRepository.save(category("ETag category"));
+        com.example.backend.model.Service service = serviceRepository.save(service("ETag service", category, provider));
+        Order order = order(customer, service, LocalDateTime.now().minusDays(1));
+        order.setStatus(Order.OrderStatus.COMPLETED);
+        order = orderRepository.save(order);
+        review = reviewRepository.save(review(order, 2));
+        serviceId = service.getId();
+        categoryId = category.getId();
+
+        ratingAggregateService.rebuild();
+        catalogSnapshotHolder.rebuild();
+    }
+
+    @Test
+    void reviewEditChangesServiceETags() throws Exception {
+        String item = eTag("/services/" + serviceId);
+        String list = eTag("/services");
+        String byCategory = eTag("/services/category/" + categoryId);
+
+        ReviewDto edit = new ReviewDto();
+        edit.setRating(5);
+        edit.setComment("Better than expected");
+        reviewService.updateReview(review.getId(), edit);
+        catalogSnapshotHolder.applyChanges();
+
+        assertNotEquals(item, eTag("/services/" + serviceId));
+        assertNotEquals(list, eTag("/services"));
+        assertNotEquals(byCategory, eTag("/services/category/" + categoryId));
+    }
+
+    private String eTag(String url) throws Exception {
+        String eTag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(eTag, url);
+        return eTag;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.CategoryDto;
+import com.example.backend.model.Category;
+import com.example.backend.model.Order;
+import com.example.backend.model.User;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.ReviewRepository;
+import com.example.backend.repository.ServiceRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.CategoryService;
+import com.example.backend.support.SqlCountTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static com.example.backend.support.SqlMatchers.sql;
+import static com.example.backend.support.TestFixtures.category;
+import static com.example.backend.support.TestFixtures.order;
+import static com.example.backend.support.TestFixtures.review;
+import static com.example.backend.support.TestFixtures.service;
+import static com.example.backend.support.TestFixtures.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL на чтение каталога. Рейтинги услуг и счётчики категорий раньше догружались по строке
+ * ({@code getReviewStatsForService}, {@code findByCategoryIdAndActiveTrue}), здесь это ловится
+ * как повтор запроса и как рост числа запросов.
+ */
+@SqlCountTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogSqlCountTest {
+
+    private static final int SERVICES = 6;
+    private static final int PAGE = 3;
+    private static final int FEED_CATEGORIES = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private CategoryService categoryService;
+
+    private Long providerId;
+    private Long categoryId;
+    private Long serviceId;
+
+    @BeforeAll
+    void createFixtures() {
+        User customer = userRepository.save(user("catalog-customer", User.Role.CUSTOMER));
+        User provider = userRepository.save(user("catalog-provider", User.Role.PROVIDER));
+        Category category = categoryRepository.save(category("Catalog SQL category"));
+
+        for (int i = 0; i < SERVICES; i++) {
+            com.example.backend.model.Service service = service("Catalog SQL service " + i, category, provider);
+            service.setPrice(BigDecimal.valueOf(10 + i));
+            service = serviceRepository.save(service);
+            serviceId = service.getId();
+
+            Order order = order(customer, service, LocalDateTime.now().minusDays(1 + i));
+            order.setStatus(Order.OrderStatus.COMPLETED);
+            order = orderRepository.save(order);
+            reviewRepository.save(review(order, 1 + i % 5));
+        }
+        providerId = provider.getId();
+        categoryId = category.getId();
+
+        // Через сервис, чтобы изменения попали в журнал для ленты
+        for (int i = 0; i < FEED_CATEGORIES; i++) {
+            CategoryDto feedCategory = new CategoryDto();
+            feedCategory.setName("Catalog feed category " + i);
+            categoryService.createCategory(feedCategory);
+        }
+    }
+
+    @Test
+    void servicesByProvider() throws Exception {
+        // Услуги с категориями и рейтинги всех услуг одним запросом
+        expect("/services/provider/" + providerId, sql().statements(2));
+    }
+
+    @Test
+    void servicesPage() throws Exception {
+        expect("/services?limit=" + PAGE, sql().atMostStatements(2));
+        expect("/services/category/" + categoryId + "?limit=" + PAGE, sql().atMostStatements(2));
+        // Страница читает limit + 1 услуг и рейтинги только для них
+        expect("/services/category/" + categoryId + "?limit=" + PAGE, sql().atMostRows(2L * (PAGE + 1)));
+    }
+
+    @Test
+    void serviceById() throws Exception {
+        expect("/services/" + serviceId, sql().atMostStatements(2));
+    }
+
+    @Test
+    void catalogSnapshotReads() throws Exception {
+        // Каталог и дерево категорий отдаются из снимка в памяти
+        expect("/services", sql().statements(0));
+        expect("/categories", sql().statements(0));
+        expect("/categories/tree", sql().statements(0));
+    }
+
+    @Test
+    void catalogChangeFeed() throws Exception {
+        // Счётчики поддеревьев для всех категорий страницы одним запросом
+        expect("/changes/catalog?since=0&limit=500", sql().atMostStatements(7));
+    }
+
+    private void expect(String url, ResultMatcher matcher) throws Exception {
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(matcher)
+                .andExpect(sql().noRepeatedStatements());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.backend.controller;
+
+import com.example.backend.model.Category;
+import com.example.backend.model.Order;
+import com.example.backend.model.User;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.ReviewRepository;
+import com.example.backend.repository.ServiceRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.support.SqlCountTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.backend.support.SqlMatchers.sql;
+import static com.example.backend.support.TestFixtures.category;
+import static com.example.backend.support.TestFixtures.order;
+import static com.example.backend.support.TestFixtures.review;
+import static com.example.backend.support.TestFixtures.service;
+import static com.example.backend.support.TestFixtures.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Точное число SQL-запросов на эндпоинты чтения заказов, отзывов и услуг.
+ *
+ * <p>У заказов в выборке разные клиенты, исполнители и услуги: догрузка связей по одной строке
+ * сразу меняет число запросов. Число не должно зависеть от количества строк в ответе.
+ */
+@SqlCountTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointSqlCountTest {
+
+    private static final int CUSTOMERS = 3;
+    private static final int ORDERS_PER_CUSTOMER = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private Long orderId;
+    private Long reviewId;
+    private Long providerId;
+    private Long serviceId;
+
+    @BeforeAll
+    void createFixtures() {
+        List<User> customers = new ArrayList<>();
+        List<User> providers = new ArrayList<>();
+        List<com.example.backend.model.Service> services = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(userRepository.save(user("sql-customer-" + i, User.Role.CUSTOMER)));
+            providers.add(userRepository.save(user("sql-provider-" + i, User.Role.PROVIDER)));
+            Category category = categoryRepository.save(category("SQL category " + i));
+            services.add(serviceRepository.save(service("SQL service " + i, category, providers.get(i))));
+        }
+
+        for (int c = 0; c < CUSTOMERS; c++) {
+            for (int i = 0; i < ORDERS_PER_CUSTOMER; i++) {
+                int p = (c + i) % CUSTOMERS;
+                Order order = order(customers.get(c), services.get(p),
+                        LocalDateTime.now().plusDays(1 + c).plusHours(2L * i));
+                order.setStatus(i % 2 == 0 ? Order.OrderStatus.COMPLETED : Order.OrderStatus.PENDING);
+                order = orderRepository.save(order);
+                orderId = order.getId();
+                if (order.getStatus() == Order.OrderStatus.COMPLETED) {
+                    reviewId = reviewRepository.save(review(order, 5)).getId();
+                }
+            }
+        }
+        providerId = providers.get(0).getId();
+        serviceId = services.get(0).getId();
+    }
+
+    @Test
+    @WithMockUser(username = "sql-customer-0", roles = "CUSTOMER")
+    void orderById() throws Exception {
+        assertStatements(1, "/orders/" + orderId);
+    }
+
+    @Test
+    @WithMockUser(username = "sql-customer-0", roles = "CUSTOMER")
+    void myOrders() throws Exception {
+        // Пользователь по имени из токена и его заказы
+        assertStatements(2, "/orders/my-orders");
+        assertStatements(2, "/orders/my-orders?limit=2&status=PENDING,COMPLETED");
+        // Пользователь и limit + 1 заказов для курсора — остальные заказы клиента не читаются
+        mockMvc.perform(get("/orders/my-orders?limit=2")).andExpect(sql().atMostRows(4));
+    }
+
+    @Test
+    @WithMockUser(username = "sql-provider-0", roles = "PROVIDER")
+    void providerOrders() throws Exception {
+        assertStatements(2, "/orders/my-provider-orders");
+        assertStatements(2, "/orders/my-provider-orders?limit=2&sort=SCHEDULED_ASC");
+        // Пользователь, число услуг и заказы с услугами
+        assertStatements(3, "/orders/provider/stats");
+    }
+
+    @Test
+    @WithMockUser(username = "sql-admin", roles = "ADMIN")
+    void adminListings() throws Exception {
+        assertStatements(1, "/orders");
+        assertStatements(1, "/orders/status/PENDING");
+        assertStatements(1, "/admin/orders");
+        assertStatements(1, "/admin/orders?limit=5&status=PENDING&providerId=" + providerId);
+        assertStatements(1, "/admin/services");
+    }
+
+    @Test
+    @WithMockUser(username = "sql-customer-0", roles = "CUSTOMER")
+    void reviews() throws Exception {
+        assertStatements(1, "/reviews");
+        assertStatements(1, "/reviews/" + reviewId);
+        assertStatements(1, "/reviews/provider/" + providerId);
+        assertStatements(1, "/reviews/service/" + serviceId);
+    }
+
+    private void assertStatements(int expected, String url) throws Exception {
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(sql().statements(expected))
+                .andExpect(sql().noRepeatedStatements());
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.backend.service;
+
+import com.example.backend.booking.BookingEngine;
+import com.example.backend.cache.CacheInvalidator;
+import com.example.backend.dto.OrderEvent;
+import com.example.backend.kafka.OutboxPublisher;
+import com.example.backend.model.Category;
+import com.example.backend.model.Order;
+import com.example.backend.model.User;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.ServiceRepository;
+import com.example.backend.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.backend.support.TestFixtures.category;
+import static com.example.backend.support.TestFixtures.order;
+import static com.example.backend.support.TestFixtures.service;
+import static com.example.backend.support.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Нагрузочная проверка смены статусов: много потоков двигают и отменяют одни и те же заказы.
+ * Каждое успешное изменение увеличивает версию ровно на один и публикует ровно одно событие,
+ * поэтому совпадение версии с числом событий означает, что ни одно изменение не потеряно.
+ */
+@DataJpaTest(showSql = false, properties = {
+        // Пул соединений, как в приложении: встроенная БД по умолчанию открывает соединение на каждый запрос
+        "spring.datasource.url=jdbc:h2:mem:order-status;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.orders.status-update-attempts=100"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class OrderStatusConcurrencyTest {
+
+    private static final int ORDERS = 200;
+    private static final int THREADS = 16;
+    private static final EnumSet<Order.OrderStatus> FINAL =
+            EnumSet.of(Order.OrderStatus.COMPLETED, Order.OrderStatus.CANCELLED);
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @MockBean
+    private OutboxPublisher outboxPublisher;
+    @MockBean
+    private BookingEngine bookingEngine;
+    @MockBean
+    private NotificationService notificationService;
+    @MockBean
+    private CacheInvalidator cacheInvalidator;
+
+    @Test
+    void concurrentStatusUpdatesAreNotLost() throws Exception {
+        Map<Long, AtomicInteger> committedEvents = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            Long orderId = invocation.<OrderEvent>getArgument(0).getOrderId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedEvents.computeIfAbsent(orderId, id -> new AtomicInteger()).incrementAndGet();
+                }
+            });
+            return null;
+        }).when(outboxPublisher).publishOrderEvent(any());
+
+        List<Long> orderIds = createOrders();
+        List<Long> open = new CopyOnWriteArrayList<>(orderIds);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger staleRejects = new AtomicInteger();
+        AtomicInteger exhausted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.currentTimeMillis();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!open.isEmpty()) {
+                    Long orderId;
+                    try {
+                        orderId = open.get(random.nextInt(open.size()));
+                    } catch (IndexOutOfBoundsException e) {
+                        continue;
+                    }
+                    Order order = orderRepository.findById(orderId).orElseThrow();
+                    if (FINAL.contains(order.getStatus())) {
+                        open.remove(orderId);
+                        continue;
+                    }
+                    Order.OrderStatus target = random.nextInt(10) == 0
+                            ? Order.OrderStatus.CANCELLED : next(order.getStatus());
+                    try {
+                        orderService.updateOrderStatus(order.getId(), target, null);
+                        applied.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Статус сменился после чтения: переход стал недопустим — это отказ, а не потеря
+                        if (e.getMessage().startsWith("Invalid order status transition")) {
+                            staleRejects.incrementAndGet();
+                        } else if (e.getMessage().contains("modified concurrently")) {
+                            exhausted.incrementAndGet();
+                        } else {
+                            throw e;
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+
+        int totalEvents = 0;
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            assertTrue(FINAL.contains(order.getStatus()), "order " + order.getId() + " is " + order.getStatus());
+            int events = committedEvents.getOrDefault(order.getId(), new AtomicInteger()).get();
+            assertEquals(order.getVersion().intValue(), events, "order " + order.getId());
+            assertTrue(events >= 1 && events <= 3);
+            totalEvents += events;
+        }
+        assertFalse(committedEvents.isEmpty());
+        log.info("Status updates: {} calls ({} changes, {} stale rejects, {} gave up) in {} ms, {} calls/s",
+                applied.get(), totalEvents, staleRejects.get(), exhausted.get(), elapsed,
+                (applied.get() + staleRejects.get()) * 1000L / elapsed);
+    }
+
+    private static Order.OrderStatus next(Order.OrderStatus status) {
+        return switch (status) {
+            case PENDING -> Order.OrderStatus.CONFIRMED;
+            case CONFIRMED -> Order.OrderStatus.IN_PROGRESS;
+            default -> Order.OrderStatus.COMPLETED;
+        };
+    }
+
+    private List<Long> createOrders() {
+        User customer = userRepository.save(user("customer", User.Role.CUSTOMER));
+        User provider = userRepository.save(user("provider", User.Role.PROVIDER));
+        Category category = categoryRepository.save(category("Cleaning"));
+        com.example.backend.model.Service service = serviceRepository.save(service("Window cleaning", category, provider));
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            ids.add(orderRepository.save(order(customer, service, LocalDateTime.now().plusDays(1).plusHours(i))).getId());
+        }
+        return ids;
+    }
+}
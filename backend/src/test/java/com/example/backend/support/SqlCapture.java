@@ -0,0 +1,69 @@
+package com.example.backend.support;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Запросы, выполненные за один HTTP-запрос или один вызов {@link SqlRecorder#record}.
+ */
+public final class SqlCapture {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final List<SqlStatement> statements;
+
+    SqlCapture(List<SqlStatement> statements) {
+        this.statements = List.copyOf(statements);
+    }
+
+    public List<SqlStatement> getStatements() {
+        return statements;
+    }
+
+    public int count() {
+        return statements.size();
+    }
+
+    public long rows() {
+        return statements.stream().mapToLong(SqlStatement::getRows).sum();
+    }
+
+    /**
+     * Запросы, выполненные больше одного раза с точностью до параметров, — типичный след N+1.
+     */
+    public Map<String, Long> repeated() {
+        return statements.stream()
+                .collect(Collectors.groupingBy(statement -> normalize(statement.getSql()), LinkedHashMap::new,
+                        Collectors.counting()))
+                .entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public String report(String title) {
+        StringBuilder report = new StringBuilder(title)
+                .append(": ").append(count()).append(" statements, ").append(rows()).append(" rows");
+        for (int i = 0; i < statements.size(); i++) {
+            SqlStatement statement = statements.get(i);
+            report.append(String.format("%n  %2d. [%d rows] %s", i + 1, statement.getRows(), statement.getSql()));
+        }
+        Map<String, Long> repeated = repeated();
+        if (!repeated.isEmpty()) {
+            report.append(String.format("%n  repeated statements (possible N+1):"));
+            repeated.forEach((sql, times) -> report.append(String.format("%n    %dx %s", times, sql)));
+        }
+        return report.toString();
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        // Батчевая загрузка по списку id с разной длиной списка — один и тот же запрос
+        return IN_LIST.matcher(normalized).replaceAll("(?)").replaceAll("\\s+", " ").trim();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Записывает SQL каждого HTTP-запроса, включая фильтры безопасности, и кладёт результат
+ * в атрибут запроса, откуда его читает {@link SqlMatchers}.
+ */
+public class SqlCaptureFilter extends OncePerRequestFilter {
+
+    static final String ATTRIBUTE = SqlCaptureFilter.class.getName() + ".capture";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlCapture capture;
+        try {
+            capture = SqlRecorder.record(() -> {
+                chain.doFilter(request, response);
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+        request.setAttribute(ATTRIBUTE, capture);
+    }
+
+    public static SqlCapture capture(MvcResult result) {
+        Object capture = result.getRequest().getAttribute(ATTRIBUTE);
+        if (!(capture instanceof SqlCapture sqlCapture)) {
+            throw new AssertionError("SQL was not captured for " + describe(result)
+                    + ": annotate the test with @SqlCountTest");
+        }
+        return sqlCapture;
+    }
+
+    static String describe(MvcResult result) {
+        HttpServletRequest request = result.getRequest();
+        String query = request.getQueryString();
+        return request.getMethod() + " " + request.getRequestURI() + (query != null ? "?" + query : "");
+    }
+}
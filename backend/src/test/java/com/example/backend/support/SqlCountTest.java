@@ -0,0 +1,34 @@
+package com.example.backend.support;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Интеграционный тест эндпоинтов с подсчётом SQL на встроенной H2: без PostgreSQL, Redis и Kafka.
+ * Все такие классы делят один контекст и одну базу, поэтому данные каждого класса должны
+ * иметь свои имена пользователей.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-count;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.cache.local.enabled=false",
+        "app.idempotency.store=memory",
+        "app.dispatch.enabled=false"
+})
+@AutoConfigureMockMvc
+@Import(SqlRecorderConfiguration.class)
+public @interface SqlCountTest {
+}
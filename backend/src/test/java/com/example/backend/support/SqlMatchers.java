@@ -0,0 +1,53 @@
+package com.example.backend.support;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Проверки SQL, выполненного за HTTP-запрос:
+ * {@code mockMvc.perform(get(url)).andExpect(sql().atMostStatements(2))}.
+ *
+ * <p>При провале в сообщение попадает отчёт со всеми запросами, числом прочитанных строк
+ * и повторами — по нему видно, какой код начал ходить в БД на каждую строку.
+ */
+public final class SqlMatchers {
+
+    private SqlMatchers() {
+    }
+
+    public static SqlMatchers sql() {
+        return new SqlMatchers();
+    }
+
+    public ResultMatcher statements(int expected) {
+        return result -> check(result, "exactly " + expected + " statements", capture -> capture.count() == expected);
+    }
+
+    public ResultMatcher atMostStatements(int max) {
+        return result -> check(result, "at most " + max + " statements", capture -> capture.count() <= max);
+    }
+
+    public ResultMatcher atMostRows(long max) {
+        return result -> check(result, "at most " + max + " rows fetched", capture -> capture.rows() <= max);
+    }
+
+    /**
+     * Один и тот же запрос с разными параметрами не выполняется дважды: список не догружается по строке.
+     */
+    public ResultMatcher noRepeatedStatements() {
+        return result -> check(result, "no repeated statements", capture -> capture.repeated().isEmpty());
+    }
+
+    private static void check(MvcResult result, String expectation, Predicate<SqlCapture> condition) {
+        SqlCapture capture = SqlCaptureFilter.capture(result);
+        if (!condition.test(capture)) {
+            Map<String, Long> repeated = capture.repeated();
+            throw new AssertionError("Expected " + expectation
+                    + (repeated.isEmpty() ? "" : " (" + repeated.size() + " repeated)") + "\n"
+                    + capture.report(SqlCaptureFilter.describe(result)));
+        }
+    }
+}
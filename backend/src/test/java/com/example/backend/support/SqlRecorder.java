@@ -0,0 +1,117 @@
+package com.example.backend.support;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Записывает SQL, который текущий поток отправляет в БД, пока идёт {@link #record}.
+ *
+ * <p>Источник данных оборачивается прокси на уровне JDBC, поэтому учитываются и запросы Hibernate,
+ * и JdbcTemplate. Запрос записывается при выполнении, батч — одним запросом; строки считаются
+ * по мере чтения результата. Фоновые задачи работают в своих потоках и в запись не попадают.
+ */
+public final class SqlRecorder {
+
+    private static final ThreadLocal<List<SqlStatement>> STATEMENTS = new ThreadLocal<>();
+
+    private SqlRecorder() {
+    }
+
+    public static SqlCapture record(Callable<?> action) throws Exception {
+        List<SqlStatement> statements = new ArrayList<>();
+        List<SqlStatement> outer = STATEMENTS.get();
+        STATEMENTS.set(statements);
+        try {
+            action.call();
+        } finally {
+            STATEMENTS.set(outer);
+            // Вложенная запись не прячет запросы от внешней
+            if (outer != null) {
+                outer.addAll(statements);
+            }
+        }
+        return new SqlCapture(statements);
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                result instanceof Connection connection ? wrap(connection) : result);
+    }
+
+    private static Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (result instanceof CallableStatement statement) {
+                return wrap(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrap(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return wrap(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    // preparedSql задан для подготовленных запросов; простой Statement передаёт SQL при выполнении
+    private static <T extends Statement> T wrap(Class<T> type, T statement, String preparedSql) {
+        SqlStatement[] current = new SqlStatement[1];
+        return proxy(type, statement, (method, args, result) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                current[0] = sql != null ? executed(sql) : null;
+            }
+            if (result instanceof ResultSet resultSet && current[0] != null) {
+                return wrap(resultSet, current[0]);
+            }
+            return result;
+        });
+    }
+
+    private static ResultSet wrap(ResultSet resultSet, SqlStatement statement) {
+        return proxy(ResultSet.class, resultSet, (method, args, result) -> {
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                statement.rowFetched();
+            }
+            return result;
+        });
+    }
+
+    private static SqlStatement executed(String sql) {
+        SqlStatement statement = new SqlStatement(sql);
+        List<SqlStatement> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(statement);
+        }
+        return statement;
+    }
+
+    private interface ResultHandler {
+        Object handle(java.lang.reflect.Method method, Object[] args, Object result) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlRecorder.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return handler.handle(method, args, result);
+                });
+    }
+}
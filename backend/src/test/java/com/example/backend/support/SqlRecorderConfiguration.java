@@ -0,0 +1,43 @@
+package com.example.backend.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Подключает {@link SqlRecorder} к источнику данных приложения и {@link SqlCaptureFilter} к MockMvc.
+ * Кэш отключён, чтобы каждый запрос доходил до БД и число SQL не зависело от порядка тестов.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlRecorderConfiguration {
+
+    @Bean
+    static BeanPostProcessor sqlRecordingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? SqlRecorder.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<SqlCaptureFilter> sqlCaptureFilter() {
+        FilterRegistrationBean<SqlCaptureFilter> registration = new FilterRegistrationBean<>(new SqlCaptureFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @Primary
+    CacheManager noOpCacheManager() {
+        return new NoOpCacheManager();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.backend.support;
+
+/**
+ * Один выполненный запрос и число прочитанных им строк.
+ */
+public final class SqlStatement {
+
+    private final String sql;
+    private int rows;
+
+    SqlStatement(String sql) {
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+}
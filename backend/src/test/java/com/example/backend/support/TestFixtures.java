@@ -0,0 +1,69 @@
+package com.example.backend.support;
+
+import com.example.backend.model.Category;
+import com.example.backend.model.Order;
+import com.example.backend.model.Review;
+import com.example.backend.model.Service;
+import com.example.backend.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Несохранённые сущности для интеграционных тестов: заполнены только обязательные поля,
+ * остальное тест задаёт сам перед сохранением.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setFirstName(username);
+        user.setLastName("Test");
+        user.setRole(role);
+        return user;
+    }
+
+    public static Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+
+    public static Service service(String name, Category category, User provider) {
+        Service service = new Service();
+        service.setName(name);
+        service.setPrice(BigDecimal.TEN);
+        service.setDurationMinutes(60);
+        service.setCategory(category);
+        service.setProvider(provider);
+        return service;
+    }
+
+    /**
+     * Заказ у исполнителя услуги по её цене.
+     */
+    public static Order order(User customer, Service service, LocalDateTime scheduledDateTime) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setService(service);
+        order.setProvider(service.getProvider());
+        order.setScheduledDateTime(scheduledDateTime);
+        order.setTotalPrice(service.getPrice());
+        return order;
+    }
+
+    public static Review review(Order order, int rating) {
+        Review review = new Review();
+        review.setOrder(order);
+        review.setCustomer(order.getCustomer());
+        review.setProvider(order.getProvider());
+        review.setRating(rating);
+        return review;
+    }
+}
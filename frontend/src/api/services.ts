@@ -88,6 +88,27 @@ export const serviceApi = {
   delete: (id: number) => apiClient.delete(`/services/${id}`),
 }
 
+// Повторяет Order.OrderStatus.canTransitionTo на сервере: недоступные статусы не предлагаются в списках
+export const canChangeOrderStatus = (
+  from: Order['status'],
+  to: Order['status'],
+  byAdmin = false
+): boolean => {
+  if (from === to) return true
+  switch (from) {
+    case 'PENDING':
+      return to === 'CONFIRMED' || to === 'CANCELLED'
+    case 'CONFIRMED':
+      return to === 'IN_PROGRESS' || to === 'CANCELLED'
+    case 'IN_PROGRESS':
+      return to === 'COMPLETED' || (byAdmin && to === 'CANCELLED')
+    case 'CANCELLED':
+      return byAdmin && to === 'PENDING'
+    default:
+      return false
+  }
+}
+
 export const orderApi = {
   getAll: () => apiClient.get<Order[]>('/orders'),
   getById: (id: number) => apiClient.get<Order>(`/orders/${id}`),
@@ -100,7 +121,10 @@ export const orderApi = {
     scheduledDateTime: string
     address?: string
     notes?: string
-  }) => apiClient.post<Order>('/orders', data),
+  }, idempotencyKey?: string) =>
+    apiClient.post<Order>('/orders', data, {
+      headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : undefined,
+    }),
   updateStatus: (id: number, status: Order['status']) =>
     apiClient.put<Order>(`/orders/${id}/status?status=${status}`),
   cancel: (id: number) => apiClient.delete(`/orders/${id}`),
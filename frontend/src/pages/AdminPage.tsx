@@ -1,5 +1,5 @@
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
-import { adminApi, Order, categoryApi } from '../api/services'
+import { adminApi, Order, categoryApi, canChangeOrderStatus } from '../api/services'
 import { 
   Users, ShoppingBag, Package, BarChart3, 
   Trash2, TrendingUp, Plus, X as XIcon, Search, Filter
@@ -649,11 +649,11 @@ export default function AdminPage() {
                     }
                     className="border border-gray-300 rounded px-3 py-2 text-gray-900 bg-white"
                   >
-                    <option value="PENDING">Ожидает</option>
-                    <option value="CONFIRMED">Подтвержден</option>
-                    <option value="IN_PROGRESS">В работе</option>
-                    <option value="COMPLETED">Завершен</option>
-                    <option value="CANCELLED">Отменен</option>
+                    <option value="PENDING" disabled={!canChangeOrderStatus(order.status, 'PENDING', true)}>Ожидает</option>
+                    <option value="CONFIRMED" disabled={!canChangeOrderStatus(order.status, 'CONFIRMED', true)}>Подтвержден</option>
+                    <option value="IN_PROGRESS" disabled={!canChangeOrderStatus(order.status, 'IN_PROGRESS', true)}>В работе</option>
+                    <option value="COMPLETED" disabled={!canChangeOrderStatus(order.status, 'COMPLETED', true)}>Завершен</option>
+                    <option value="CANCELLED" disabled={!canChangeOrderStatus(order.status, 'CANCELLED', true)}>Отменен</option>
                   </select>
                   <button
                     onClick={() => {
@@ -1,5 +1,5 @@
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
-import { serviceApi, categoryApi, orderApi, Service, Order } from '../api/services'
+import { serviceApi, categoryApi, orderApi, Service, Order, canChangeOrderStatus } from '../api/services'
 import { Plus, Edit, Trash2, X as XIcon, ShoppingBag, Package, BarChart3, Search, Filter } from 'lucide-react'
 import { useState } from 'react'
 import toast from 'react-hot-toast'
@@ -434,10 +434,10 @@ export default function ProviderPage() {
                         disabled={updateOrderStatusMutation.isPending}
                         className="border border-gray-300 rounded-md px-3 py-2 text-sm font-medium text-gray-900 bg-white disabled:opacity-50"
                       >
-                        <option value="PENDING">Ожидает</option>
-                        <option value="CONFIRMED">Подтвержден</option>
-                        <option value="IN_PROGRESS">В работе</option>
-                        <option value="COMPLETED">Завершен</option>
+                        <option value="PENDING" disabled={!canChangeOrderStatus(order.status, 'PENDING')}>Ожидает</option>
+                        <option value="CONFIRMED" disabled={!canChangeOrderStatus(order.status, 'CONFIRMED')}>Подтвержден</option>
+                        <option value="IN_PROGRESS" disabled={!canChangeOrderStatus(order.status, 'IN_PROGRESS')}>В работе</option>
+                        <option value="COMPLETED" disabled={!canChangeOrderStatus(order.status, 'COMPLETED')}>Завершен</option>
                       </select>
                     )}
                   </div>
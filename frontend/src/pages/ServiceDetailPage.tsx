@@ -3,7 +3,7 @@ import { useParams, useNavigate } from 'react-router-dom'
 import { serviceApi, orderApi, reviewApi } from '../api/services'
 import { useAuthStore } from '../store/authStore'
 import { Star, Clock, Calendar, MapPin } from 'lucide-react'
-import { useState } from 'react'
+import { useRef, useState } from 'react'
 import toast from 'react-hot-toast'
 
 export default function ServiceDetailPage() {
@@ -33,9 +33,14 @@ export default function ServiceDetailPage() {
     },
   })
 
+  // Один ключ на оформление: повторная отправка той же формы не создаст второй заказ
+  const idempotencyKey = useRef(crypto.randomUUID())
+
   const createOrderMutation = useMutation({
-    mutationFn: orderApi.create,
+    mutationFn: (data: Parameters<typeof orderApi.create>[0]) =>
+      orderApi.create(data, idempotencyKey.current),
     onSuccess: () => {
+      idempotencyKey.current = crypto.randomUUID()
       toast.success('Заказ создан успешно!')
       queryClient.invalidateQueries({ queryKey: ['orders'] })
       navigate('/orders')